@@ -9,10 +9,24 @@ import android.content.Intent
 import android.widget.RemoteViews
 import android.graphics.Color
 import android.view.KeyEvent
+import com.suman334.rear.ArtworkPalette
+import com.suman334.rear.MemoryGovernor
 import com.suman334.rear.R
 import android.os.Build
 
 class MusicPlayerWidgetProvider : AppWidgetProvider() {
+
+    companion object {
+        // Decoded album art keyed by path + mtime, so progress ticks don't re-decode the same file
+        private const val ART_CACHE_BYTES = 2 * 1024 * 1024
+        private val artCache = object : android.util.LruCache<String, android.graphics.Bitmap>(ART_CACHE_BYTES) {
+            override fun sizeOf(key: String, value: android.graphics.Bitmap): Int = value.byteCount
+        }
+
+        init {
+            MemoryGovernor.register("widget_art_bitmaps") { fraction -> MemoryGovernor.trimLru(artCache, fraction) }
+        }
+    }
     
     override fun onUpdate(context: Context, appWidgetManager: AppWidgetManager, appWidgetIds: IntArray) {
         android.util.Log.d("MusicPlayerWidget", "=== onUpdate called for ${appWidgetIds.size} widgets ===")
@@ -48,7 +62,7 @@ class MusicPlayerWidgetProvider : AppWidgetProvider() {
                 // Load Album Art
                 if (!albumArtPath.isNullOrEmpty()) {
                     try {
-                        val bitmap = decodeSampledBitmapFromFile(albumArtPath, 200, 200)
+                        val bitmap = loadAlbumArt(albumArtPath)
                         if (bitmap != null) {
                             views.setImageViewBitmap(R.id.album_art, bitmap)
                         } else {
@@ -62,6 +76,13 @@ class MusicPlayerWidgetProvider : AppWidgetProvider() {
                     views.setImageViewResource(R.id.album_art, R.drawable.album_art_placeholder)
                 }
 
+                // Tint artist line from the cached artwork palette (same colors the app uses)
+                val palette = ArtworkPalette.getCached(context, albumArtPath)
+                views.setTextColor(
+                    R.id.song_artist,
+                    ArtworkPalette.color(palette, "lightVibrant", ArtworkPalette.color(palette, "lightMuted", Color.parseColor("#B3B3B3")))
+                )
+
                 // Apply rounded corners to album art (if API 31+)
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
                     views.setViewLayoutMargin(R.id.album_art, RemoteViews.MARGIN_END, 16f, android.util.TypedValue.COMPLEX_UNIT_DIP)
@@ -80,6 +101,14 @@ class MusicPlayerWidgetProvider : AppWidgetProvider() {
         }
     }
 
+    private fun loadAlbumArt(path: String): android.graphics.Bitmap? {
+        val key = path + "@" + java.io.File(path).lastModified()
+        artCache.get(key)?.let { return it }
+        val bitmap = decodeSampledBitmapFromFile(path, 200, 200) ?: return null
+        artCache.put(key, bitmap)
+        return bitmap
+    }
+
     private fun decodeSampledBitmapFromFile(path: String, reqWidth: Int, reqHeight: Int): android.graphics.Bitmap? {
         return try {
             // First decode with inJustDecodeBounds=true to check dimensions
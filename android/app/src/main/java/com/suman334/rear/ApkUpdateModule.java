@@ -0,0 +1,304 @@
+package com.suman334.rear;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Downloads and assembles app updates.
+ *
+ * Downloads stream into "<dest>.part" and are hashed as the bytes arrive; an interrupted
+ * download resumes with a Range request after re-hashing what is already on disk, and the
+ * file only moves to <dest> once size and SHA-256 match the manifest. Delta updates are a
+ * patch downloaded the same way and applied to the installed APK by ApkPatcher.
+ */
+public class ApkUpdateModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "ApkUpdateModule";
+    public static final String EVENT_PROGRESS = "ApkUpdateProgress";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_STEP_BYTES = 256 * 1024;
+
+    private final ReactApplicationContext reactContext;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    // Only touched on the worker thread
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private volatile boolean cancelled = false;
+
+    public ApkUpdateModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "ApkUpdate";
+    }
+
+    /**
+     * Resolves { path, sha256, bytes, resumed }. sha256 (hex) and size may be null / -1 when
+     * the manifest does not provide them; the download is then only checked for completeness
+     * against Content-Length. Rejects with E_UPDATE_INTEGRITY on a mismatch (the partial file
+     * is discarded) and E_UPDATE_DOWNLOAD_FAILED otherwise (the partial file is kept).
+     */
+    @ReactMethod
+    public void download(String url, String destPath, String sha256, double size, Promise promise) {
+        cancelled = false;
+        worker.execute(() -> {
+            try {
+                promise.resolve(downloadBlocking(url, localFile(destPath), sha256, (long) size));
+            } catch (IntegrityException e) {
+                Log.w(TAG, "download rejected: " + e.getMessage());
+                promise.reject("E_UPDATE_INTEGRITY", e.getMessage());
+            } catch (Exception e) {
+                Log.w(TAG, "download failed for " + url, e);
+                promise.reject("E_UPDATE_DOWNLOAD_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Applies a patch to the installed APK, writing <dest>. Resolves { path, sha256, bytes };
+     * rejects with E_UPDATE_INTEGRITY when the result does not hash to sha256.
+     */
+    @ReactMethod
+    public void applyPatch(String patchPath, String destPath, String sha256, Promise promise) {
+        cancelled = false;
+        worker.execute(() -> {
+            File dest = localFile(destPath);
+            // Not "<dest>.part": that is the resumable partial of a full APK download
+            File part = new File(dest.getPath() + ".patched");
+            try {
+                File installed = new File(reactContext.getApplicationInfo().sourceDir);
+                final long[] lastEmit = {0};
+                String hash = hex(ApkPatcher.apply(installed, localFile(patchPath), part, (written, total) -> {
+                    if (written - lastEmit[0] >= PROGRESS_STEP_BYTES || written == total) {
+                        lastEmit[0] = written;
+                        emitProgress("patch", written, total);
+                    }
+                    return !cancelled;
+                }));
+                if (sha256 == null || !sha256.equalsIgnoreCase(hash)) {
+                    part.delete();
+                    promise.reject("E_UPDATE_INTEGRITY", "Patched APK hash " + hash + " does not match manifest");
+                    return;
+                }
+                promote(part, dest);
+                WritableMap result = Arguments.createMap();
+                result.putString("path", "file://" + dest.getAbsolutePath());
+                result.putString("sha256", hash);
+                result.putDouble("bytes", dest.length());
+                promise.resolve(result);
+            } catch (Exception e) {
+                part.delete();
+                Log.w(TAG, "applyPatch failed", e);
+                promise.reject("E_UPDATE_PATCH_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Resolves whether the file exists and hashes to sha256 (hex). */
+    @ReactMethod
+    public void verify(String path, String sha256, Promise promise) {
+        worker.execute(() -> {
+            try {
+                File file = localFile(path);
+                promise.resolve(file.isFile() && sha256 != null && sha256.equalsIgnoreCase(hex(hashFile(file, null))));
+            } catch (Exception e) {
+                Log.w(TAG, "verify failed", e);
+                promise.resolve(false);
+            }
+        });
+    }
+
+    /** Stops the running download or patch at the next chunk; a download stays resumable. */
+    @ReactMethod
+    public void cancel(Promise promise) {
+        cancelled = true;
+        promise.resolve(true);
+    }
+
+    /** Resolves { path, size } of the installed base APK that patches apply to. */
+    @ReactMethod
+    public void getInstalledApk(Promise promise) {
+        File installed = new File(reactContext.getApplicationInfo().sourceDir);
+        WritableMap result = Arguments.createMap();
+        result.putString("path", installed.getAbsolutePath());
+        result.putDouble("size", installed.length());
+        promise.resolve(result);
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        // Required by NativeEventEmitter
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+        // Required by NativeEventEmitter
+    }
+
+    @Override
+    public void invalidate() {
+        cancelled = true;
+        worker.shutdownNow();
+        super.invalidate();
+    }
+
+    private WritableMap downloadBlocking(String url, File dest, String sha256, long size) throws Exception {
+        if (sha256 != null && dest.isFile() && (size < 0 || dest.length() == size)
+                && sha256.equalsIgnoreCase(hex(hashFile(dest, null)))) {
+            return result(dest, sha256.toLowerCase(), false);
+        }
+
+        File part = new File(dest.getPath() + ".part");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long have = part.isFile() ? part.length() : 0;
+        if (size >= 0 && have > size) {
+            part.delete();
+            have = 0;
+        }
+        if (have > 0) hashFile(part, digest);
+
+        OkHttpClient client = OkHttpClientProvider.getOkHttpClient();
+        boolean resumed = false;
+        while (true) {
+            Request.Builder request = new Request.Builder().url(url);
+            if (have > 0) request.header("Range", "bytes=" + have + "-");
+            try (Response response = client.newCall(request.build()).execute()) {
+                ResponseBody body = response.body();
+                // 416 on a resume means the partial file already holds everything
+                if (have > 0 && response.code() == 416) break;
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("HTTP " + response.code());
+                }
+                if (have > 0 && response.code() == 206 && PartialDownload.rangeStart(response.header("Content-Range")) != have) {
+                    // A 206 for some other range (or none stated) cannot be appended to the
+                    // partial file; drop it and fetch the whole APK again
+                    Log.w(TAG, "Unexpected Content-Range " + response.header("Content-Range") + " for resume at " + have);
+                    part.delete();
+                    digest.reset();
+                    have = 0;
+                    continue;
+                }
+                // Server ignored the Range header: start over
+                resumed = have > 0 && response.code() == 206;
+                if (!resumed && have > 0) {
+                    digest.reset();
+                    have = 0;
+                }
+                long total = body.contentLength() >= 0 ? have + body.contentLength() : size;
+                long lastEmit = have;
+                try (ReadableByteChannel in = Channels.newChannel(body.byteStream());
+                     FileChannel out = new FileOutputStream(part, resumed).getChannel()) {
+                    while (true) {
+                        if (cancelled) throw new InterruptedException("Update download cancelled");
+                        buffer.clear();
+                        int read = in.read(buffer);
+                        if (read == -1) break;
+                        digest.update(buffer.array(), 0, read);
+                        buffer.flip();
+                        while (buffer.hasRemaining()) out.write(buffer);
+                        have += read;
+                        if (have - lastEmit >= PROGRESS_STEP_BYTES) {
+                            lastEmit = have;
+                            emitProgress("download", have, total);
+                        }
+                    }
+                }
+                emitProgress("download", have, total);
+                break;
+            }
+        }
+
+        String hash = hex(digest.digest());
+        if ((size >= 0 && have != size) || (sha256 != null && !sha256.equalsIgnoreCase(hash))) {
+            part.delete();
+            throw new IntegrityException("Downloaded " + have + " bytes hashing to " + hash + ", manifest expects "
+                    + size + " bytes / " + sha256);
+        }
+        promote(part, dest);
+        return result(dest, hash, resumed);
+    }
+
+    private static final class IntegrityException extends IOException {
+        IntegrityException(String message) {
+            super(message);
+        }
+    }
+
+    private static WritableMap result(File dest, String hash, boolean resumed) {
+        WritableMap map = Arguments.createMap();
+        map.putString("path", "file://" + dest.getAbsolutePath());
+        map.putString("sha256", hash);
+        map.putDouble("bytes", dest.length());
+        map.putBoolean("resumed", resumed);
+        return map;
+    }
+
+    private static void promote(File part, File dest) throws IOException {
+        if (dest.exists()) dest.delete();
+        if (!part.renameTo(dest)) throw new IOException("Could not move " + part + " into place");
+    }
+
+    /** Feeds a file into digest (a fresh SHA-256 when null) and returns the digest's result. */
+    private byte[] hashFile(File file, MessageDigest digest) throws Exception {
+        boolean owned = digest == null;
+        MessageDigest md = owned ? MessageDigest.getInstance("SHA-256") : digest;
+        try (FileChannel in = new FileInputStream(file).getChannel()) {
+            buffer.clear();
+            while (in.read(buffer) != -1) {
+                md.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        return owned ? md.digest() : null;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static File localFile(String path) {
+        return new File(path.replaceFirst("^file://", "").replaceFirst("^file:", ""));
+    }
+
+    private void emitProgress(String phase, long bytes, long total) {
+        if (!reactContext.hasActiveReactInstance()) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("phase", phase);
+        event.putDouble("bytes", bytes);
+        event.putDouble("total", total);
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(EVENT_PROGRESS, event);
+    }
+}
@@ -0,0 +1,235 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.palette.graphics.Palette;
+
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Extracts theme colors from album art and caches them by artwork content hash, so the
+ * same image reached through different paths/URLs is only analysed once. Shared by
+ * PaletteModule (JS) and MusicPlayerWidgetProvider (cache lookups only).
+ *
+ * A local file's source entry also records its length and mtime: the widget reuses file
+ * names for different songs' art, so a changed file is a miss and its entry is replaced.
+ */
+public final class ArtworkPalette {
+    private static final String TAG = "ArtworkPalette";
+    private static final String PREFS_NAME = "artwork_palette_cache";
+    private static final String SOURCE_PREFIX = "src:";
+    private static final String PALETTE_PREFIX = "pal:";
+    private static final int MAX_ENTRIES = 600;
+    private static final int TARGET_SIZE = 128;
+    private static final int MAX_ART_BYTES = 4 * 1024 * 1024;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    public interface Listener {
+        void onPalette(JSONObject colors);
+    }
+
+    private ArtworkPalette() {
+    }
+
+    public static ExecutorService executor() {
+        return executor;
+    }
+
+    /** Cached colors for a source, or null. Cheap enough for the main thread. */
+    public static JSONObject getCached(Context context, String source) {
+        if (source == null) return null;
+        SharedPreferences prefs = prefs(context);
+        String entry = prefs.getString(SOURCE_PREFIX + source, null);
+        if (entry == null) return null;
+        int bar = entry.indexOf('|');
+        String hash = bar < 0 ? entry : entry.substring(0, bar);
+        if (!stamp(source).equals(bar < 0 ? "" : entry.substring(bar))) {
+            // The file changed or is gone; drop the stale mapping
+            prefs.edit().remove(SOURCE_PREFIX + source).apply();
+            return null;
+        }
+        String json = prefs.getString(PALETTE_PREFIX + hash, null);
+        if (json == null) return null;
+        try {
+            return new JSONObject(json);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Blocking: loads, hashes and analyses the artwork if not cached. Call off the main thread. */
+    public static JSONObject getOrCompute(Context context, String source) throws Exception {
+        JSONObject cached = getCached(context, source);
+        if (cached != null) return cached;
+
+        // Stamped before reading, so a file replaced meanwhile misses again next time
+        String stamp = stamp(source);
+        byte[] bytes = load(context, source);
+        String hash = sha1(bytes);
+        SharedPreferences prefs = prefs(context);
+        String json = prefs.getString(PALETTE_PREFIX + hash, null);
+        JSONObject colors = json != null ? new JSONObject(json) : extract(bytes);
+        if (colors == null) return null;
+
+        colors.put("hash", hash);
+        SharedPreferences.Editor editor = prefs.edit();
+        if (prefs.getAll().size() > MAX_ENTRIES * 2) {
+            // Colors are cheap to recompute; a wholesale reset keeps the prefs file small
+            editor.clear();
+        }
+        editor.putString(SOURCE_PREFIX + source, hash + stamp);
+        editor.putString(PALETTE_PREFIX + hash, colors.toString());
+        editor.apply();
+        return colors;
+    }
+
+    /** Computes in the background; the listener only fires when new colors were produced. */
+    public static void computeAsync(Context context, String source, Listener listener) {
+        if (source == null || getCached(context, source) != null) return;
+        final Context app = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                JSONObject colors = getOrCompute(app, source);
+                if (colors != null && listener != null) listener.onPalette(colors);
+            } catch (Exception e) {
+                Log.w(TAG, "Palette extraction failed for " + source, e);
+            }
+        });
+    }
+
+    public static void clear(Context context) {
+        prefs(context).edit().clear().apply();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** "|length|mtime" for a local file, "" for remote and content:// sources. */
+    private static String stamp(String source) {
+        if (source.startsWith("http://") || source.startsWith("https://") || source.startsWith("content:")) {
+            return "";
+        }
+        File file = localFile(source);
+        return "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private static File localFile(String source) {
+        String path = source.startsWith("file://") ? source.substring("file://".length())
+                : source.startsWith("file:") ? source.substring("file:".length()) : source;
+        return new File(path);
+    }
+
+    private static JSONObject extract(byte[] bytes) throws Exception {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        int sample = 1;
+        while (options.outWidth / (sample * 2) >= TARGET_SIZE && options.outHeight / (sample * 2) >= TARGET_SIZE) {
+            sample *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sample;
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (bitmap == null) return null;
+        try {
+            Palette palette = Palette.from(bitmap).maximumColorCount(16).generate();
+            JSONObject colors = new JSONObject();
+            putSwatch(colors, "dominant", palette.getDominantSwatch());
+            putSwatch(colors, "vibrant", palette.getVibrantSwatch());
+            putSwatch(colors, "darkVibrant", palette.getDarkVibrantSwatch());
+            putSwatch(colors, "lightVibrant", palette.getLightVibrantSwatch());
+            putSwatch(colors, "muted", palette.getMutedSwatch());
+            putSwatch(colors, "darkMuted", palette.getDarkMutedSwatch());
+            putSwatch(colors, "lightMuted", palette.getLightMutedSwatch());
+            Palette.Swatch dominant = palette.getDominantSwatch();
+            if (dominant != null) colors.put("onDominant", hex(dominant.getBodyTextColor()));
+            return colors;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private static void putSwatch(JSONObject colors, String key, Palette.Swatch swatch) throws Exception {
+        colors.put(key, swatch != null ? hex(swatch.getRgb()) : JSONObject.NULL);
+    }
+
+    /** Parses a "#RRGGBB" value from a cached palette; returns fallback when absent. */
+    public static int color(JSONObject colors, String key, int fallback) {
+        if (colors == null) return fallback;
+        String value = colors.optString(key, null);
+        if (value == null || value.equals("null")) return fallback;
+        try {
+            return Color.parseColor(value);
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private static String hex(int rgb) {
+        return String.format("#%06X", 0xFFFFFF & rgb);
+    }
+
+    private static byte[] load(Context context, String source) throws Exception {
+        if (source.startsWith("http://") || source.startsWith("https://")) {
+            Request request = new Request.Builder().url(source).build();
+            try (Response response = OkHttpClientProvider.getOkHttpClient().newCall(request).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IllegalStateException("HTTP " + response.code() + " for " + source);
+                }
+                return readAll(response.body().byteStream());
+            }
+        }
+        InputStream in;
+        if (source.startsWith("content:")) {
+            in = context.getContentResolver().openInputStream(Uri.parse(source));
+        } else {
+            in = new FileInputStream(localFile(source));
+        }
+        if (in == null) throw new IllegalStateException("Cannot open " + source);
+        try {
+            return readAll(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        byte[] buffer = new byte[16 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (out.size() > MAX_ART_BYTES) throw new IllegalStateException("Artwork too large");
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha1(byte[] bytes) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,269 @@
+package com.suman334.rear;
+
+import android.media.audiofx.Visualizer;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+/**
+ * Live spectrum / beat analysis for the same audio session the EqualizerModule is attached to.
+ * The FFT comes from {@link Visualizer}; all per-frame work happens in preallocated arrays and
+ * only a small, rate-capped frame of band levels is sent over the bridge.
+ */
+public class AudioAnalyzerModule extends ReactContextBaseJavaModule {
+  private static final String TAG = "AudioAnalyzerModule";
+  public static final String EVENT_FRAME = "AudioAnalyzerFrame";
+
+  private static final int DEFAULT_BANDS = 16;
+  private static final int MAX_BANDS = 64;
+  private static final int DEFAULT_MAX_FPS = 30;
+  private static final float MIN_FREQ_HZ = 40f;
+  private static final int FLUX_HISTORY = 43;
+  private static final long MIN_BEAT_INTERVAL_MS = 250;
+
+  private final ReactApplicationContext reactContext;
+  private final Object lock = new Object();
+  private Visualizer visualizer = null;
+
+  // Analysis state, sized once in start() and reused for every capture.
+  private int bandCount = DEFAULT_BANDS;
+  private int[] bandStart = new int[0];
+  private int[] bandEnd = new int[0];
+  private float[] bandLevels = new float[0];
+  private float[] smoothed = new float[0];
+  private float[] previous = new float[0];
+  private final float[] fluxHistory = new float[FLUX_HISTORY];
+  private int fluxIndex = 0;
+  private int fluxFilled = 0;
+  private float attack = 0.6f;
+  private float release = 0.15f;
+  private float sensitivity = 1.5f;
+  private long lastBeatAt = 0;
+  private float beatIntervalMs = 0f;
+  private boolean pendingBeat = false;
+  private long minFrameIntervalMs = 1000 / DEFAULT_MAX_FPS;
+  private long lastEmitAt = 0;
+
+  public AudioAnalyzerModule(ReactApplicationContext reactContext) {
+    super(reactContext);
+    this.reactContext = reactContext;
+  }
+
+  @Override
+  public String getName() {
+    return "AudioAnalyzerModule";
+  }
+
+  @ReactMethod
+  public void start(int sessionId, ReadableMap options, Promise promise) {
+    try {
+      synchronized (lock) {
+        releaseVisualizer();
+
+        int bands = DEFAULT_BANDS;
+        int maxFps = DEFAULT_MAX_FPS;
+        if (options != null) {
+          if (options.hasKey("bands")) bands = options.getInt("bands");
+          if (options.hasKey("maxFps")) maxFps = options.getInt("maxFps");
+          if (options.hasKey("attack")) attack = (float) options.getDouble("attack");
+          if (options.hasKey("release")) release = (float) options.getDouble("release");
+          if (options.hasKey("sensitivity")) sensitivity = (float) options.getDouble("sensitivity");
+        }
+        bandCount = Math.max(1, Math.min(MAX_BANDS, bands));
+        minFrameIntervalMs = 1000L / Math.max(1, Math.min(60, maxFps));
+
+        visualizer = new Visualizer(sessionId);
+        int[] range = Visualizer.getCaptureSizeRange();
+        visualizer.setCaptureSize(Math.min(1024, range[1]));
+        int captureSize = visualizer.getCaptureSize();
+        int samplingRate = visualizer.getSamplingRate(); // milliHertz
+
+        allocate(captureSize, samplingRate / 1000f);
+
+        visualizer.setDataCaptureListener(new Visualizer.OnDataCaptureListener() {
+          @Override
+          public void onWaveFormDataCapture(Visualizer v, byte[] waveform, int samplingRate) {
+          }
+
+          @Override
+          public void onFftDataCapture(Visualizer v, byte[] fft, int samplingRate) {
+            onFft(fft);
+          }
+        }, Visualizer.getMaxCaptureRate(), false, true);
+        visualizer.setEnabled(true);
+      }
+      promise.resolve(true);
+    } catch (Exception e) {
+      Log.w(TAG, "start failed", e);
+      synchronized (lock) {
+        releaseVisualizer();
+      }
+      promise.reject("ANALYZER_START", e.getMessage());
+    }
+  }
+
+  @ReactMethod
+  public void stop(Promise promise) {
+    try {
+      synchronized (lock) {
+        releaseVisualizer();
+      }
+      promise.resolve(true);
+    } catch (Exception e) {
+      Log.w(TAG, "stop failed", e);
+      promise.reject("ANALYZER_STOP", e.getMessage());
+    }
+  }
+
+  @ReactMethod
+  public void addListener(String eventName) {
+    // Required by NativeEventEmitter
+  }
+
+  @ReactMethod
+  public void removeListeners(double count) {
+    // Required by NativeEventEmitter
+  }
+
+  @Override
+  public void invalidate() {
+    synchronized (lock) {
+      releaseVisualizer();
+    }
+    super.invalidate();
+  }
+
+  private void releaseVisualizer() {
+    if (visualizer != null) {
+      try {
+        visualizer.setEnabled(false);
+      } catch (Exception ignored) {
+      }
+      visualizer.release();
+      visualizer = null;
+    }
+  }
+
+  /** Splits the FFT bins into logarithmically spaced bands and resets detector state. */
+  private void allocate(int captureSize, float sampleRateHz) {
+    int bins = captureSize / 2;
+    float nyquist = sampleRateHz / 2f;
+    float binHz = nyquist / bins;
+
+    bandStart = new int[bandCount];
+    bandEnd = new int[bandCount];
+    bandLevels = new float[bandCount];
+    smoothed = new float[bandCount];
+    previous = new float[bandCount];
+
+    double logMin = Math.log(MIN_FREQ_HZ);
+    double logMax = Math.log(nyquist);
+    int lastEnd = 1;
+    for (int b = 0; b < bandCount; b++) {
+      double hi = Math.exp(logMin + (logMax - logMin) * (b + 1) / bandCount);
+      int end = Math.min(bins, Math.max(lastEnd + 1, (int) Math.ceil(hi / binHz)));
+      bandStart[b] = Math.min(lastEnd, bins - 1);
+      bandEnd[b] = end;
+      lastEnd = end;
+    }
+
+    for (int i = 0; i < FLUX_HISTORY; i++) fluxHistory[i] = 0f;
+    fluxIndex = 0;
+    fluxFilled = 0;
+    lastBeatAt = 0;
+    beatIntervalMs = 0f;
+    pendingBeat = false;
+    lastEmitAt = 0;
+  }
+
+  /**
+   * Runs on the Visualizer callback thread. The analysis itself works in the preallocated
+   * arrays; only frames that pass the fps cap allocate, for the map sent over the bridge.
+   */
+  private void onFft(byte[] fft) {
+    WritableMap frame;
+    synchronized (lock) {
+      if (visualizer == null) return;
+
+      // fft layout: [Re0, Re(n/2), Re1, Im1, Re2, Im2, ...]
+      int bins = fft.length / 2;
+      float flux = 0f;
+      float total = 0f;
+      for (int b = 0; b < bandCount; b++) {
+        float sum = 0f;
+        int start = bandStart[b];
+        int end = Math.min(bandEnd[b], bins);
+        for (int k = start; k < end; k++) {
+          float re = fft[2 * k];
+          float im = fft[2 * k + 1];
+          sum += (float) Math.sqrt(re * re + im * im);
+        }
+        int n = Math.max(1, end - start);
+        // Magnitudes top out near 128 * sqrt(2); log-scale into 0..1
+        float level = (float) (Math.log1p(sum / n) / Math.log1p(181.0));
+        if (level > 1f) level = 1f;
+
+        float prev = smoothed[b];
+        float coeff = level > prev ? attack : release;
+        smoothed[b] = prev + (level - prev) * coeff;
+        bandLevels[b] = smoothed[b];
+        total += smoothed[b];
+
+        float rise = level - previous[b];
+        if (rise > 0f) flux += rise;
+        previous[b] = level;
+      }
+
+      float mean = 0f;
+      for (int i = 0; i < fluxFilled; i++) mean += fluxHistory[i];
+      mean = fluxFilled > 0 ? mean / fluxFilled : 0f;
+      fluxHistory[fluxIndex] = flux;
+      fluxIndex = (fluxIndex + 1) % FLUX_HISTORY;
+      if (fluxFilled < FLUX_HISTORY) fluxFilled++;
+
+      long now = SystemClock.elapsedRealtime();
+      if (fluxFilled >= FLUX_HISTORY / 2 && flux > mean * sensitivity && flux > 0.05f
+          && now - lastBeatAt >= MIN_BEAT_INTERVAL_MS) {
+        if (lastBeatAt > 0) {
+          float interval = now - lastBeatAt;
+          if (interval < 2000f) {
+            beatIntervalMs = beatIntervalMs == 0f ? interval : beatIntervalMs * 0.8f + interval * 0.2f;
+          }
+        }
+        lastBeatAt = now;
+        pendingBeat = true;
+      }
+
+      if (now - lastEmitAt < minFrameIntervalMs) return;
+      lastEmitAt = now;
+
+      frame = Arguments.createMap();
+      WritableArray bands = Arguments.createArray();
+      for (int b = 0; b < bandCount; b++) {
+        // Three decimals is plenty for a visualizer and keeps the payload small
+        bands.pushDouble(Math.round(bandLevels[b] * 1000f) / 1000.0);
+      }
+      frame.putArray("bands", bands);
+      frame.putDouble("level", Math.round(total / bandCount * 1000f) / 1000.0);
+      frame.putBoolean("beat", pendingBeat);
+      frame.putDouble("bpm", beatIntervalMs > 0f ? Math.round(60000f / beatIntervalMs) : 0);
+      frame.putDouble("t", now);
+      pendingBeat = false;
+    }
+
+    if (reactContext.hasActiveReactInstance()) {
+      reactContext
+          .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+          .emit(EVENT_FRAME, frame);
+    }
+  }
+}
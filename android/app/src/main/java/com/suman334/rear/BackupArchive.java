@@ -0,0 +1,352 @@
+package com.suman334.rear;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Single-file streaming backup archive.
+ *
+ * Layout (big endian): "BTBACKUP", version, chunk size, creation time, then entries. An
+ * entry header is type, flags, name length, UTF-8 name, raw length, stored length and
+ * mtime; its data follows as chunks of [length, CRC32, bytes] of at most the chunk size.
+ * A TYPE_END header closes the archive.
+ *
+ * Files are copied channel to channel through one reused chunk buffer, so memory stays
+ * constant whatever the library size, and every chunk is checksummed on the way through.
+ * Metadata parts are small JSON documents and may be deflated. Restores write to
+ * "<target>.restoring" and keep any leading chunks whose checksums already match, so an
+ * interrupted restore continues where it stopped; finished files are recognised by size
+ * and mtime (or, failing that, by their chunk checksums) and skipped.
+ */
+public final class BackupArchive {
+    private static final byte[] MAGIC = "BTBACKUP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    public static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_META_BYTES = 64 * 1024 * 1024;
+    private static final String RESTORING_SUFFIX = ".restoring";
+    // Entry headers: fixed fields plus a name of up to 0xFFFF bytes
+    private static final int HEADER_BYTES = 0xFFFF + 32;
+
+    public static final byte TYPE_END = 0;
+    public static final byte TYPE_FILE = 1;
+    public static final byte TYPE_META = 2;
+    public static final byte FLAG_DEFLATED = 1;
+
+    public interface Progress {
+        /** Called after each chunk with the running byte count; returns false to cancel. */
+        boolean onProgress(String name, long bytes);
+    }
+
+    public static final class Entry {
+        public byte type;
+        public byte flags;
+        public String name;
+        public long rawLength;
+        public long storedLength;
+        public long mtime;
+    }
+
+    private BackupArchive() {
+    }
+
+    public static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, long rawLength) throws IOException {
+        if (rawLength > MAX_META_BYTES) throw new IOException("Metadata part too large");
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[(int) rawLength];
+            int n = 0;
+            while (n < raw.length && !inflater.finished()) {
+                int got = inflater.inflate(raw, n, raw.length - n);
+                if (got == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += got;
+            }
+            if (n != raw.length) throw new IOException("Metadata part inflated to " + n + " of " + rawLength + " bytes");
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt metadata part", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) throw new IOException("Backup archive is truncated");
+        }
+    }
+
+    public static final class Writer {
+        private final FileChannel out;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        private final CRC32 crc = new CRC32();
+        private long bytes = 0;
+        private int entries = 0;
+
+        public Writer(FileChannel out, long createdAt) throws IOException {
+            this.out = out;
+            header.clear();
+            header.put(MAGIC).putInt(VERSION).putInt(CHUNK_SIZE).putLong(createdAt);
+            header.flip();
+            writeFully(out, header);
+        }
+
+        /** Bytes of entry data written so far. */
+        public long bytes() {
+            return bytes;
+        }
+
+        public void addFile(String name, File file, Progress progress) throws IOException, InterruptedException {
+            try (FileChannel in = new FileInputStream(file).getChannel()) {
+                long size = in.size();
+                writeEntryHeader(TYPE_FILE, (byte) 0, name, size, size, file.lastModified());
+                long done = 0;
+                while (done < size) {
+                    int n = (int) Math.min(CHUNK_SIZE, size - done);
+                    chunk.clear();
+                    chunk.limit(n);
+                    while (chunk.hasRemaining()) {
+                        if (in.read(chunk) < 0) throw new IOException(name + " shrank during backup");
+                    }
+                    writeChunk(chunk.array(), 0, n);
+                    done += n;
+                    if (progress != null && !progress.onProgress(name, bytes)) throw new InterruptedException("Backup cancelled");
+                }
+            }
+        }
+
+        public void addMeta(String name, byte[] stored, long rawLength, boolean deflated) throws IOException {
+            writeEntryHeader(TYPE_META, deflated ? FLAG_DEFLATED : 0, name, rawLength, stored.length, System.currentTimeMillis());
+            for (int off = 0; off < stored.length; off += CHUNK_SIZE) {
+                writeChunk(stored, off, Math.min(CHUNK_SIZE, stored.length - off));
+            }
+        }
+
+        public void finish() throws IOException {
+            writeEntryHeader(TYPE_END, (byte) 0, "", entries, 0, 0);
+            out.force(false);
+        }
+
+        private void writeEntryHeader(byte type, byte flags, String name, long rawLength, long storedLength, long mtime) throws IOException {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > 0xFFFF) throw new IOException("Entry name too long: " + name);
+            header.clear();
+            header.put(type).put(flags).putShort((short) nameBytes.length).put(nameBytes);
+            header.putLong(rawLength).putLong(storedLength).putLong(mtime);
+            header.flip();
+            writeFully(out, header);
+            if (type != TYPE_END) entries++;
+        }
+
+        private void writeChunk(byte[] data, int off, int len) throws IOException {
+            crc.reset();
+            crc.update(data, off, len);
+            header.clear();
+            header.putInt(len).putInt((int) crc.getValue());
+            header.flip();
+            writeFully(out, header);
+            writeFully(out, ByteBuffer.wrap(data, off, len));
+            bytes += len;
+        }
+    }
+
+    public static final class Reader {
+        private final FileChannel in;
+        private final ByteBuffer chunk;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        private final CRC32 crc = new CRC32();
+        private final int chunkSize;
+        public final long createdAt;
+
+        public Reader(FileChannel in) throws IOException {
+            this.in = in;
+            header.clear();
+            header.limit(MAGIC.length + 16);
+            readFully(in, header);
+            header.flip();
+            for (byte b : MAGIC) {
+                if (header.get() != b) throw new IOException("Not a backup archive");
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported backup version " + version);
+            chunkSize = header.getInt();
+            if (chunkSize <= 0 || chunkSize > 16 * CHUNK_SIZE) throw new IOException("Bad chunk size " + chunkSize);
+            createdAt = header.getLong();
+            chunk = ByteBuffer.allocate(chunkSize);
+        }
+
+        /** Next entry header, or null at the end of the archive. */
+        public Entry next() throws IOException {
+            Entry e = new Entry();
+            header.clear();
+            header.limit(4);
+            readFully(in, header);
+            header.flip();
+            e.type = header.get();
+            e.flags = header.get();
+            int nameLength = header.getShort() & 0xFFFF;
+            header.clear();
+            header.limit(nameLength + 24);
+            readFully(in, header);
+            header.flip();
+            e.name = new String(header.array(), 0, nameLength, StandardCharsets.UTF_8);
+            header.position(nameLength);
+            e.rawLength = header.getLong();
+            e.storedLength = header.getLong();
+            e.mtime = header.getLong();
+            return e.type == TYPE_END ? null : e;
+        }
+
+        /** Moves past an entry's data without reading it. */
+        public void skip(Entry e) throws IOException {
+            for (long done = 0; done < e.storedLength; ) {
+                int len = readChunkHeader();
+                in.position(in.position() + len);
+                done += len;
+            }
+        }
+
+        public byte[] readMeta(Entry e) throws IOException {
+            if (e.storedLength > MAX_META_BYTES) throw new IOException("Metadata part too large");
+            byte[] stored = new byte[(int) e.storedLength];
+            int off = 0;
+            while (off < stored.length) {
+                int len = readChunkHeader();
+                int expected = header.getInt(4);
+                ByteBuffer target = ByteBuffer.wrap(stored, off, len);
+                readFully(in, target);
+                checkCrc(e, stored, off, len, expected);
+                off += len;
+            }
+            return (e.flags & FLAG_DEFLATED) != 0 ? inflate(stored, e.rawLength) : stored;
+        }
+
+        /**
+         * Restores a file entry. Returns the bytes written, or -1 when the target already
+         * held this entry and was left alone.
+         */
+        public long restoreFile(Entry e, File target, Progress progress) throws IOException, InterruptedException {
+            long entryStart = in.position();
+            if (target.isFile() && target.length() == e.rawLength) {
+                if (target.lastModified() == e.mtime || matchesAllChunks(e, target)) {
+                    in.position(entryStart);
+                    skip(e);
+                    return -1;
+                }
+                in.position(entryStart);
+            }
+
+            File parent = target.getParentFile();
+            if (parent != null && !parent.exists()) parent.mkdirs();
+            File partial = new File(target.getPath() + RESTORING_SUFFIX);
+            long written = 0;
+            try (RandomAccessFile raf = new RandomAccessFile(partial, "rw")) {
+                FileChannel out = raf.getChannel();
+                long existing = out.size();
+                boolean reuse = existing > 0;
+                long offset = 0;
+                while (offset < e.rawLength) {
+                    int len = readChunkHeader();
+                    int expected = header.getInt(4);
+                    if (reuse && offset + len <= existing && crcOf(out, offset, len) == (expected & 0xFFFFFFFFL)) {
+                        // Left by an earlier, interrupted restore
+                        in.position(in.position() + len);
+                    } else {
+                        if (reuse) {
+                            out.truncate(offset);
+                            reuse = false;
+                        }
+                        chunk.clear();
+                        chunk.limit(len);
+                        readFully(in, chunk);
+                        checkCrc(e, chunk.array(), 0, len, expected);
+                        chunk.flip();
+                        while (chunk.hasRemaining()) out.write(chunk, offset + chunk.position());
+                        written += len;
+                    }
+                    offset += len;
+                    if (progress != null && !progress.onProgress(e.name, offset)) throw new InterruptedException("Restore cancelled");
+                }
+                out.truncate(e.rawLength);
+                out.force(false);
+            }
+            if (target.exists() && !target.delete()) throw new IOException("Could not replace " + target);
+            if (!partial.renameTo(target)) throw new IOException("Could not move " + partial + " into place");
+            if (e.mtime > 0) target.setLastModified(e.mtime);
+            return written;
+        }
+
+        private boolean matchesAllChunks(Entry e, File file) throws IOException {
+            try (FileChannel existing = new FileInputStream(file).getChannel()) {
+                for (long offset = 0; offset < e.rawLength; ) {
+                    int len = readChunkHeader();
+                    int expected = header.getInt(4);
+                    if (crcOf(existing, offset, len) != (expected & 0xFFFFFFFFL)) return false;
+                    in.position(in.position() + len);
+                    offset += len;
+                }
+                return true;
+            }
+        }
+
+        /** Reads a chunk header into `header` (length at 0, CRC at 4) and returns the length. */
+        private int readChunkHeader() throws IOException {
+            header.clear();
+            header.limit(8);
+            readFully(in, header);
+            int len = header.getInt(0);
+            if (len <= 0 || len > chunkSize) throw new IOException("Corrupt chunk header");
+            return len;
+        }
+
+        /** CRC32 of a region of `channel`, or -1 when the channel ends before it. */
+        private long crcOf(FileChannel channel, long offset, int len) throws IOException {
+            chunk.clear();
+            chunk.limit(len);
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, offset + chunk.position()) < 0) return -1;
+            }
+            crc.reset();
+            crc.update(chunk.array(), 0, len);
+            return crc.getValue();
+        }
+
+        private void checkCrc(Entry e, byte[] data, int off, int len, int expected) throws IOException {
+            crc.reset();
+            crc.update(data, off, len);
+            if ((int) crc.getValue() != expected) throw new IOException("Checksum mismatch in " + e.name);
+        }
+    }
+}
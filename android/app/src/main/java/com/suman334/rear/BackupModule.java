@@ -0,0 +1,316 @@
+package com.suman334.rear;
+
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Backs up the offline library into one BackupArchive and restores it.
+ *
+ * Files under FILE_ROOTS in filesDir (encrypted downloads, their artwork and the peaks
+ * sidecars beside them) are streamed as-is. filesDir/waveforms is left out: its sidecars
+ * are keyed by this device's source URIs and would never be found after a restore. Metadata parts come from JS as JSON strings (the download
+ * catalog, EQ settings, cached lyrics) plus the loudness table from here; they are deflated
+ * on a small pool while the files stream, and written after them. Restore hands the parts
+ * back to JS, which merges them into AsyncStorage, and imports loudness rows itself, with
+ * track ids moved from the backed-up install's documentDirectory to this one like the catalog.
+ */
+public class BackupModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "BackupModule";
+    public static final String EVENT_PROGRESS = "BackupProgress";
+    private static final String[] FILE_ROOTS = {"secure_downloads"};
+    private static final String LOUDNESS_PART = "loudness.json";
+    // Written by services/backup.ts: { documentDirectory, createdAt }
+    private static final String INFO_PART = "backup_info.json";
+    private static final long PROGRESS_STEP_BYTES = 4L * 1024 * 1024;
+
+    private final ReactApplicationContext reactContext;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private volatile boolean cancelled = false;
+
+    public BackupModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "Backup";
+    }
+
+    /**
+     * destUri: SAF content:// document the user picked (or a file path). parts: { name: jsonString }.
+     * Resolves { uri, bytes, files, parts }.
+     */
+    @ReactMethod
+    public void createBackup(String destUri, ReadableMap parts, Promise promise) {
+        if (destUri == null || destUri.isEmpty()) {
+            promise.reject("E_BACKUP_FAILED", "No backup destination given");
+            return;
+        }
+        cancelled = false;
+        Map<String, String> meta = new LinkedHashMap<>();
+        ReadableMapKeySetIterator keys = parts.keySetIterator();
+        while (keys.hasNextKey()) {
+            String key = keys.nextKey();
+            meta.put(key, parts.getString(key));
+        }
+        worker.execute(() -> {
+            ExecutorService compressors = Executors.newFixedThreadPool(
+                    Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+            File partial = null;
+            try {
+                meta.put(LOUDNESS_PART, LoudnessCatalog.export(LibraryDatabase.get(reactContext).getReadableDatabase()).toString());
+                List<String> names = new ArrayList<>(meta.keySet());
+                List<Future<byte[]>> compressed = new ArrayList<>();
+                List<Integer> rawLengths = new ArrayList<>();
+                for (String name : names) {
+                    byte[] raw = meta.get(name).getBytes(StandardCharsets.UTF_8);
+                    rawLengths.add(raw.length);
+                    compressed.add(compressors.submit(() -> BackupArchive.deflate(raw)));
+                }
+
+                File filesDir = reactContext.getFilesDir();
+                List<File> files = new ArrayList<>();
+                long total = 0;
+                for (String root : FILE_ROOTS) collect(new File(filesDir, root), files);
+                for (File f : files) total += f.length();
+
+                String uri = destUri;
+                File dest = uri.startsWith("content:") ? null : localFile(uri);
+                if (dest != null) partial = new File(dest.getPath() + ".part");
+
+                final long totalBytes = total;
+                final long[] lastEmit = {0};
+                BackupArchive.Writer writer;
+                try (FileChannel out = partial != null
+                        ? new FileOutputStream(partial).getChannel()
+                        : openDocument(uri, "wt")) {
+                    writer = new BackupArchive.Writer(out, System.currentTimeMillis());
+                    String rootPath = filesDir.getAbsolutePath() + File.separator;
+                    for (File f : files) {
+                        String name = f.getAbsolutePath().substring(rootPath.length());
+                        writer.addFile(name, f, (entry, bytes) -> {
+                            if (bytes - lastEmit[0] >= PROGRESS_STEP_BYTES) {
+                                lastEmit[0] = bytes;
+                                emitProgress("backup", entry, bytes, totalBytes);
+                            }
+                            return !cancelled;
+                        });
+                    }
+                    for (int i = 0; i < names.size(); i++) {
+                        writer.addMeta(names.get(i), compressed.get(i).get(), rawLengths.get(i), true);
+                    }
+                    writer.finish();
+                }
+                if (partial != null && !partial.renameTo(dest)) throw new IOException("Could not move backup into place");
+                emitProgress("backup", null, writer.bytes(), totalBytes);
+
+                WritableMap result = Arguments.createMap();
+                result.putString("uri", uri);
+                result.putDouble("bytes", writer.bytes());
+                result.putInt("files", files.size());
+                result.putInt("parts", names.size());
+                promise.resolve(result);
+            } catch (Exception e) {
+                if (partial != null) partial.delete();
+                Log.w(TAG, "createBackup failed", e);
+                promise.reject("E_BACKUP_FAILED", e.getMessage());
+            } finally {
+                compressors.shutdownNow();
+            }
+        });
+    }
+
+    /**
+     * Restores files that are missing or differ and resumes a previously interrupted
+     * restore. documentDirectory is this install's (expo) documentDirectory, used to move
+     * loudness track ids off the old one. Resolves { files, skipped, bytes, loudness,
+     * createdAt, parts: { name: jsonString } }.
+     */
+    @ReactMethod
+    public void restoreBackup(String srcUri, String documentDirectory, Promise promise) {
+        cancelled = false;
+        worker.execute(() -> {
+            try (FileChannel in = srcUri.startsWith("content:") ? openDocument(srcUri, "r")
+                    : new FileInputStream(localFile(srcUri)).getChannel()) {
+                BackupArchive.Reader reader = new BackupArchive.Reader(in);
+                long totalBytes = in.size();
+                int restored = 0;
+                int skipped = 0;
+                long written = 0;
+                long lastEmit = 0;
+                WritableMap parts = Arguments.createMap();
+                String loudness = null;
+                String backupDocumentDirectory = null;
+
+                BackupArchive.Entry entry;
+                while ((entry = reader.next()) != null) {
+                    if (cancelled) throw new InterruptedException("Restore cancelled");
+                    if (entry.type == BackupArchive.TYPE_FILE) {
+                        File target = targetFor(entry.name);
+                        if (target == null) {
+                            Log.w(TAG, "Skipping unexpected entry " + entry.name);
+                            reader.skip(entry);
+                            continue;
+                        }
+                        long n = reader.restoreFile(entry, target, (name, bytes) -> !cancelled);
+                        if (n < 0) {
+                            skipped++;
+                        } else {
+                            restored++;
+                            written += n;
+                        }
+                    } else if (entry.type == BackupArchive.TYPE_META) {
+                        String json = new String(reader.readMeta(entry), StandardCharsets.UTF_8);
+                        if (LOUDNESS_PART.equals(entry.name)) {
+                            loudness = json;
+                        } else {
+                            if (INFO_PART.equals(entry.name)) {
+                                backupDocumentDirectory = new JSONObject(json).optString("documentDirectory", null);
+                            }
+                            parts.putString(entry.name, json);
+                        }
+                    } else {
+                        reader.skip(entry);
+                    }
+                    if (in.position() - lastEmit >= PROGRESS_STEP_BYTES) {
+                        lastEmit = in.position();
+                        emitProgress("restore", entry.name, lastEmit, totalBytes);
+                    }
+                }
+                emitProgress("restore", null, totalBytes, totalBytes);
+
+                int loudnessRows = 0;
+                if (loudness != null) {
+                    JSONArray rows = rewriteTrackIds(new JSONArray(loudness), backupDocumentDirectory, documentDirectory);
+                    loudnessRows = LoudnessCatalog.importMissing(
+                            LibraryDatabase.get(reactContext).getWritableDatabase(), rows);
+                }
+
+                WritableMap result = Arguments.createMap();
+                result.putInt("files", restored);
+                result.putInt("skipped", skipped);
+                result.putDouble("bytes", written);
+                result.putInt("loudness", loudnessRows);
+                result.putDouble("createdAt", reader.createdAt);
+                result.putMap("parts", parts);
+                promise.resolve(result);
+            } catch (Exception e) {
+                Log.w(TAG, "restoreBackup failed", e);
+                promise.reject("E_RESTORE_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Stops a running backup or restore at the next chunk; a restore can be resumed later. */
+    @ReactMethod
+    public void cancel(Promise promise) {
+        cancelled = true;
+        promise.resolve(true);
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        // Required by NativeEventEmitter
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+        // Required by NativeEventEmitter
+    }
+
+    @Override
+    public void invalidate() {
+        cancelled = true;
+        worker.shutdownNow();
+        super.invalidate();
+    }
+
+    private static void collect(File entry, List<File> out) {
+        if (entry.isFile()) {
+            // Leftovers of an interrupted restore are not part of the library
+            if (!entry.getName().endsWith(".restoring")) out.add(entry);
+            return;
+        }
+        File[] children = entry.listFiles();
+        if (children == null) return;
+        for (File child : children) collect(child, out);
+    }
+
+    /** Track ids of local files embed the install's documentDirectory; point them at this one. */
+    private static JSONArray rewriteTrackIds(JSONArray rows, String from, String to) throws Exception {
+        if (from == null || from.isEmpty() || to == null || to.isEmpty() || from.equals(to)) return rows;
+        for (int i = 0; i < rows.length(); i++) {
+            JSONObject row = rows.getJSONObject(i);
+            String trackId = row.getString("trackId");
+            if (trackId.contains(from)) row.put("trackId", trackId.replace(from, to));
+        }
+        return rows;
+    }
+
+    /** Maps an archive entry to its place in filesDir; null for names outside FILE_ROOTS. */
+    private File targetFor(String name) throws IOException {
+        File filesDir = reactContext.getFilesDir().getCanonicalFile();
+        File target = new File(filesDir, name).getCanonicalFile();
+        for (String root : FILE_ROOTS) {
+            String rootPath = new File(filesDir, root).getPath() + File.separator;
+            if (target.getPath().startsWith(rootPath)) return target;
+        }
+        return null;
+    }
+
+    private FileChannel openDocument(String uri, String mode) throws IOException {
+        ParcelFileDescriptor pfd = reactContext.getContentResolver().openFileDescriptor(Uri.parse(uri), mode);
+        if (pfd == null) throw new IOException("Cannot open " + uri);
+        return "r".equals(mode)
+                ? new ParcelFileDescriptor.AutoCloseInputStream(pfd).getChannel()
+                : new ParcelFileDescriptor.AutoCloseOutputStream(pfd).getChannel();
+    }
+
+    private static File localFile(String uri) {
+        return new File(uri.replaceFirst("^file://", "").replaceFirst("^file:", ""));
+    }
+
+    private void emitProgress(String phase, String entry, long bytes, long total) {
+        if (!reactContext.hasActiveReactInstance()) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("phase", phase);
+        event.putString("entry", entry);
+        event.putDouble("bytes", bytes);
+        event.putDouble("total", total);
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(EVENT_PROGRESS, event);
+    }
+}
@@ -0,0 +1,317 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounting and eviction for everything the app keeps in getCacheDir().
+ *
+ * Each file belongs to one category, found either in the persistent index (files whose
+ * names say nothing, e.g. imported media, are registered when they are created) or by the
+ * category's directory/name rules. Categories have a byte quota and an optional TTL and
+ * are trimmed least-recently-used first, using file mtime as the clock like the caches
+ * that own them (they bump it on reads).
+ *
+ * Two things keep files that are in use: files modified within MIN_AGE_MS are skipped,
+ * which covers downloads still being written, and files in the pinned set are skipped,
+ * which PlayerContext keeps equal to the local files its queue points at. Age alone does
+ * not protect playback: a decrypted playback copy or imported file stops being modified
+ * once written, so without a pin it is evictable once its TTL or quota is exceeded.
+ * Anything not claimed by a category is only reported, never deleted.
+ */
+public final class CacheStorage {
+    private static final String TAG = "CacheStorage";
+    private static final String INDEX_PREFS = "cache_storage_index";
+
+    public static final String IMPORTED = "imported";
+    public static final String OTHER = "other";
+
+    private static final long MB = 1024L * 1024;
+    private static final long HOUR_MS = 60L * 60 * 1000;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long MIN_AGE_MS = 10L * 60 * 1000;
+    private static final long TRIM_INTERVAL_HOURS = 6;
+    private static final long FIRST_TRIM_DELAY_SECONDS = 30;
+
+    public static final class Category {
+        public final String name;
+        /** Subdirectory of the cache (or files) dir owned entirely by this category, or null. */
+        final String dir;
+        final boolean inFilesDir;
+        final String[] prefixes;
+        final String[] suffixes;
+        /** Byte quota; negative means the category is reported but never evicted. */
+        public final long quotaBytes;
+        /** Maximum idle time; 0 disables TTL eviction. */
+        public final long ttlMs;
+
+        Category(String name, String dir, boolean inFilesDir, String[] prefixes, String[] suffixes, long quotaBytes, long ttlMs) {
+            this.name = name;
+            this.dir = dir;
+            this.inFilesDir = inFilesDir;
+            this.prefixes = prefixes;
+            this.suffixes = suffixes;
+            this.quotaBytes = quotaBytes;
+            this.ttlMs = ttlMs;
+        }
+
+        /** Name rules: any of prefixes (if given) and any of suffixes (if given). */
+        boolean matchesName(String fileName) {
+            if (prefixes == null && suffixes == null) return false;
+            if (prefixes != null) {
+                boolean prefixed = false;
+                for (String prefix : prefixes) prefixed |= fileName.startsWith(prefix);
+                if (!prefixed) return false;
+            }
+            if (suffixes == null) return true;
+            for (String suffix : suffixes) if (fileName.endsWith(suffix)) return true;
+            return false;
+        }
+    }
+
+    public static final class Usage {
+        public final Category category;
+        public long bytes;
+        public int files;
+
+        Usage(Category category) {
+            this.category = category;
+        }
+    }
+
+    // Directory-owning categories mirror the budgets their modules already enforce; this
+    // is a backstop for when a module has not run for a while
+    private static final List<Category> CATEGORIES = Collections.unmodifiableList(Arrays.asList(
+            new Category(IMPORTED, null, false, new String[]{"external_media_", "external_video_", "temp_vid_"}, null, 512 * MB, 3 * DAY_MS),
+            new Category("playback", null, false, new String[]{"playback_"}, new String[]{".m4a"}, 256 * MB, DAY_MS),
+            new Category("album_art", null, false, new String[]{"album_art_"}, new String[]{".jpg"}, 20 * MB, 14 * DAY_MS),
+            new Category("widget_art", null, false, new String[]{"widget_art_"}, null, 10 * MB, 14 * DAY_MS),
+            new Category("updates", null, false, new String[]{"beatit-v"}, new String[]{".apk", ".apk.part", ".patch", ".patch.part"}, 200 * MB, 14 * DAY_MS),
+            // Plain copies of downloads before encryption; only left behind if the app died mid-download
+            new Category("download_temp", null, false, null, new String[]{".enc.tmp"}, 256 * MB, HOUR_MS),
+            // The library database points at these, so they are accounted but left to the scanner
+            new Category("library_art", null, false, new String[]{"library_art_"}, new String[]{".jpg"}, -1, 0),
+            new Category("http", "http_cache", false, null, null, 20 * MB, 0),
+            // PrefetchModule enforces its own budget and knows which files the queue still uses
+            new Category("prefetch", "prefetch", false, null, null, -1, 0),
+            new Category("video_thumbs", "video_thumbs", false, null, null, 48 * MB, 30 * DAY_MS),
+            new Category("waveforms", "waveforms", true, null, null, 16 * MB, 60 * DAY_MS),
+            // Audio extracted from imported videos; reuse refreshes the mtime and anything
+            // evicted is extracted again on the next play. Queued files are pinned from JS
+            new Category("extracted_audio", "extracted_audio", true, null, null, 512 * MB, 30 * DAY_MS),
+            new Category(OTHER, null, false, null, null, -1, 0)
+    ));
+
+    private static final Map<String, AtomicLong> evictedBytes = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> evictedFiles = new ConcurrentHashMap<>();
+    private static volatile Set<String> pinned = Collections.emptySet();
+    private static final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cache-storage");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private CacheStorage() {
+    }
+
+    public static List<Category> categories() {
+        return CATEGORIES;
+    }
+
+    public static ScheduledExecutorService executor() {
+        return executor;
+    }
+
+    /** Starts the periodic background trim once per process. */
+    public static void schedule(Context context) {
+        if (!scheduled.compareAndSet(false, true)) return;
+        final Context app = context.getApplicationContext();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                trim(app);
+            } catch (Exception e) {
+                Log.w(TAG, "Background trim failed", e);
+            }
+        }, FIRST_TRIM_DELAY_SECONDS, TRIM_INTERVAL_HOURS * 3600, TimeUnit.SECONDS);
+    }
+
+    /** Records a cache file whose name does not identify its category. */
+    public static void register(Context context, File file, String category) {
+        index(context).edit().putString(file.getAbsolutePath(), category).apply();
+    }
+
+    /** Replaces the set of absolute paths that must not be evicted (files the player queue uses). */
+    public static void setPinned(Collection<String> paths) {
+        pinned = Collections.unmodifiableSet(new HashSet<>(paths));
+    }
+
+    /** Marks a file as recently used so LRU eviction keeps it. */
+    public static void touch(File file) {
+        if (file.isFile()) file.setLastModified(System.currentTimeMillis());
+    }
+
+    public static long evictedBytes(String category) {
+        AtomicLong value = evictedBytes.get(category);
+        return value != null ? value.get() : 0;
+    }
+
+    public static long evictedFiles(String category) {
+        AtomicLong value = evictedFiles.get(category);
+        return value != null ? value.get() : 0;
+    }
+
+    /** Current usage per category, in CATEGORIES order. Walks the cache dirs; call off the main thread. */
+    public static synchronized Map<String, Usage> usage(Context context) {
+        Map<String, List<File>> files = classify(context);
+        Map<String, Usage> usage = new LinkedHashMap<>();
+        for (Category category : CATEGORIES) {
+            Usage u = new Usage(category);
+            for (File f : files.get(category.name)) {
+                u.bytes += f.length();
+                u.files++;
+            }
+            usage.put(category.name, u);
+        }
+        return usage;
+    }
+
+    /** Applies TTLs and quotas to every evictable category; returns the bytes freed. */
+    public static synchronized long trim(Context context) {
+        Map<String, List<File>> files = classify(context);
+        long freed = 0;
+        for (Category category : CATEGORIES) {
+            if (category.quotaBytes < 0) continue;
+            freed += trim(category, files.get(category.name), category.quotaBytes);
+        }
+        pruneIndex(context);
+        if (freed > 0) Log.i(TAG, "Trimmed " + freed + " bytes from cache");
+        return freed;
+    }
+
+    /** Deletes every evictable, unpinned file of one category regardless of age; returns the bytes freed. */
+    public static synchronized long clear(Context context, String name) {
+        for (Category category : CATEGORIES) {
+            if (!category.name.equals(name) || category.quotaBytes < 0) continue;
+            Set<String> keep = pinned;
+            long freed = 0;
+            for (File f : classify(context).get(name)) {
+                if (!keep.contains(f.getAbsolutePath())) freed += delete(category, f);
+            }
+            pruneIndex(context);
+            return freed;
+        }
+        return 0;
+    }
+
+    private static long trim(Category category, List<File> files, long quota) {
+        long now = System.currentTimeMillis();
+        // Oldest first; sort on a snapshot of mtimes so the comparator stays consistent
+        final Map<File, Long> mtimes = new HashMap<>();
+        for (File f : files) mtimes.put(f, f.lastModified());
+        files.sort((a, b) -> Long.compare(mtimes.get(a), mtimes.get(b)));
+
+        long total = 0;
+        for (File f : files) total += f.length();
+        Set<String> keep = pinned;
+        long freed = 0;
+        for (File f : files) {
+            long mtime = mtimes.get(f);
+            if (now - mtime < MIN_AGE_MS) break;
+            if (keep.contains(f.getAbsolutePath())) continue;
+            boolean expired = category.ttlMs > 0 && now - mtime > category.ttlMs;
+            if (!expired && total <= quota) break;
+            long len = delete(category, f);
+            total -= len;
+            freed += len;
+        }
+        return freed;
+    }
+
+    private static long delete(Category category, File f) {
+        long len = f.length();
+        if (!f.delete()) return 0;
+        evictedBytes.computeIfAbsent(category.name, k -> new AtomicLong()).addAndGet(len);
+        evictedFiles.computeIfAbsent(category.name, k -> new AtomicLong()).incrementAndGet();
+        return len;
+    }
+
+    private static Map<String, List<File>> classify(Context context) {
+        Map<String, List<File>> result = new LinkedHashMap<>();
+        for (Category category : CATEGORIES) result.put(category.name, new ArrayList<>());
+        Map<String, ?> indexed = index(context).getAll();
+
+        File cacheDir = context.getCacheDir();
+        File[] entries = cacheDir.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                Category owner = null;
+                for (Category category : CATEGORIES) {
+                    if (entry.isDirectory() ? entry.getName().equals(category.dir) && !category.inFilesDir
+                            : category.matchesName(entry.getName())) {
+                        owner = category;
+                        break;
+                    }
+                }
+                if (owner == null && entry.isFile()) {
+                    Object name = indexed.get(entry.getAbsolutePath());
+                    if (name instanceof String && result.containsKey(name)) owner = find((String) name);
+                }
+                collect(entry, result.get(owner != null ? owner.name : OTHER));
+            }
+        }
+        for (Category category : CATEGORIES) {
+            if (category.inFilesDir) collect(new File(context.getFilesDir(), category.dir), result.get(category.name));
+        }
+        return result;
+    }
+
+    private static Category find(String name) {
+        for (Category category : CATEGORIES) if (category.name.equals(name)) return category;
+        return null;
+    }
+
+    private static void collect(File entry, List<File> out) {
+        if (entry.isFile()) {
+            out.add(entry);
+            return;
+        }
+        File[] children = entry.listFiles();
+        if (children == null) return;
+        for (File child : children) collect(child, out);
+    }
+
+    private static void pruneIndex(Context context) {
+        SharedPreferences prefs = index(context);
+        SharedPreferences.Editor editor = null;
+        for (String path : prefs.getAll().keySet()) {
+            if (new File(path).exists()) continue;
+            if (editor == null) editor = prefs.edit();
+            editor.remove(path);
+        }
+        if (editor != null) editor.apply();
+    }
+
+    private static SharedPreferences index(Context context) {
+        return context.getSharedPreferences(INDEX_PREFS, Context.MODE_PRIVATE);
+    }
+}
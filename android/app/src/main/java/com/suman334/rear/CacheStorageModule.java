@@ -0,0 +1,126 @@
+package com.suman334.rear;
+
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Bridge for CacheStorage; also starts its periodic background trim. */
+public class CacheStorageModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "CacheStorageModule";
+    private final ReactApplicationContext reactContext;
+
+    public CacheStorageModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+        CacheStorage.schedule(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "CacheStorage";
+    }
+
+    /**
+     * Resolves { totalBytes, categories: [{ name, bytes, files, quotaBytes, ttlMs,
+     * evictedBytes, evictedFiles }] }. quotaBytes is -1 for report-only categories.
+     */
+    @ReactMethod
+    public void getUsage(Promise promise) {
+        CacheStorage.executor().execute(() -> {
+            try {
+                long total = 0;
+                WritableArray list = Arguments.createArray();
+                for (Map.Entry<String, CacheStorage.Usage> entry : CacheStorage.usage(reactContext).entrySet()) {
+                    CacheStorage.Usage usage = entry.getValue();
+                    WritableMap map = Arguments.createMap();
+                    map.putString("name", entry.getKey());
+                    map.putDouble("bytes", usage.bytes);
+                    map.putInt("files", usage.files);
+                    map.putDouble("quotaBytes", usage.category.quotaBytes);
+                    map.putDouble("ttlMs", usage.category.ttlMs);
+                    map.putDouble("evictedBytes", CacheStorage.evictedBytes(entry.getKey()));
+                    map.putDouble("evictedFiles", CacheStorage.evictedFiles(entry.getKey()));
+                    list.pushMap(map);
+                    total += usage.bytes;
+                }
+                WritableMap result = Arguments.createMap();
+                result.putDouble("totalBytes", total);
+                result.putArray("categories", list);
+                promise.resolve(result);
+            } catch (Exception e) {
+                Log.w(TAG, "getUsage failed", e);
+                promise.reject("E_CACHE_STORAGE_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Runs a trim now; resolves the number of bytes freed. */
+    @ReactMethod
+    public void trim(Promise promise) {
+        CacheStorage.executor().execute(() -> {
+            try {
+                promise.resolve((double) CacheStorage.trim(reactContext));
+            } catch (Exception e) {
+                Log.w(TAG, "trim failed", e);
+                promise.reject("E_CACHE_STORAGE_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void clearCategory(String name, Promise promise) {
+        CacheStorage.executor().execute(() -> {
+            try {
+                promise.resolve((double) CacheStorage.clear(reactContext, name));
+            } catch (Exception e) {
+                Log.w(TAG, "clearCategory failed", e);
+                promise.reject("E_CACHE_STORAGE_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Registers a cache file created from JS whose name does not identify its category. */
+    @ReactMethod
+    public void register(String path, String category) {
+        CacheStorage.register(reactContext, new File(localPath(path)), category);
+    }
+
+    /** Replaces the set of files trimming must leave alone: local files the player queue points at. */
+    @ReactMethod
+    public void setPinned(ReadableArray paths) {
+        List<String> pinned = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            String path = paths.getString(i);
+            if (path == null) continue;
+            // Pin both spellings; queue URIs may or may not be percent-encoded
+            pinned.add(new File(localPath(path)).getAbsolutePath());
+            pinned.add(new File(Uri.decode(localPath(path))).getAbsolutePath());
+        }
+        CacheStorage.setPinned(pinned);
+    }
+
+    @ReactMethod
+    public void touch(String path) {
+        CacheStorage.touch(new File(localPath(path)));
+    }
+
+    private static String localPath(String uri) {
+        return uri.replaceFirst("^file://", "").replaceFirst("^file:", "");
+    }
+}
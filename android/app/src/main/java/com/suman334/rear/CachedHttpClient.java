@@ -0,0 +1,324 @@
+package com.suman334.rear;
+
+import androidx.annotation.NonNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.CacheControl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * GET-only HTTP layer with a small disk cache and single-flight request coalescing.
+ *
+ * Kept free of React Native and Android types so it can be exercised on the JVM against
+ * a local mock server. Entries are revalidated with ETag / Last-Modified once their TTL
+ * runs out; identical in-flight URLs share one network call.
+ */
+public class CachedHttpClient {
+
+    public static class Result {
+        public final int status;
+        public final String body;
+        public final boolean fromCache;
+        public final boolean stale;
+        public final long ageMs;
+
+        Result(int status, String body, boolean fromCache, boolean stale, long ageMs) {
+            this.status = status;
+            this.body = body;
+            this.fromCache = fromCache;
+            this.stale = stale;
+            this.ageMs = ageMs;
+        }
+    }
+
+    public interface Callback {
+        void onResult(Result result);
+
+        void onError(Exception error);
+    }
+
+    /** Caller options. ttlMs < 0 means "use the server's max-age, else don't treat as fresh". */
+    public static class Options {
+        public long ttlMs = -1;
+        public boolean staleWhileRevalidate = false;
+        public boolean force = false;
+    }
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int TRIM_EVERY_WRITES = 16;
+
+    private final OkHttpClient client;
+    private final File dir;
+    private final long maxBytes;
+    private final Map<String, List<Callback>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSinceTrim = new AtomicInteger();
+    private final AtomicInteger networkCalls = new AtomicInteger();
+    private final AtomicInteger coalesced = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+
+    public CachedHttpClient(OkHttpClient client, File dir, long maxBytes) {
+        this.client = client;
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IllegalStateException("Cannot create cache dir " + dir);
+        }
+    }
+
+    public void get(String url, Options options, Callback callback) {
+        Entry entry = options.force ? null : read(url);
+        long now = System.currentTimeMillis();
+        if (entry != null) {
+            long age = now - entry.storedAt;
+            if (age < entry.ttlMs) {
+                cacheHits.incrementAndGet();
+                callback.onResult(new Result(entry.status, entry.body, true, false, age));
+                return;
+            }
+            if (options.staleWhileRevalidate) {
+                cacheHits.incrementAndGet();
+                callback.onResult(new Result(entry.status, entry.body, true, true, age));
+                fetch(url, options, entry, null);
+                return;
+            }
+        }
+        fetch(url, options, options.force ? read(url) : entry, callback);
+    }
+
+    public void remove(String url) {
+        File f = fileFor(url);
+        if (f.exists()) f.delete();
+    }
+
+    public void clear() {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) f.delete();
+    }
+
+    public long sizeBytes() {
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) total += f.length();
+        return total;
+    }
+
+    public int getNetworkCalls() {
+        return networkCalls.get();
+    }
+
+    public int getCoalesced() {
+        return coalesced.get();
+    }
+
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /** Starts or joins the in-flight request for url. A null callback means background revalidation. */
+    private void fetch(String url, Options options, Entry entry, Callback callback) {
+        List<Callback> waiters = new ArrayList<>();
+        if (callback != null) waiters.add(callback);
+        List<Callback> existing = inFlight.putIfAbsent(url, waiters);
+        if (existing != null) {
+            synchronized (existing) {
+                // The owner may have drained the list already; fall through and start a new call
+                if (inFlight.get(url) == existing) {
+                    if (callback != null) existing.add(callback);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+            }
+            fetch(url, options, entry, callback);
+            return;
+        }
+
+        Request.Builder builder = new Request.Builder().url(url).cacheControl(CacheControl.FORCE_NETWORK);
+        if (entry != null) {
+            if (entry.etag != null) builder.header("If-None-Match", entry.etag);
+            if (entry.lastModified != null) builder.header("If-Modified-Since", entry.lastModified);
+        }
+        networkCalls.incrementAndGet();
+        client.newCall(builder.build()).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                if (entry != null) {
+                    // Offline: a stale answer beats no answer
+                    complete(url, new Result(entry.status, entry.body, true, true,
+                            System.currentTimeMillis() - entry.storedAt), null);
+                } else {
+                    complete(url, null, e);
+                }
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                try (ResponseBody body = response.body()) {
+                    long now = System.currentTimeMillis();
+                    long ttl = options.ttlMs >= 0 ? options.ttlMs : serverTtl(response);
+                    if (response.code() == 304 && entry != null) {
+                        Entry refreshed = new Entry(entry.status, entry.body,
+                                etagOr(response, entry.etag), lastModifiedOr(response, entry.lastModified), now, ttl);
+                        write(url, refreshed);
+                        complete(url, new Result(entry.status, entry.body, true, false, 0), null);
+                        return;
+                    }
+                    String text = body != null ? body.string() : "";
+                    if (response.isSuccessful() && !response.cacheControl().noStore()) {
+                        write(url, new Entry(response.code(), text, response.header("ETag"),
+                                response.header("Last-Modified"), now, ttl));
+                    }
+                    complete(url, new Result(response.code(), text, false, false, 0), null);
+                } catch (Exception e) {
+                    complete(url, null, e);
+                }
+            }
+        });
+    }
+
+    private void complete(String url, Result result, Exception error) {
+        List<Callback> waiters = inFlight.get(url);
+        if (waiters == null) return;
+        List<Callback> snapshot;
+        synchronized (waiters) {
+            inFlight.remove(url, waiters);
+            snapshot = new ArrayList<>(waiters);
+        }
+        for (Callback cb : snapshot) {
+            if (result != null) cb.onResult(result);
+            else cb.onError(error);
+        }
+    }
+
+    private static long serverTtl(Response response) {
+        int maxAge = response.cacheControl().maxAgeSeconds();
+        return maxAge > 0 ? TimeUnit.SECONDS.toMillis(maxAge) : 0;
+    }
+
+    private static String etagOr(Response response, String fallback) {
+        String v = response.header("ETag");
+        return v != null ? v : fallback;
+    }
+
+    private static String lastModifiedOr(Response response, String fallback) {
+        String v = response.header("Last-Modified");
+        return v != null ? v : fallback;
+    }
+
+    private static class Entry {
+        final int status;
+        final String body;
+        final String etag;
+        final String lastModified;
+        final long storedAt;
+        final long ttlMs;
+
+        Entry(int status, String body, String etag, String lastModified, long storedAt, long ttlMs) {
+            this.status = status;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    private File fileFor(String url) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] digest = md.digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) name.append(String.format("%02x", b));
+            return new File(dir, name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Entry read(String url) {
+        File f = fileFor(url);
+        if (!f.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            // Hash collisions are practically impossible, but the key costs little to check
+            if (!url.equals(in.readUTF())) return null;
+            int status = in.readInt();
+            String etag = in.readBoolean() ? in.readUTF() : null;
+            String lastModified = in.readBoolean() ? in.readUTF() : null;
+            long storedAt = in.readLong();
+            long ttl = in.readLong();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            f.setLastModified(System.currentTimeMillis());
+            return new Entry(status, new String(body, StandardCharsets.UTF_8), etag, lastModified, storedAt, ttl);
+        } catch (IOException e) {
+            f.delete();
+            return null;
+        }
+    }
+
+    private void write(String url, Entry entry) {
+        File target = fileFor(url);
+        File tmp = new File(dir, target.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            byte[] body = entry.body.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(url);
+            out.writeInt(entry.status);
+            out.writeBoolean(entry.etag != null);
+            if (entry.etag != null) out.writeUTF(entry.etag);
+            out.writeBoolean(entry.lastModified != null);
+            if (entry.lastModified != null) out.writeUTF(entry.lastModified);
+            out.writeLong(entry.storedAt);
+            out.writeLong(entry.ttlMs);
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return;
+        }
+        if (writesSinceTrim.incrementAndGet() >= TRIM_EVERY_WRITES) {
+            writesSinceTrim.set(0);
+            trim();
+        }
+    }
+
+    /** Drops least recently used entries (by file mtime, bumped on read) until under maxBytes. */
+    public synchronized void trim() {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= maxBytes) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File f : files) {
+            if (total <= maxBytes) break;
+            long len = f.length();
+            if (f.delete()) total -= len;
+        }
+    }
+}
@@ -163,6 +163,7 @@ public class ContentUriCopyModule extends ReactContextBaseJavaModule {
             out.flush();
             out.close();
             in.close();
+            CacheStorage.register(ctx, outFile, CacheStorage.IMPORTED);
             
             // Return file:// URI format for expo-video compatibility
             String resultPath = "file://" + outFile.getAbsolutePath();
@@ -1,6 +1,9 @@
 package com.suman334.rear;
 
+import android.media.audiofx.DynamicsProcessing;
 import android.media.audiofx.Equalizer;
+import android.media.audiofx.LoudnessEnhancer;
+import android.os.Build;
 import android.util.Log;
 
 import com.facebook.react.bridge.Arguments;
@@ -15,11 +18,21 @@ import java.util.Locale;
 public class EqualizerModule extends ReactContextBaseJavaModule {
   private static final String TAG = "EqualizerModule";
   private Equalizer equalizer = null;
+  // Track loudness normalization: DynamicsProcessing input gain + limiter on API 28+,
+  // LoudnessEnhancer (boost only) below that
+  private DynamicsProcessing dynamics = null;
+  private LoudnessEnhancer enhancer = null;
+  private int sessionId = 0;
+  // Set when MemoryGovernor released a disabled equalizer; it is rebuilt on next use
+  private short[] parkedLevels = null;
+  private boolean equalizerParked = false;
   private final ReactApplicationContext reactContext;
+  private final MemoryGovernor.Trimmable trimmable = fraction -> releaseIdleEffects();
 
   public EqualizerModule(ReactApplicationContext reactContext) {
     super(reactContext);
     this.reactContext = reactContext;
+    MemoryGovernor.register("audio_effects", trimmable);
   }
 
   @Override
@@ -28,12 +41,16 @@ public class EqualizerModule extends ReactContextBaseJavaModule {
   }
 
   @ReactMethod
-  public void init(int sessionId, Promise promise) {
+  public synchronized void init(int sessionId, Promise promise) {
     try {
       if (equalizer != null) {
         equalizer.release();
         equalizer = null;
       }
+      releaseGainEffects();
+      equalizerParked = false;
+      parkedLevels = null;
+      this.sessionId = sessionId;
       equalizer = new Equalizer(0, sessionId);
       equalizer.setEnabled(true);
       promise.resolve(true);
@@ -44,8 +61,9 @@ public class EqualizerModule extends ReactContextBaseJavaModule {
   }
 
   @ReactMethod
-  public void setGains(ReadableArray gains, Promise promise) {
+  public synchronized void setGains(ReadableArray gains, Promise promise) {
     try {
+      restoreParkedEqualizer();
       if (equalizer == null) {
         promise.reject("EQUALIZER_NOT_INITIALIZED", "Equalizer not initialized");
         return;
@@ -78,8 +96,9 @@ public class EqualizerModule extends ReactContextBaseJavaModule {
   }
 
   @ReactMethod
-  public void setEnabled(boolean enabled, Promise promise) {
+  public synchronized void setEnabled(boolean enabled, Promise promise) {
     try {
+      restoreParkedEqualizer();
       if (equalizer == null) {
         promise.reject("EQUALIZER_NOT_INITIALIZED", "Equalizer not initialized");
         return;
@@ -92,17 +111,115 @@ public class EqualizerModule extends ReactContextBaseJavaModule {
     }
   }
 
+  /** Applies the gain LoudnessModule stored for trackId; 0 dB when the track has no entry. */
   @ReactMethod
-  public void release(Promise promise) {
+  public synchronized void applyTrackGain(String trackId, Promise promise) {
+    try {
+      double gainDb = LoudnessCatalog.gainDb(LibraryDatabase.get(reactContext).getReadableDatabase(), trackId);
+      setTrackGain(Double.isNaN(gainDb) ? 0 : gainDb);
+      promise.resolve(Double.isNaN(gainDb) ? null : gainDb);
+    } catch (Exception e) {
+      Log.w(TAG, "applyTrackGain failed", e);
+      promise.reject("EQUALIZER_TRACK_GAIN", e.getMessage());
+    }
+  }
+
+  private void setTrackGain(double gainDb) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+      if (dynamics == null) {
+        DynamicsProcessing.Config config = new DynamicsProcessing.Config.Builder(
+            DynamicsProcessing.VARIANT_FAVOR_TIME_RESOLUTION, 2,
+            false, 0, false, 0, false, 0, true).build();
+        dynamics = new DynamicsProcessing(0, sessionId, config);
+        // Brick-wall just under full scale so positive gain cannot clip
+        dynamics.setLimiterAllChannelsTo(new DynamicsProcessing.Limiter(true, true, 0, 1f, 60f, 10f, -1f, 0f));
+      }
+      dynamics.setInputGainAllChannelsTo((float) gainDb);
+      dynamics.setEnabled(gainDb != 0);
+      return;
+    }
+    if (gainDb > 0) {
+      if (enhancer == null) enhancer = new LoudnessEnhancer(sessionId);
+      enhancer.setTargetGain((int) Math.round(gainDb * 100.0)); // dB to millibels
+      enhancer.setEnabled(true);
+    } else if (enhancer != null) {
+      enhancer.setEnabled(false);
+    }
+  }
+
+  private void releaseGainEffects() {
+    if (dynamics != null) {
+      dynamics.release();
+      dynamics = null;
+    }
+    if (enhancer != null) {
+      enhancer.release();
+      enhancer = null;
+    }
+  }
+
+  /** Releases effects that are currently disabled; active ones keep shaping the audio. */
+  private synchronized int releaseIdleEffects() {
+    int released = 0;
+    try {
+      if (equalizer != null && !equalizer.getEnabled()) {
+        short bands = equalizer.getNumberOfBands();
+        parkedLevels = new short[bands];
+        for (short i = 0; i < bands; i++) parkedLevels[i] = equalizer.getBandLevel(i);
+        equalizer.release();
+        equalizer = null;
+        equalizerParked = true;
+        released++;
+      }
+      if (dynamics != null && !dynamics.getEnabled()) {
+        dynamics.release();
+        dynamics = null;
+        released++;
+      }
+      if (enhancer != null && !enhancer.getEnabled()) {
+        enhancer.release();
+        enhancer = null;
+        released++;
+      }
+    } catch (Exception e) {
+      Log.w(TAG, "releaseIdleEffects failed", e);
+    }
+    return released;
+  }
+
+  private void restoreParkedEqualizer() {
+    if (equalizer != null || !equalizerParked) return;
+    equalizer = new Equalizer(0, sessionId);
+    if (parkedLevels != null) {
+      for (short i = 0; i < parkedLevels.length && i < equalizer.getNumberOfBands(); i++) {
+        equalizer.setBandLevel(i, parkedLevels[i]);
+      }
+    }
+    equalizer.setEnabled(false);
+    equalizerParked = false;
+    parkedLevels = null;
+  }
+
+  @ReactMethod
+  public synchronized void release(Promise promise) {
     try {
       if (equalizer != null) {
         equalizer.release();
         equalizer = null;
       }
+      releaseGainEffects();
+      equalizerParked = false;
+      parkedLevels = null;
       promise.resolve(true);
     } catch (Exception e) {
       Log.w(TAG, "release failed", e);
       promise.reject("EQUALIZER_RELEASE", e.getMessage());
     }
   }
+
+  @Override
+  public void invalidate() {
+    MemoryGovernor.unregister("audio_effects", trimmable);
+    super.invalidate();
+  }
 }
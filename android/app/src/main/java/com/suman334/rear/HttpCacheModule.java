@@ -0,0 +1,115 @@
+package com.suman334.rear;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.File;
+
+/**
+ * Bridge for CachedHttpClient. Uses React Native's shared OkHttpClient so cached API calls
+ * and regular fetch() reuse the same connection pool.
+ */
+public class HttpCacheModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "HttpCacheModule";
+    private static final long MAX_CACHE_BYTES = 20L * 1024 * 1024;
+
+    private final ReactApplicationContext reactContext;
+    private CachedHttpClient client;
+
+    public HttpCacheModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "HttpCache";
+    }
+
+    private synchronized CachedHttpClient client() {
+        if (client == null) {
+            client = new CachedHttpClient(OkHttpClientProvider.getOkHttpClient(),
+                    new File(reactContext.getCacheDir(), "http_cache"), MAX_CACHE_BYTES);
+        }
+        return client;
+    }
+
+    @ReactMethod
+    public void fetch(String url, ReadableMap options, Promise promise) {
+        try {
+            CachedHttpClient.Options opts = new CachedHttpClient.Options();
+            if (options != null) {
+                if (options.hasKey("ttlMs")) opts.ttlMs = (long) options.getDouble("ttlMs");
+                if (options.hasKey("staleWhileRevalidate")) opts.staleWhileRevalidate = options.getBoolean("staleWhileRevalidate");
+                if (options.hasKey("force")) opts.force = options.getBoolean("force");
+            }
+            client().get(url, opts, new CachedHttpClient.Callback() {
+                @Override
+                public void onResult(CachedHttpClient.Result result) {
+                    WritableMap map = Arguments.createMap();
+                    map.putInt("status", result.status);
+                    map.putString("body", result.body);
+                    map.putBoolean("fromCache", result.fromCache);
+                    map.putBoolean("stale", result.stale);
+                    map.putDouble("ageMs", result.ageMs);
+                    promise.resolve(map);
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    Log.w(TAG, "fetch failed: " + url, error);
+                    promise.reject("E_HTTP_FAILED", error.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            Log.w(TAG, "fetch failed", e);
+            promise.reject("E_HTTP_FAILED", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void remove(String url, Promise promise) {
+        try {
+            client().remove(url);
+            promise.resolve(true);
+        } catch (Exception e) {
+            promise.reject("E_HTTP_CACHE", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void clear(Promise promise) {
+        try {
+            client().clear();
+            promise.resolve(true);
+        } catch (Exception e) {
+            promise.reject("E_HTTP_CACHE", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void getStats(Promise promise) {
+        try {
+            CachedHttpClient c = client();
+            WritableMap map = Arguments.createMap();
+            map.putDouble("sizeBytes", c.sizeBytes());
+            map.putInt("networkCalls", c.getNetworkCalls());
+            map.putInt("coalesced", c.getCoalesced());
+            map.putInt("cacheHits", c.getCacheHits());
+            promise.resolve(map);
+        } catch (Exception e) {
+            promise.reject("E_HTTP_CACHE", e.getMessage());
+        }
+    }
+}
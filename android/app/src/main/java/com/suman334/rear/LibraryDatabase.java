@@ -0,0 +1,122 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * SQLite index of the device media library, filled by LibraryScannerModule.
+ * Text columns have a normalized "_key" twin (lower case, no diacritics) so prefix
+ * search can use the indexes instead of scanning. The offline search tables managed by
+ * SearchIndex live in the same file so scans can update both in one transaction;
+ * LoudnessCatalog keeps per-track loudness results here too.
+ */
+public class LibraryDatabase extends SQLiteOpenHelper {
+    private static final String DB_NAME = "media_library.db";
+    private static final int DB_VERSION = 4;
+
+    public static final String TABLE_MEDIA = "media";
+    public static final String TABLE_SCAN_STATE = "scan_state";
+
+    private static volatile LibraryDatabase instance;
+
+    public static LibraryDatabase get(Context context) {
+        if (instance == null) {
+            synchronized (LibraryDatabase.class) {
+                if (instance == null) {
+                    instance = new LibraryDatabase(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LibraryDatabase(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MEDIA + " ("
+                + "kind TEXT NOT NULL,"
+                + "media_id INTEGER NOT NULL,"
+                + "volume TEXT,"
+                + "uri TEXT NOT NULL,"
+                + "title TEXT,"
+                + "artist TEXT,"
+                + "album TEXT,"
+                + "title_key TEXT,"
+                + "artist_key TEXT,"
+                + "album_key TEXT,"
+                + "duration INTEGER,"
+                + "size INTEGER,"
+                + "mime TEXT,"
+                + "date_modified INTEGER,"
+                + "generation INTEGER,"
+                + "art_path TEXT,"
+                + "PRIMARY KEY (kind, media_id))");
+        db.execSQL("CREATE INDEX idx_media_title_key ON " + TABLE_MEDIA + " (title_key)");
+        db.execSQL("CREATE INDEX idx_media_artist_key ON " + TABLE_MEDIA + " (artist_key)");
+        db.execSQL("CREATE INDEX idx_media_album_key ON " + TABLE_MEDIA + " (album_key)");
+        db.execSQL("CREATE TABLE " + TABLE_SCAN_STATE + " ("
+                + "scope TEXT PRIMARY KEY,"
+                + "media_version TEXT,"
+                + "generation INTEGER,"
+                + "last_scan INTEGER)");
+        SearchIndex.createTables(db);
+        LoudnessCatalog.createTables(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            SearchIndex.createTables(db);
+            // Forget generations so the next scan is full and fills the search index
+            db.delete(TABLE_SCAN_STATE, null, null);
+        }
+        if (oldVersion < 3) {
+            LoudnessCatalog.createTables(db);
+        }
+        if (oldVersion < 4) {
+            // normalize() keeps non-Latin marks now; a full scan rebuilds the media keys
+            db.delete(TABLE_SCAN_STATE, null, null);
+            SearchIndex.reindexAll(db);
+        }
+    }
+
+    /**
+     * Lower-cases and strips diacritics so "Beyoncé" and "beyonce" share a key. Only marks on
+     * Latin letters go: in scripts like Devanagari or Bengali the combining signs are vowels
+     * and dropping them would merge unrelated titles.
+     */
+    public static String normalize(String value) {
+        if (value == null) return null;
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean latinBase = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int cp = decomposed.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.getType(cp) == Character.NON_SPACING_MARK) {
+                if (latinBase) continue;
+            } else {
+                latinBase = Character.UnicodeScript.of(cp) == Character.UnicodeScript.LATIN;
+            }
+            out.appendCodePoint(cp);
+        }
+        return Normalizer.normalize(out, Normalizer.Form.NFC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Exclusive upper bound for a prefix range query: key >= prefix AND key < bound.
+     * U+10FFFF sorts after every code point under BINARY (UTF-8 byte) collation; U+FFFF
+     * would sort before supplementary-plane characters such as emoji.
+     */
+    public static String prefixUpperBound(String prefix) {
+        return prefix + "\uDBFF\uDFFF";
+    }
+}
@@ -0,0 +1,486 @@
+package com.suman334.rear;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexes MediaStore audio/video into LibraryDatabase.
+ *
+ * On API 30+ each volume's MediaStore generation is stored after a scan, so the next scan
+ * only reads rows with a newer GENERATION_MODIFIED. Older devices fall back to comparing
+ * DATE_MODIFIED against the index. Either way a cheap id-only pass detects deletions.
+ */
+public class LibraryScannerModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "LibraryScannerModule";
+    public static final String EVENT_PROGRESS = "LibraryScanProgress";
+
+    private static final String KIND_AUDIO = "audio";
+    private static final String KIND_VIDEO = "video";
+    private static final String LEGACY_VOLUME = "external";
+    private static final String COLUMN_GENERATION_MODIFIED = "generation_modified";
+    private static final int BATCH_SIZE = 500;
+    private static final int PROGRESS_EVERY = 500;
+    private static final int ART_WORKERS = 2;
+    private static final int ART_QUEUE = 64;
+
+    private final ReactApplicationContext reactContext;
+    // Single thread: scans never overlap and never touch the UI thread
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    // Separate so queries stay responsive while a scan is running (WAL allows concurrent reads)
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor();
+    // Bounded artwork pool; CallerRuns throttles the scan thread when the queue is full. Work is
+    // only submitted between transactions, so an inline run never holds the write lock.
+    private final ThreadPoolExecutor artPool = new ThreadPoolExecutor(
+            ART_WORKERS, ART_WORKERS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(ART_QUEUE), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public LibraryScannerModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+        artPool.allowCoreThreadTimeOut(true);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "LibraryScanner";
+    }
+
+    @ReactMethod
+    public void scan(ReadableMap options, Promise promise) {
+        final boolean full = options != null && options.hasKey("full") && options.getBoolean("full");
+        final boolean artwork = options == null || !options.hasKey("artwork") || options.getBoolean("artwork");
+        scanExecutor.execute(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                ScanStats stats = new ScanStats();
+                for (String volume : volumes()) {
+                    scanCollection(KIND_AUDIO, volume, full, artwork, stats);
+                    scanCollection(KIND_VIDEO, volume, full, false, stats);
+                }
+
+                WritableMap result = Arguments.createMap();
+                result.putInt("added", stats.added);
+                result.putInt("updated", stats.updated);
+                result.putInt("removed", stats.removed);
+                result.putBoolean("incremental", stats.incremental && !full);
+                result.putDouble("total", countRows(null));
+                result.putDouble("durationMs", System.currentTimeMillis() - started);
+                Log.i(TAG, "Scan done: +" + stats.added + " ~" + stats.updated + " -" + stats.removed
+                        + " in " + (System.currentTimeMillis() - started) + "ms");
+                promise.resolve(result);
+            } catch (SecurityException e) {
+                Log.w(TAG, "scan missing permission", e);
+                promise.reject("E_PERMISSION", e.getMessage());
+            } catch (Exception e) {
+                Log.w(TAG, "scan failed", e);
+                promise.reject("E_SCAN_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void search(String query, ReadableMap options, Promise promise) {
+        queryExecutor.execute(() -> {
+            try {
+                int limit = 50;
+                String kind = null;
+                if (options != null) {
+                    if (options.hasKey("limit")) limit = Math.max(1, options.getInt("limit"));
+                    if (options.hasKey("kind")) kind = options.getString("kind");
+                }
+                String prefix = LibraryDatabase.normalize(query == null ? "" : query);
+                String upper = LibraryDatabase.prefixUpperBound(prefix);
+
+                StringBuilder where = new StringBuilder(
+                        "((title_key >= ? AND title_key < ?) OR (artist_key >= ? AND artist_key < ?)"
+                                + " OR (album_key >= ? AND album_key < ?))");
+                List<String> args = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    args.add(prefix);
+                    args.add(upper);
+                }
+                if (kind != null) {
+                    where.append(" AND kind = ?");
+                    args.add(kind);
+                }
+
+                SQLiteDatabase db = LibraryDatabase.get(reactContext).getReadableDatabase();
+                WritableArray rows = Arguments.createArray();
+                try (Cursor c = db.query(LibraryDatabase.TABLE_MEDIA,
+                        new String[]{"kind", "media_id", "uri", "title", "artist", "album", "duration", "art_path"},
+                        where.toString(), args.toArray(new String[0]), null, null,
+                        "title_key", String.valueOf(limit))) {
+                    while (c.moveToNext()) {
+                        rows.pushMap(rowToMap(c));
+                    }
+                }
+                promise.resolve(rows);
+            } catch (Exception e) {
+                Log.w(TAG, "search failed", e);
+                promise.reject("E_SEARCH_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getStats(Promise promise) {
+        queryExecutor.execute(() -> {
+            try {
+                WritableMap result = Arguments.createMap();
+                result.putDouble("audio", countRows(KIND_AUDIO));
+                result.putDouble("video", countRows(KIND_VIDEO));
+                SQLiteDatabase db = LibraryDatabase.get(reactContext).getReadableDatabase();
+                try (Cursor c = db.rawQuery("SELECT MAX(last_scan) FROM " + LibraryDatabase.TABLE_SCAN_STATE, null)) {
+                    result.putDouble("lastScan", c.moveToFirst() ? c.getLong(0) : 0);
+                }
+                promise.resolve(result);
+            } catch (Exception e) {
+                Log.w(TAG, "getStats failed", e);
+                promise.reject("E_STATS_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        // Required by NativeEventEmitter
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+        // Required by NativeEventEmitter
+    }
+
+    @Override
+    public void invalidate() {
+        scanExecutor.shutdownNow();
+        queryExecutor.shutdownNow();
+        artPool.shutdownNow();
+        super.invalidate();
+    }
+
+    private static class ScanStats {
+        int added;
+        int updated;
+        int removed;
+        boolean incremental = true;
+    }
+
+    private List<String> volumes() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return new ArrayList<>(MediaStore.getExternalVolumeNames(reactContext));
+        }
+        return Collections.singletonList(LEGACY_VOLUME);
+    }
+
+    private Uri collectionUri(String kind, String volume) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return KIND_AUDIO.equals(kind)
+                    ? MediaStore.Audio.Media.getContentUri(volume)
+                    : MediaStore.Video.Media.getContentUri(volume);
+        }
+        return KIND_AUDIO.equals(kind)
+                ? MediaStore.Audio.Media.EXTERNAL_CONTENT_URI
+                : MediaStore.Video.Media.EXTERNAL_CONTENT_URI;
+    }
+
+    private void scanCollection(String kind, String volume, boolean full, boolean artwork, ScanStats stats) {
+        Context ctx = reactContext;
+        ContentResolver resolver = ctx.getContentResolver();
+        SQLiteDatabase db = LibraryDatabase.get(ctx).getWritableDatabase();
+        Uri collection = collectionUri(kind, volume);
+        String scope = kind + ":" + volume;
+
+        boolean useGeneration = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R;
+        String mediaVersion = useGeneration ? MediaStore.getVersion(ctx, volume) : null;
+        long currentGeneration = useGeneration ? MediaStore.getGeneration(ctx, volume) : 0;
+
+        String storedVersion = null;
+        long storedGeneration = -1;
+        try (Cursor c = db.query(LibraryDatabase.TABLE_SCAN_STATE, new String[]{"media_version", "generation"},
+                "scope = ?", new String[]{scope}, null, null, null)) {
+            if (c.moveToFirst()) {
+                storedVersion = c.getString(0);
+                storedGeneration = c.getLong(1);
+            }
+        }
+        // A new MediaStore version means generations were reset, so ours are meaningless
+        boolean incremental = !full && storedGeneration >= 0
+                && (!useGeneration || (mediaVersion != null && mediaVersion.equals(storedVersion)));
+        if (!incremental) stats.incremental = false;
+
+        // Id pass: cheap, and the only way to notice deletions
+        Map<Long, Long> indexed = new HashMap<>();
+        try (Cursor c = db.query(LibraryDatabase.TABLE_MEDIA, new String[]{"media_id", "date_modified"},
+                "kind = ? AND volume = ?", new String[]{kind, volume}, null, null, null)) {
+            while (c.moveToNext()) indexed.put(c.getLong(0), c.getLong(1));
+        }
+        Set<Long> present = new HashSet<>();
+        List<Long> changed = new ArrayList<>();
+        try (Cursor c = resolver.query(collection,
+                new String[]{MediaStore.MediaColumns._ID, MediaStore.MediaColumns.DATE_MODIFIED},
+                null, null, null)) {
+            if (c != null) {
+                while (c.moveToNext()) {
+                    long id = c.getLong(0);
+                    present.add(id);
+                    if (useGeneration && incremental) continue;
+                    Long known = indexed.get(id);
+                    if (!incremental || known == null || known != c.getLong(1)) changed.add(id);
+                }
+            }
+        }
+
+        db.beginTransaction();
+        try {
+            for (Long id : indexed.keySet()) {
+                if (!present.contains(id)) {
+                    db.delete(LibraryDatabase.TABLE_MEDIA, "kind = ? AND media_id = ?",
+                            new String[]{kind, String.valueOf(id)});
+                    SearchIndex.remove(db, SearchIndex.libraryKey(kind, id));
+                    deleteArt(id);
+                    stats.removed++;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        List<String> projection = new ArrayList<>();
+        Collections.addAll(projection,
+                MediaStore.MediaColumns._ID,
+                MediaStore.MediaColumns.TITLE,
+                MediaStore.MediaColumns.SIZE,
+                MediaStore.MediaColumns.MIME_TYPE,
+                MediaStore.MediaColumns.DATE_MODIFIED,
+                MediaStore.Audio.AudioColumns.ARTIST,
+                MediaStore.Audio.AudioColumns.ALBUM,
+                MediaStore.Audio.AudioColumns.DURATION);
+        if (useGeneration) projection.add(COLUMN_GENERATION_MODIFIED);
+        String[] columns = projection.toArray(new String[0]);
+
+        int processed = 0;
+        if (useGeneration && incremental) {
+            // Generation catches edits that keep DATE_MODIFIED, e.g. tag rewrites by the scanner
+            try (Cursor c = resolver.query(collection, columns, COLUMN_GENERATION_MODIFIED + " > ?",
+                    new String[]{String.valueOf(storedGeneration)}, null)) {
+                processed += upsertRows(db, c, kind, volume, collection, indexed, artwork, stats);
+            }
+        } else {
+            for (int i = 0; i < changed.size(); i += BATCH_SIZE) {
+                List<Long> batch = changed.subList(i, Math.min(changed.size(), i + BATCH_SIZE));
+                StringBuilder in = new StringBuilder(MediaStore.MediaColumns._ID + " IN (");
+                for (int j = 0; j < batch.size(); j++) {
+                    if (j > 0) in.append(',');
+                    in.append(batch.get(j));
+                }
+                in.append(')');
+                try (Cursor c = resolver.query(collection, columns, in.toString(), null, null)) {
+                    processed += upsertRows(db, c, kind, volume, collection, indexed, artwork, stats);
+                }
+                emitProgress(kind, processed, changed.size());
+            }
+        }
+
+        ContentValues state = new ContentValues();
+        state.put("scope", scope);
+        state.put("media_version", mediaVersion);
+        state.put("generation", currentGeneration);
+        state.put("last_scan", System.currentTimeMillis());
+        db.insertWithOnConflict(LibraryDatabase.TABLE_SCAN_STATE, null, state, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private int upsertRows(SQLiteDatabase db, Cursor c, String kind, String volume, Uri collection,
+                           Map<Long, Long> indexed, boolean artwork, ScanStats stats) {
+        if (c == null) return 0;
+        int count = 0;
+        int generationIndex = c.getColumnIndex(COLUMN_GENERATION_MODIFIED);
+        ContentValues values = new ContentValues();
+        // Artwork writes to the DB, so it is queued once the rows are committed
+        List<Long> pendingArt = new ArrayList<>();
+        db.beginTransaction();
+        try {
+            while (c.moveToNext()) {
+                long id = c.getLong(0);
+                String title = c.getString(1);
+                String artist = c.getString(5);
+                String album = c.getString(6);
+                String uri = ContentUris.withAppendedId(collection, id).toString();
+
+                values.clear();
+                values.put("kind", kind);
+                values.put("media_id", id);
+                values.put("volume", volume);
+                values.put("uri", uri);
+                values.put("title", title);
+                values.put("artist", artist);
+                values.put("album", album);
+                values.put("title_key", LibraryDatabase.normalize(title));
+                values.put("artist_key", LibraryDatabase.normalize(artist));
+                values.put("album_key", LibraryDatabase.normalize(album));
+                values.put("size", c.getLong(2));
+                values.put("mime", c.getString(3));
+                values.put("date_modified", c.getLong(4));
+                values.put("duration", c.getLong(7));
+                values.put("generation", generationIndex >= 0 ? c.getLong(generationIndex) : 0);
+                db.insertWithOnConflict(LibraryDatabase.TABLE_MEDIA, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                SearchIndex.put(db, SearchIndex.libraryKey(kind, id), SearchIndex.SOURCE_LIBRARY,
+                        title, artist, album, null, libraryPayload(kind, uri, c.getLong(7)), null);
+
+                if (indexed.containsKey(id)) stats.updated++; else stats.added++;
+                if (artwork) pendingArt.add(id);
+
+                count++;
+                if (count % PROGRESS_EVERY == 0) {
+                    // Commit in chunks so readers (search) see progress on large libraries
+                    db.setTransactionSuccessful();
+                    db.endTransaction();
+                    queueArtwork(collection, pendingArt);
+                    db.beginTransaction();
+                    emitProgress(kind, count, -1);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        queueArtwork(collection, pendingArt);
+        return count;
+    }
+
+    private static String libraryPayload(String kind, String uri, long duration) {
+        try {
+            JSONObject payload = new JSONObject();
+            payload.put("kind", kind);
+            payload.put("uri", uri);
+            payload.put("duration", duration);
+            return payload.toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private File artFile(long id) {
+        return new File(reactContext.getCacheDir(), "library_art_" + id + ".jpg");
+    }
+
+    private void deleteArt(long id) {
+        File f = artFile(id);
+        if (f.exists() && !f.delete()) {
+            Log.w(TAG, "Could not delete stale artwork " + f);
+        }
+    }
+
+    /** Call outside any transaction; clears pending. */
+    private void queueArtwork(Uri collection, List<Long> pending) {
+        for (long id : pending) {
+            queueArtwork(id, ContentUris.withAppendedId(collection, id).toString());
+        }
+        pending.clear();
+    }
+
+    private void queueArtwork(final long id, final String uri) {
+        if (artPool.isShutdown()) return;
+        artPool.execute(() -> {
+            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+            try {
+                retriever.setDataSource(reactContext, Uri.parse(uri));
+                byte[] art = retriever.getEmbeddedPicture();
+                String artPath = null;
+                if (art != null && art.length > 0) {
+                    File out = artFile(id);
+                    try (FileOutputStream fos = new FileOutputStream(out)) {
+                        fos.write(art);
+                    }
+                    artPath = "file://" + out.getAbsolutePath();
+                } else {
+                    deleteArt(id);
+                }
+                ContentValues values = new ContentValues();
+                values.put("art_path", artPath);
+                LibraryDatabase.get(reactContext).getWritableDatabase().update(LibraryDatabase.TABLE_MEDIA, values,
+                        "kind = ? AND media_id = ?", new String[]{KIND_AUDIO, String.valueOf(id)});
+            } catch (Exception e) {
+                Log.w(TAG, "Artwork extraction failed for " + uri, e);
+            } finally {
+                try {
+                    retriever.release();
+                } catch (Exception ignored) {
+                }
+            }
+        });
+    }
+
+    private long countRows(String kind) {
+        SQLiteDatabase db = LibraryDatabase.get(reactContext).getReadableDatabase();
+        String sql = "SELECT COUNT(*) FROM " + LibraryDatabase.TABLE_MEDIA + (kind != null ? " WHERE kind = ?" : "");
+        try (Cursor c = db.rawQuery(sql, kind != null ? new String[]{kind} : null)) {
+            return c.moveToFirst() ? c.getLong(0) : 0;
+        }
+    }
+
+    private WritableMap rowToMap(Cursor c) {
+        WritableMap row = Arguments.createMap();
+        row.putString("kind", c.getString(0));
+        row.putDouble("id", c.getLong(1));
+        row.putString("uri", c.getString(2));
+        row.putString("title", c.getString(3));
+        row.putString("artist", c.getString(4));
+        row.putString("album", c.getString(5));
+        row.putDouble("duration", c.getLong(6));
+        row.putString("artPath", c.getString(7));
+        return row;
+    }
+
+    private void emitProgress(String kind, int processed, int total) {
+        if (!reactContext.hasActiveReactInstance()) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("kind", kind);
+        event.putInt("processed", processed);
+        event.putInt("total", total);
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(EVENT_PROGRESS, event);
+    }
+}
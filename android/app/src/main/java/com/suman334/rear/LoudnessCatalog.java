@@ -0,0 +1,89 @@
+package com.suman334.rear;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Per-track loudness measurements (see LoudnessModule), stored next to the media library
+ * so EqualizerModule can look up a track's normalization gain when it starts playing.
+ */
+public final class LoudnessCatalog {
+    public static final String TABLE_LOUDNESS = "track_loudness";
+
+    private LoudnessCatalog() {
+    }
+
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_LOUDNESS + " ("
+                + "track_id TEXT PRIMARY KEY,"
+                + "integrated_lufs REAL,"
+                + "peak REAL,"
+                + "gain_db REAL NOT NULL,"
+                + "analyzed_at INTEGER)");
+    }
+
+    public static void put(SQLiteDatabase db, String trackId, double integratedLufs, double peak, double gainDb) {
+        ContentValues values = new ContentValues();
+        values.put("track_id", trackId);
+        // Silence measures as -infinity, which SQLite cannot round-trip
+        if (Double.isInfinite(integratedLufs)) values.putNull("integrated_lufs");
+        else values.put("integrated_lufs", integratedLufs);
+        values.put("peak", peak);
+        values.put("gain_db", gainDb);
+        values.put("analyzed_at", System.currentTimeMillis());
+        db.insertWithOnConflict(TABLE_LOUDNESS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /** Stored gain in dB, or NaN when the track has not been analysed. */
+    public static double gainDb(SQLiteDatabase db, String trackId) {
+        try (Cursor c = db.rawQuery("SELECT gain_db FROM " + TABLE_LOUDNESS + " WHERE track_id = ?",
+                new String[]{trackId})) {
+            return c.moveToFirst() ? c.getDouble(0) : Double.NaN;
+        }
+    }
+
+    public static void remove(SQLiteDatabase db, String trackId) {
+        db.delete(TABLE_LOUDNESS, "track_id = ?", new String[]{trackId});
+    }
+
+    /** All rows as [{ trackId, integratedLufs (null for silence), peak, gainDb }], for backups. */
+    public static JSONArray export(SQLiteDatabase db) throws JSONException {
+        JSONArray rows = new JSONArray();
+        try (Cursor c = db.rawQuery("SELECT track_id, integrated_lufs, peak, gain_db FROM " + TABLE_LOUDNESS, null)) {
+            while (c.moveToNext()) {
+                JSONObject row = new JSONObject();
+                row.put("trackId", c.getString(0));
+                row.put("integratedLufs", c.isNull(1) ? JSONObject.NULL : c.getDouble(1));
+                row.put("peak", c.getDouble(2));
+                row.put("gainDb", c.getDouble(3));
+                rows.put(row);
+            }
+        }
+        return rows;
+    }
+
+    /** Adds exported rows for tracks that have no measurement yet; returns how many were added. */
+    public static int importMissing(SQLiteDatabase db, JSONArray rows) throws JSONException {
+        int added = 0;
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < rows.length(); i++) {
+                JSONObject row = rows.getJSONObject(i);
+                String trackId = row.getString("trackId");
+                if (!Double.isNaN(gainDb(db, trackId))) continue;
+                double lufs = row.isNull("integratedLufs") ? Double.NEGATIVE_INFINITY : row.getDouble("integratedLufs");
+                put(db, trackId, lufs, row.getDouble("peak"), row.getDouble("gainDb"));
+                added++;
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return added;
+    }
+}
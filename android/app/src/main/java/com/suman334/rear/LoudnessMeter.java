@@ -0,0 +1,151 @@
+package com.suman334.rear;
+
+/**
+ * Streaming ITU-R BS.1770 / EBU R128 integrated loudness and sample peak.
+ *
+ * Audio is K-weighted per channel, squared and summed into 100 ms sub-blocks; every
+ * sub-block closes a 400 ms block (75% overlap). Block energies go into a fixed 0.1 LU
+ * histogram, so gating needs no per-block storage and process() never allocates.
+ */
+public class LoudnessMeter {
+    private static final double ABSOLUTE_GATE_LUFS = -70.0;
+    private static final double RELATIVE_GATE_LU = -10.0;
+    private static final double HISTOGRAM_MAX_LUFS = 5.0;
+    private static final double HISTOGRAM_STEP = 0.1;
+    private static final int HISTOGRAM_BINS = (int) ((HISTOGRAM_MAX_LUFS - ABSOLUTE_GATE_LUFS) / HISTOGRAM_STEP) + 1;
+
+    private final int channels;
+    private final int subBlockFrames;
+
+    // K-weighting: high-shelf pre-filter followed by RLB high-pass, biquad coefficients
+    private final double pb0, pb1, pb2, pa1, pa2;
+    private final double rb0, rb1, rb2, ra1, ra2;
+    // Per-channel filter state: [x1, x2, y1, y2] for each stage
+    private final double[] preState;
+    private final double[] rlbState;
+
+    private final double[] subBlocks = new double[4];
+    private int subBlockIndex = 0;
+    private int subBlocksSeen = 0;
+    private double currentSum = 0;
+    private int currentFrames = 0;
+
+    private final long[] histogramCount = new long[HISTOGRAM_BINS];
+    private final double[] histogramEnergy = new double[HISTOGRAM_BINS];
+    private double peak = 0;
+
+    public LoudnessMeter(int sampleRate, int channels) {
+        this.channels = Math.max(1, channels);
+        this.subBlockFrames = Math.max(1, sampleRate / 10);
+        this.preState = new double[this.channels * 4];
+        this.rlbState = new double[this.channels * 4];
+
+        double f0 = 1681.974450955533;
+        double gain = 3.999843853973347;
+        double q = 0.7071752369554196;
+        double k = Math.tan(Math.PI * f0 / sampleRate);
+        double vh = Math.pow(10.0, gain / 20.0);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1.0 + k / q + k * k;
+        pb0 = (vh + vb * k / q + k * k) / a0;
+        pb1 = 2.0 * (k * k - vh) / a0;
+        pb2 = (vh - vb * k / q + k * k) / a0;
+        pa1 = 2.0 * (k * k - 1.0) / a0;
+        pa2 = (1.0 - k / q + k * k) / a0;
+
+        f0 = 38.13547087602444;
+        q = 0.5003270373238773;
+        k = Math.tan(Math.PI * f0 / sampleRate);
+        a0 = 1.0 + k / q + k * k;
+        rb0 = 1.0;
+        rb1 = -2.0;
+        rb2 = 1.0;
+        ra1 = 2.0 * (k * k - 1.0) / a0;
+        ra2 = (1.0 - k / q + k * k) / a0;
+    }
+
+    /** Interleaved samples in [-1, 1]; frames = count / channels. */
+    public void process(float[] samples, int count) {
+        for (int i = 0; i + channels <= count; i += channels) {
+            for (int c = 0; c < channels; c++) {
+                addSample(c, samples[i + c]);
+            }
+            frameDone();
+        }
+    }
+
+    /** Interleaved 16-bit PCM. */
+    public void process(short[] samples, int count) {
+        for (int i = 0; i + channels <= count; i += channels) {
+            for (int c = 0; c < channels; c++) {
+                addSample(c, samples[i + c] / 32768.0);
+            }
+            frameDone();
+        }
+    }
+
+    private void addSample(int c, double x) {
+        double abs = Math.abs(x);
+        if (abs > peak) peak = abs;
+
+        int s = c * 4;
+        double y = pb0 * x + pb1 * preState[s] + pb2 * preState[s + 1] - pa1 * preState[s + 2] - pa2 * preState[s + 3];
+        preState[s + 1] = preState[s];
+        preState[s] = x;
+        preState[s + 3] = preState[s + 2];
+        preState[s + 2] = y;
+
+        double z = rb0 * y + rb1 * rlbState[s] + rb2 * rlbState[s + 1] - ra1 * rlbState[s + 2] - ra2 * rlbState[s + 3];
+        rlbState[s + 1] = rlbState[s];
+        rlbState[s] = y;
+        rlbState[s + 3] = rlbState[s + 2];
+        rlbState[s + 2] = z;
+
+        // Channel weights are 1.0 for L/R/C, which covers the stereo/mono content we decode
+        currentSum += z * z;
+    }
+
+    private void frameDone() {
+        if (++currentFrames < subBlockFrames) return;
+        subBlocks[subBlockIndex] = currentSum;
+        subBlockIndex = (subBlockIndex + 1) & 3;
+        currentSum = 0;
+        currentFrames = 0;
+        if (++subBlocksSeen < 4) return;
+
+        double energy = (subBlocks[0] + subBlocks[1] + subBlocks[2] + subBlocks[3]) / (4.0 * subBlockFrames);
+        if (energy <= 0) return;
+        double loudness = -0.691 + 10.0 * Math.log10(energy);
+        if (loudness < ABSOLUTE_GATE_LUFS) return;
+        int bin = (int) ((Math.min(loudness, HISTOGRAM_MAX_LUFS) - ABSOLUTE_GATE_LUFS) / HISTOGRAM_STEP);
+        histogramCount[bin]++;
+        histogramEnergy[bin] += energy;
+    }
+
+    /** Integrated loudness in LUFS, or -infinity when everything was below the absolute gate. */
+    public double integratedLoudness() {
+        long count = 0;
+        double energy = 0;
+        for (int i = 0; i < HISTOGRAM_BINS; i++) {
+            count += histogramCount[i];
+            energy += histogramEnergy[i];
+        }
+        if (count == 0) return Double.NEGATIVE_INFINITY;
+
+        double relativeGate = -0.691 + 10.0 * Math.log10(energy / count) + RELATIVE_GATE_LU;
+        int startBin = (int) Math.max(0, Math.ceil((relativeGate - ABSOLUTE_GATE_LUFS) / HISTOGRAM_STEP));
+        count = 0;
+        energy = 0;
+        for (int i = startBin; i < HISTOGRAM_BINS; i++) {
+            count += histogramCount[i];
+            energy += histogramEnergy[i];
+        }
+        if (count == 0) return Double.NEGATIVE_INFINITY;
+        return -0.691 + 10.0 * Math.log10(energy / count);
+    }
+
+    /** Sample peak, linear (1.0 = full scale). */
+    public double samplePeak() {
+        return peak;
+    }
+}
@@ -0,0 +1,146 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures integrated loudness (EBU R128) and sample peak of local tracks and stores a
+ * normalization gain in LoudnessCatalog. Tracks are decoded to PCM with MediaCodec on a
+ * single background-priority thread; EqualizerModule.applyTrackGain picks the result up
+ * when the track starts.
+ */
+public class LoudnessModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "LoudnessModule";
+
+    // Streaming services normalize around -14 LUFS; keeping positive gain modest avoids pumping the limiter
+    private static final double TARGET_LUFS = -14.0;
+    private static final double MIN_GAIN_DB = -15.0;
+    private static final double MAX_GAIN_DB = 9.0;
+
+    private final ReactApplicationContext reactContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        r.run();
+    }, "loudness-analyzer"));
+
+    // Only used on the executor thread
+    private final PcmDecoder decoder = new PcmDecoder();
+
+    public LoudnessModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "Loudness";
+    }
+
+    /**
+     * Analyses a local file:// or content:// track and stores its gain under trackId.
+     * Resolves { integratedLufs, peak, gainDb }.
+     */
+    @ReactMethod
+    public void analyze(String uriString, String trackId, Promise promise) {
+        executor.execute(() -> {
+            try {
+                LoudnessMeter meter = measure(reactContext, uriString);
+                double integrated = meter.integratedLoudness();
+                double peak = meter.samplePeak();
+                double gain = gainFor(integrated, peak);
+                LoudnessCatalog.put(LibraryDatabase.get(reactContext).getWritableDatabase(), trackId, integrated, peak, gain);
+                promise.resolve(toMap(integrated, peak, gain));
+            } catch (Exception e) {
+                Log.w(TAG, "analyze failed for " + uriString, e);
+                promise.reject("E_LOUDNESS_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Resolves the stored gain in dB, or null when the track has not been analysed. */
+    @ReactMethod
+    public void getGain(String trackId, Promise promise) {
+        executor.execute(() -> {
+            try {
+                double gain = LoudnessCatalog.gainDb(LibraryDatabase.get(reactContext).getReadableDatabase(), trackId);
+                if (Double.isNaN(gain)) promise.resolve(null);
+                else promise.resolve(gain);
+            } catch (Exception e) {
+                Log.w(TAG, "getGain failed", e);
+                promise.reject("E_LOUDNESS_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void remove(String trackId, Promise promise) {
+        executor.execute(() -> {
+            try {
+                LoudnessCatalog.remove(LibraryDatabase.get(reactContext).getWritableDatabase(), trackId);
+                promise.resolve(true);
+            } catch (Exception e) {
+                Log.w(TAG, "remove failed", e);
+                promise.reject("E_LOUDNESS_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void invalidate() {
+        executor.shutdownNow();
+        super.invalidate();
+    }
+
+    /** Gain that brings the track to TARGET_LUFS without pushing the sample peak past full scale. */
+    static double gainFor(double integratedLufs, double peak) {
+        if (Double.isInfinite(integratedLufs) || Double.isNaN(integratedLufs)) return 0;
+        double gain = TARGET_LUFS - integratedLufs;
+        if (peak > 0) gain = Math.min(gain, -20.0 * Math.log10(peak));
+        return Math.max(MIN_GAIN_DB, Math.min(MAX_GAIN_DB, gain));
+    }
+
+    private LoudnessMeter measure(Context ctx, String uriString) throws Exception {
+        LoudnessMeter[] meter = new LoudnessMeter[1];
+        decoder.decode(ctx, uriString, new PcmDecoder.Sink() {
+            @Override
+            public void onFormat(int sampleRate, int channels, long durationUs) {
+                // Nothing has been measured yet when the decoder reports its real output layout
+                meter[0] = new LoudnessMeter(sampleRate, channels);
+            }
+
+            @Override
+            public void onPcm(short[] samples, int count) {
+                meter[0].process(samples, count);
+            }
+
+            @Override
+            public void onPcm(float[] samples, int count) {
+                meter[0].process(samples, count);
+            }
+        });
+        return meter[0];
+    }
+
+    private static WritableMap toMap(double integrated, double peak, double gain) {
+        WritableMap map = Arguments.createMap();
+        if (Double.isInfinite(integrated)) map.putNull("integratedLufs");
+        else map.putDouble("integratedLufs", integrated);
+        map.putDouble("peak", peak);
+        map.putDouble("gainDb", gain);
+        return map;
+    }
+}
@@ -125,6 +125,8 @@ class MainActivity : ReactActivity() {
         try { out?.close() } catch (_: Exception) {}
       }
 
+      CacheStorage.register(this, outFile, CacheStorage.IMPORTED)
+
       // Replace the intent data with a file:// URI pointing to our cached copy
       val fileUri = Uri.fromFile(outFile)
       intent.data = fileUri
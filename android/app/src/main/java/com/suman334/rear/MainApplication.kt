@@ -40,6 +40,81 @@ class MainApplication : Application(), ReactApplication {
             } catch (e: Exception) {
               // ignore if package cannot be added
             }
+            try {
+              packages.add(com.suman334.rear.AudioAnalyzerPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.LibraryScannerPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.OfflineSearchPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.HttpCachePackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.PrefetchPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.PalettePackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.MediaRemuxPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.LoudnessPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.WaveformPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.VideoThumbnailPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.CacheStoragePackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.MemoryGovernorPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.NfcCodecPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.ApkUpdatePackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
+            try {
+              packages.add(com.suman334.rear.BackupPackage())
+            } catch (e: Exception) {
+              // ignore if package cannot be added
+            }
 
             return packages
           }
@@ -59,6 +134,7 @@ class MainApplication : Application(), ReactApplication {
   override fun onCreate() {
     super.onCreate()
     SoLoader.init(this, OpenSourceMergedSoMapping)
+    MemoryGovernor.install(this)
     if (BuildConfig.IS_NEW_ARCHITECTURE_ENABLED) {
       // If you opted-in for the New Architecture, we load the native entry point for this app.
       load()
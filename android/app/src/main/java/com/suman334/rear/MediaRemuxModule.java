@@ -0,0 +1,266 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies the audio track out of an imported video into its own container without
+ * decoding: compressed samples go straight from MediaExtractor to MediaMuxer.
+ * AAC/AMR end up in .m4a, Opus/Vorbis in .webm; anything else is rejected.
+ *
+ * Output lives in filesDir/extracted_audio, named after the source plus a hash of its URI,
+ * so a second extraction of the same video is free. CacheStorage bounds the directory by
+ * size and age; a reused file is touched so it counts as recently used.
+ */
+public class MediaRemuxModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "MediaRemuxModule";
+    public static final String EVENT_PROGRESS = "MediaRemuxProgress";
+    private static final String OUTPUT_DIR = "extracted_audio";
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    private final ReactApplicationContext reactContext;
+    // One job at a time keeps I/O sequential and lets the sample buffer be reused
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Map<String, AtomicBoolean> cancelFlags = new ConcurrentHashMap<>();
+    private volatile ByteBuffer sampleBuffer;
+
+    // The 1 MB direct buffer is only worth keeping while remuxes are likely
+    private final MemoryGovernor.Trimmable trimmable = fraction -> {
+        if (sampleBuffer == null) return 0;
+        // Cleared on the worker so a remux in progress keeps its buffer
+        executor.execute(() -> sampleBuffer = null);
+        return 1;
+    };
+
+    public MediaRemuxModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+        MemoryGovernor.register("remux_buffer", trimmable);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "MediaRemux";
+    }
+
+    /**
+     * Resolves with the file:// URI of the audio-only copy. sourceKey names the output when
+     * uriString is a temporary copy of the real source (null to use uriString itself).
+     * Progress arrives as MediaRemuxProgress events.
+     */
+    @ReactMethod
+    public void extractAudio(String uriString, String sourceKey, String jobId, Promise promise) {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        cancelFlags.put(jobId, cancelled);
+        executor.execute(() -> {
+            try {
+                String path = remux(uriString, sourceKey != null ? sourceKey : uriString, jobId, cancelled);
+                if (path == null) {
+                    promise.reject("E_REMUX_CANCELLED", "Remux cancelled");
+                } else {
+                    promise.resolve(path);
+                }
+            } catch (UnsupportedOperationException e) {
+                promise.reject("E_UNSUPPORTED_CODEC", e.getMessage());
+            } catch (Exception e) {
+                Log.w(TAG, "extractAudio failed", e);
+                promise.reject("E_REMUX_FAILED", e.getMessage());
+            } finally {
+                cancelFlags.remove(jobId);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void cancel(String jobId, Promise promise) {
+        AtomicBoolean flag = cancelFlags.get(jobId);
+        if (flag != null) flag.set(true);
+        promise.resolve(flag != null);
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        // Required by NativeEventEmitter
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+        // Required by NativeEventEmitter
+    }
+
+    @Override
+    public void invalidate() {
+        MemoryGovernor.unregister("remux_buffer", trimmable);
+        for (AtomicBoolean flag : cancelFlags.values()) flag.set(true);
+        executor.shutdown();
+        super.invalidate();
+    }
+
+    private String remux(String uriString, String sourceKey, String jobId, AtomicBoolean cancelled) throws Exception {
+        Context ctx = reactContext;
+        MediaExtractor extractor = new MediaExtractor();
+        MediaMuxer muxer = null;
+        File tmp = null;
+        boolean muxerStarted = false;
+        try {
+            if (uriString.startsWith("content:")) {
+                extractor.setDataSource(ctx, Uri.parse(uriString), null);
+            } else {
+                extractor.setDataSource(uriString.replaceFirst("^file://", "").replaceFirst("^file:", ""));
+            }
+
+            int audioTrack = -1;
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat f = extractor.getTrackFormat(i);
+                String mime = f.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    audioTrack = i;
+                    format = f;
+                    break;
+                }
+            }
+            if (audioTrack < 0) throw new IllegalStateException("No audio track found");
+
+            String mime = format.getString(MediaFormat.KEY_MIME);
+            int outputFormat;
+            String extension;
+            if (MediaFormat.MIMETYPE_AUDIO_AAC.equals(mime)
+                    || MediaFormat.MIMETYPE_AUDIO_AMR_NB.equals(mime)
+                    || MediaFormat.MIMETYPE_AUDIO_AMR_WB.equals(mime)) {
+                outputFormat = MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4;
+                extension = ".m4a";
+            } else if (MediaFormat.MIMETYPE_AUDIO_OPUS.equals(mime)
+                    || MediaFormat.MIMETYPE_AUDIO_VORBIS.equals(mime)) {
+                outputFormat = MediaMuxer.OutputFormat.MUXER_OUTPUT_WEBM;
+                extension = ".webm";
+            } else {
+                throw new UnsupportedOperationException("Cannot remux " + mime + " without re-encoding");
+            }
+
+            File out = outputFor(sourceKey, extension);
+            if (out.length() > 0) {
+                out.setLastModified(System.currentTimeMillis());
+                emitProgress(jobId, 1.0);
+                return "file://" + out.getAbsolutePath();
+            }
+
+            extractor.selectTrack(audioTrack);
+            long durationUs = format.containsKey(MediaFormat.KEY_DURATION) ? format.getLong(MediaFormat.KEY_DURATION) : 0;
+            int maxInput = format.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)
+                    ? format.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE) : DEFAULT_BUFFER_SIZE;
+            ByteBuffer buffer = buffer(maxInput);
+            tmp = new File(out.getParentFile(), out.getName() + ".tmp");
+
+            muxer = new MediaMuxer(tmp.getAbsolutePath(), outputFormat);
+            int muxTrack = muxer.addTrack(format);
+            muxer.start();
+            muxerStarted = true;
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            long lastProgressAt = 0;
+            while (true) {
+                if (cancelled.get()) return null;
+                buffer.clear();
+                int size = extractor.readSampleData(buffer, 0);
+                if (size < 0) break;
+                int flags = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0
+                        ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0;
+                info.set(0, size, extractor.getSampleTime(), flags);
+                muxer.writeSampleData(muxTrack, buffer, info);
+                extractor.advance();
+
+                long now = SystemClock.elapsedRealtime();
+                if (durationUs > 0 && now - lastProgressAt >= PROGRESS_INTERVAL_MS) {
+                    lastProgressAt = now;
+                    emitProgress(jobId, Math.min(1.0, (double) info.presentationTimeUs / durationUs));
+                }
+            }
+
+            muxer.stop();
+            muxerStarted = false;
+            muxer.release();
+            muxer = null;
+            if (out.exists()) out.delete();
+            if (!tmp.renameTo(out)) throw new IllegalStateException("Could not move remuxed file into place");
+            tmp = null;
+            emitProgress(jobId, 1.0);
+            Log.i(TAG, "Remuxed audio to " + out + " (" + out.length() + " bytes)");
+            return "file://" + out.getAbsolutePath();
+        } finally {
+            extractor.release();
+            if (muxer != null) {
+                try {
+                    if (muxerStarted) muxer.stop();
+                } catch (Exception ignored) {
+                }
+                muxer.release();
+            }
+            if (tmp != null && tmp.exists()) tmp.delete();
+        }
+    }
+
+    /** audio_<name>_<hash><ext>: the hash keeps same-named files from different folders apart. */
+    private File outputFor(String sourceKey, String extension) throws Exception {
+        File dir = new File(reactContext.getFilesDir(), OUTPUT_DIR);
+        if (!dir.exists()) dir.mkdirs();
+        String base = Uri.parse(sourceKey).getLastPathSegment();
+        if (base == null || base.isEmpty()) base = "media";
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) base = base.substring(0, dot);
+        base = base.replaceAll("[^A-Za-z0-9_-]", "_");
+        if (base.length() > 48) base = base.substring(0, 48);
+
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(sourceKey.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hash = new StringBuilder(16);
+        for (int i = 0; i < 8; i++) hash.append(String.format("%02x", digest[i]));
+        return new File(dir, "audio_" + base + "_" + hash + extension);
+    }
+
+    /** Grows the shared direct buffer only when a track needs more than the last one. */
+    private ByteBuffer buffer(int capacity) {
+        if (sampleBuffer == null || sampleBuffer.capacity() < capacity) {
+            sampleBuffer = ByteBuffer.allocateDirect(capacity);
+        }
+        return sampleBuffer;
+    }
+
+    private void emitProgress(String jobId, double progress) {
+        if (!reactContext.hasActiveReactInstance()) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("jobId", jobId);
+        event.putDouble("progress", progress);
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(EVENT_PROGRESS, event);
+    }
+}
@@ -0,0 +1,147 @@
+package com.suman334.rear;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central onTrimMemory listener for native caches.
+ *
+ * Caches register a Trimmable under a stable name (re-registering replaces the previous
+ * instance, so reloaded modules do not pile up) and are asked to shrink to a fraction of
+ * their normal size that depends on the TRIM_MEMORY_* level. Counters per cache record
+ * how often it was trimmed and how many entries it gave back.
+ */
+public final class MemoryGovernor implements ComponentCallbacks2 {
+    private static final String TAG = "MemoryGovernor";
+
+    public interface Trimmable {
+        /**
+         * Shrinks to at most `fraction` of the normal footprint (0 = drop everything that
+         * can be rebuilt). Returns the number of entries or objects released.
+         */
+        int trimTo(float fraction);
+    }
+
+    public static final class Stats {
+        public final AtomicLong trims = new AtomicLong();
+        public final AtomicLong evicted = new AtomicLong();
+    }
+
+    private static final MemoryGovernor instance = new MemoryGovernor();
+    private static final Map<String, Trimmable> trimmables = new ConcurrentHashMap<>();
+    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private static volatile boolean installed = false;
+    private static volatile int lastLevel = -1;
+    private static volatile long lastTrimAt = 0;
+    private static final AtomicLong events = new AtomicLong();
+
+    private MemoryGovernor() {
+    }
+
+    /** Call once from Application.onCreate. */
+    public static synchronized void install(Application app) {
+        if (installed) return;
+        app.registerComponentCallbacks(instance);
+        installed = true;
+    }
+
+    public static void register(String name, Trimmable trimmable) {
+        trimmables.put(name, trimmable);
+        stats.putIfAbsent(name, new Stats());
+    }
+
+    /** Only removes the registration if it is still the given instance. */
+    public static void unregister(String name, Trimmable trimmable) {
+        trimmables.remove(name, trimmable);
+    }
+
+    /**
+     * Share of the normal cache size to keep at a trim level. While the UI is merely hidden
+     * playback usually continues, so caches only shrink a little; once the process is on
+     * the LRU list they give back progressively more before the system kills it.
+     */
+    public static float targetFraction(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE) return 0f;
+        if (level >= TRIM_MEMORY_MODERATE) return 0.25f;
+        if (level >= TRIM_MEMORY_BACKGROUND) return 0.5f;
+        if (level >= TRIM_MEMORY_UI_HIDDEN) return 0.75f;
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) return 0.25f;
+        if (level >= TRIM_MEMORY_RUNNING_LOW) return 0.5f;
+        if (level >= TRIM_MEMORY_RUNNING_MODERATE) return 0.75f;
+        return 1f;
+    }
+
+    /** Applies a trim level to every registered cache; also used by the bridge for testing. */
+    public static void trim(int level) {
+        float fraction = targetFraction(level);
+        lastLevel = level;
+        lastTrimAt = System.currentTimeMillis();
+        events.incrementAndGet();
+        if (fraction >= 1f) return;
+
+        long released = 0;
+        for (Map.Entry<String, Trimmable> entry : trimmables.entrySet()) {
+            try {
+                int count = entry.getValue().trimTo(fraction);
+                Stats s = stats.get(entry.getKey());
+                if (s != null) {
+                    s.trims.incrementAndGet();
+                    s.evicted.addAndGet(count);
+                }
+                released += count;
+            } catch (Exception e) {
+                Log.w(TAG, "Trim failed for " + entry.getKey(), e);
+            }
+        }
+        if (fraction <= 0.5f) SQLiteDatabase.releaseMemory();
+        Log.i(TAG, "Trim level " + level + " -> " + fraction + ", released " + released);
+    }
+
+    /** Trimmable body for an LruCache; returns the number of entries evicted. */
+    public static int trimLru(LruCache<?, ?> cache, float fraction) {
+        int before = cache.evictionCount();
+        if (fraction <= 0f) cache.evictAll();
+        else cache.trimToSize(Math.max(1, (int) (cache.maxSize() * fraction)));
+        return cache.evictionCount() - before;
+    }
+
+    public static int lastLevel() {
+        return lastLevel;
+    }
+
+    public static long lastTrimAt() {
+        return lastTrimAt;
+    }
+
+    public static long events() {
+        return events.get();
+    }
+
+    public static Map<String, Stats> stats() {
+        return stats;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        trim(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.suman334.rear;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+
+/** Bridge for MemoryGovernor counters, plus a manual trim for testing eviction. */
+public class MemoryGovernorModule extends ReactContextBaseJavaModule {
+
+    public MemoryGovernorModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "MemoryGovernor";
+    }
+
+    /** Resolves { lastLevel, lastTrimAt, events, caches: [{ name, trims, evicted }] }. */
+    @ReactMethod
+    public void getStats(Promise promise) {
+        WritableArray caches = Arguments.createArray();
+        for (Map.Entry<String, MemoryGovernor.Stats> entry : MemoryGovernor.stats().entrySet()) {
+            WritableMap map = Arguments.createMap();
+            map.putString("name", entry.getKey());
+            map.putDouble("trims", entry.getValue().trims.get());
+            map.putDouble("evicted", entry.getValue().evicted.get());
+            caches.pushMap(map);
+        }
+        WritableMap result = Arguments.createMap();
+        result.putInt("lastLevel", MemoryGovernor.lastLevel());
+        result.putDouble("lastTrimAt", MemoryGovernor.lastTrimAt());
+        result.putDouble("events", MemoryGovernor.events());
+        result.putArray("caches", caches);
+        promise.resolve(result);
+    }
+
+    /** Simulates onTrimMemory(level); resolves the fraction caches were asked to keep. */
+    @ReactMethod
+    public void trim(int level, Promise promise) {
+        MemoryGovernor.trim(level);
+        promise.resolve((double) MemoryGovernor.targetFraction(level));
+    }
+}
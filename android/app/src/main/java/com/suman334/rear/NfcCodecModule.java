@@ -0,0 +1,126 @@
+package com.suman334.rear;
+
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * NFC share payloads: ephemeral secrets, HMAC signing/verification and the compact binary
+ * record format of NfcPayloadCodec. Binary payloads cross the bridge as unpadded base64url
+ * so the same string works as a deep-link parameter; sig/secretPublic stay standard base64
+ * as in the JS payload type. The work is a few hundred bytes, so it runs inline.
+ */
+public class NfcCodecModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "NfcCodecModule";
+    private static final int URL_FLAGS = Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP;
+
+    private NfcPayloadCodec codec;
+
+    public NfcCodecModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "NfcCodec";
+    }
+
+    @ReactMethod
+    public synchronized void generateSecret(Promise promise) {
+        try {
+            promise.resolve(Base64.encodeToString(codec().newSecret(), Base64.NO_WRAP));
+        } catch (Exception e) {
+            Log.w(TAG, "generateSecret failed", e);
+            promise.reject("E_NFC_CRYPTO_FAILED", e.getMessage());
+        }
+    }
+
+    /** Resolves { sig, secretPublic } as base64. */
+    @ReactMethod
+    public synchronized void sign(String session, String songId, double expiry, String secret, Promise promise) {
+        try {
+            NfcPayloadCodec c = codec();
+            WritableMap result = Arguments.createMap();
+            result.putString("sig", Base64.encodeToString(c.sign(secret, session, songId, (long) expiry), Base64.NO_WRAP));
+            result.putString("secretPublic", Base64.encodeToString(c.sha256(secret.getBytes(StandardCharsets.UTF_8)), Base64.NO_WRAP));
+            promise.resolve(result);
+        } catch (Exception e) {
+            Log.w(TAG, "sign failed", e);
+            promise.reject("E_NFC_CRYPTO_FAILED", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public synchronized void verify(ReadableMap payload, String secret, Promise promise) {
+        try {
+            promise.resolve(codec().verify(secret, fromMap(payload)));
+        } catch (IllegalArgumentException e) {
+            promise.resolve(false);
+        } catch (Exception e) {
+            Log.w(TAG, "verify failed", e);
+            promise.reject("E_NFC_CRYPTO_FAILED", e.getMessage());
+        }
+    }
+
+    /** Resolves the sealed binary payload as base64url. */
+    @ReactMethod
+    public synchronized void encode(ReadableMap payload, Promise promise) {
+        try {
+            promise.resolve(Base64.encodeToString(codec().encode(fromMap(payload)), URL_FLAGS));
+        } catch (Exception e) {
+            Log.w(TAG, "encode failed", e);
+            promise.reject("E_NFC_ENCODE_FAILED", e.getMessage());
+        }
+    }
+
+    /** Resolves { session, songId, expiry, sig?, secretPublic? }; rejects altered or foreign payloads. */
+    @ReactMethod
+    public synchronized void decode(String encoded, Promise promise) {
+        try {
+            NfcPayloadCodec.Payload payload = codec().decode(Base64.decode(encoded, URL_FLAGS));
+            WritableMap map = Arguments.createMap();
+            map.putString("session", payload.session);
+            map.putString("songId", payload.songId);
+            map.putDouble("expiry", payload.expiry);
+            if (payload.sig != null) {
+                map.putString("sig", Base64.encodeToString(payload.sig, Base64.NO_WRAP));
+                map.putString("secretPublic", Base64.encodeToString(payload.secretPublic, Base64.NO_WRAP));
+            }
+            promise.resolve(map);
+        } catch (Exception e) {
+            // Expected for tags written by something else; not worth a stack trace
+            Log.w(TAG, "decode failed: " + e);
+            promise.reject("E_NFC_PAYLOAD_INVALID", e.getMessage());
+        }
+    }
+
+    private NfcPayloadCodec codec() throws Exception {
+        if (codec == null) codec = new NfcPayloadCodec();
+        return codec;
+    }
+
+    private static NfcPayloadCodec.Payload fromMap(ReadableMap map) {
+        NfcPayloadCodec.Payload payload = new NfcPayloadCodec.Payload();
+        payload.session = map.getString("session");
+        payload.songId = map.getString("songId");
+        payload.expiry = (long) map.getDouble("expiry");
+        if (map.hasKey("sig") && !map.isNull("sig") && map.hasKey("secretPublic") && !map.isNull("secretPublic")) {
+            payload.sig = Base64.decode(map.getString("sig"), Base64.DEFAULT);
+            payload.secretPublic = Base64.decode(map.getString("secretPublic"), Base64.DEFAULT);
+        }
+        if (payload.session == null || payload.songId == null) throw new IllegalArgumentException("Missing session or songId");
+        return payload;
+    }
+}
@@ -0,0 +1,160 @@
+package com.suman334.rear;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.UUID;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Binary NFC share payload and the crypto around it.
+ *
+ * Layout (big endian): version, flags, session UUID (16), expiry ms (8), then when
+ * FLAG_SIGNED the HMAC signature (32) and SHA-256 of the ephemeral secret (32), then the
+ * GCM nonce (12) and the AES-GCM sealed song id with its 16 byte tag. Everything before
+ * the nonce is authenticated as associated data, so no field can be altered without the
+ * decode failing.
+ *
+ * The sealing key is derived per session with HKDF-SHA256 from an app-wide seed. Any copy
+ * of the app can derive it: it keeps payloads opaque to generic tag readers and makes them
+ * tamper-evident, it does not make them secret. The HMAC over "session|songId|expiry" with
+ * the ephemeral secret is the same signature the JS flow produced, so both formats verify
+ * the same way.
+ *
+ * One instance reuses its cipher, MAC, digest and buffers; callers serialize access.
+ */
+public class NfcPayloadCodec {
+    public static final byte VERSION = 2;
+    public static final int FLAG_SIGNED = 1;
+
+    private static final int HASH_BYTES = 32;
+    private static final int KEY_BYTES = 16;
+    private static final int NONCE_BYTES = 12;
+    private static final int TAG_BYTES = 16;
+    private static final int HEADER_BYTES = 1 + 1 + 16 + 8;
+    /** Song ids are short server ids or paths; anything longer would not fit a small tag anyway. */
+    public static final int MAX_SONG_ID_BYTES = 256;
+    private static final int MAX_BYTES = HEADER_BYTES + 2 * HASH_BYTES + NONCE_BYTES + MAX_SONG_ID_BYTES + TAG_BYTES;
+
+    private static final byte[] KEY_SEED = "com.suman334.rear/nfc-share/v2".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEY_INFO = "beatit-nfc-payload".getBytes(StandardCharsets.UTF_8);
+
+    public static final class Payload {
+        public String session;
+        public String songId;
+        public long expiry;
+        /** Both null for unsigned payloads. */
+        public byte[] sig;
+        public byte[] secretPublic;
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final MessageDigest sha256;
+    private final Mac hmac;
+    private final Cipher cipher;
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_BYTES);
+    private final byte[] nonce = new byte[NONCE_BYTES];
+    private final byte[] prk = new byte[HASH_BYTES];
+    private final byte[] sessionBytes = new byte[16];
+
+    public NfcPayloadCodec() throws GeneralSecurityException {
+        sha256 = MessageDigest.getInstance("SHA-256");
+        hmac = Mac.getInstance("HmacSHA256");
+        cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    }
+
+    public byte[] newSecret() {
+        byte[] secret = new byte[HASH_BYTES];
+        random.nextBytes(secret);
+        return secret;
+    }
+
+    public byte[] sha256(byte[] data) {
+        return sha256.digest(data);
+    }
+
+    /** HMAC-SHA256 of "session|songId|expiry", keyed with the secret's UTF-8 text as the JS flow did. */
+    public byte[] sign(String secret, String session, String songId, long expiry) throws GeneralSecurityException {
+        hmac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return hmac.doFinal((session + "|" + songId + "|" + expiry).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean verify(String secret, Payload payload) throws GeneralSecurityException {
+        if (payload.sig == null || payload.secretPublic == null) return false;
+        byte[] expectedSig = sign(secret, payload.session, payload.songId, payload.expiry);
+        byte[] expectedPublic = sha256(secret.getBytes(StandardCharsets.UTF_8));
+        // MessageDigest.isEqual is constant time
+        return MessageDigest.isEqual(expectedSig, payload.sig) && MessageDigest.isEqual(expectedPublic, payload.secretPublic);
+    }
+
+    public byte[] encode(Payload payload) throws GeneralSecurityException {
+        byte[] songId = payload.songId.getBytes(StandardCharsets.UTF_8);
+        if (songId.length > MAX_SONG_ID_BYTES) throw new IllegalArgumentException("Song id too long for NFC payload");
+        boolean signed = payload.sig != null && payload.secretPublic != null;
+        if (signed && (payload.sig.length != HASH_BYTES || payload.secretPublic.length != HASH_BYTES)) {
+            throw new IllegalArgumentException("Signature fields must be 32 bytes");
+        }
+        UUID session = UUID.fromString(payload.session);
+
+        buffer.clear();
+        buffer.put(VERSION).put((byte) (signed ? FLAG_SIGNED : 0));
+        buffer.putLong(session.getMostSignificantBits()).putLong(session.getLeastSignificantBits());
+        buffer.putLong(payload.expiry);
+        if (signed) buffer.put(payload.sig).put(payload.secretPublic);
+        int aadLength = buffer.position();
+        random.nextBytes(nonce);
+        buffer.put(nonce);
+
+        cipher.init(Cipher.ENCRYPT_MODE, deriveKey(buffer.array(), 2), new GCMParameterSpec(TAG_BYTES * 8, nonce));
+        cipher.updateAAD(buffer.array(), 0, aadLength);
+        int sealed = cipher.doFinal(songId, 0, songId.length, buffer.array(), buffer.position());
+        return Arrays.copyOf(buffer.array(), buffer.position() + sealed);
+    }
+
+    /** Throws GeneralSecurityException (AEADBadTagException) when the payload was altered. */
+    public Payload decode(byte[] data) throws GeneralSecurityException {
+        if (data.length < HEADER_BYTES + NONCE_BYTES + TAG_BYTES || data.length > MAX_BYTES) {
+            throw new IllegalArgumentException("Bad NFC payload length");
+        }
+        if (data[0] != VERSION) throw new IllegalArgumentException("Unsupported NFC payload version " + data[0]);
+        boolean signed = (data[1] & FLAG_SIGNED) != 0;
+        int aadLength = HEADER_BYTES + (signed ? 2 * HASH_BYTES : 0);
+        if (data.length < aadLength + NONCE_BYTES + TAG_BYTES) throw new IllegalArgumentException("Truncated NFC payload");
+
+        ByteBuffer in = ByteBuffer.wrap(data);
+        Payload payload = new Payload();
+        payload.session = new UUID(in.getLong(2), in.getLong(10)).toString();
+        payload.expiry = in.getLong(18);
+        if (signed) {
+            payload.sig = Arrays.copyOfRange(data, HEADER_BYTES, HEADER_BYTES + HASH_BYTES);
+            payload.secretPublic = Arrays.copyOfRange(data, HEADER_BYTES + HASH_BYTES, aadLength);
+        }
+
+        int sealedStart = aadLength + NONCE_BYTES;
+        cipher.init(Cipher.DECRYPT_MODE, deriveKey(data, 2), new GCMParameterSpec(TAG_BYTES * 8, data, aadLength, NONCE_BYTES));
+        cipher.updateAAD(data, 0, aadLength);
+        int plain = cipher.doFinal(data, sealedStart, data.length - sealedStart, buffer.array(), 0);
+        payload.songId = new String(buffer.array(), 0, plain, StandardCharsets.UTF_8);
+        return payload;
+    }
+
+    /** HKDF-SHA256 (RFC 5869) with the session UUID bytes at `offset` as salt; one output block. */
+    private SecretKeySpec deriveKey(byte[] source, int offset) throws GeneralSecurityException {
+        System.arraycopy(source, offset, sessionBytes, 0, sessionBytes.length);
+        hmac.init(new SecretKeySpec(sessionBytes, "HmacSHA256"));
+        hmac.update(KEY_SEED);
+        hmac.doFinal(prk, 0);
+        hmac.init(new SecretKeySpec(prk, "HmacSHA256"));
+        hmac.update(KEY_INFO);
+        hmac.update((byte) 1);
+        byte[] okm = hmac.doFinal();
+        return new SecretKeySpec(okm, 0, KEY_BYTES, "AES");
+    }
+}
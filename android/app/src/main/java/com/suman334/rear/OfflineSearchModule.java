@@ -0,0 +1,281 @@
+package com.suman334.rear;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bridge for SearchIndex: JS pushes downloaded songs and cached lyrics, the library
+ * scanner fills local media, and search() returns ranked top-K results in one call.
+ */
+public class OfflineSearchModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "OfflineSearchModule";
+
+    private static final int DEFAULT_LIMIT = 25;
+    // Column weights for title, artist, album, lyrics (FTS column order)
+    private static final double[] COLUMN_WEIGHTS = {4.0, 2.5, 1.5, 0.5};
+    private static final double TITLE_PREFIX_BOOST = 2.0;
+    private static final double DOWNLOADED_BOOST = 1.25;
+
+    private final ReactApplicationContext reactContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public OfflineSearchModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "OfflineSearch";
+    }
+
+    @ReactMethod
+    public void indexSongs(ReadableArray songs, Promise promise) {
+        executor.execute(() -> {
+            SQLiteDatabase db = db();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < songs.size(); i++) {
+                    putSong(db, songs.getMap(i));
+                }
+                db.setTransactionSuccessful();
+                promise.resolve(songs.size());
+            } catch (Exception e) {
+                Log.w(TAG, "indexSongs failed", e);
+                promise.reject("E_INDEX_FAILED", e.getMessage());
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    /** Replaces the downloaded set wholesale, e.g. after restoring the downloads index. */
+    @ReactMethod
+    public void replaceDownloads(ReadableArray songs, Promise promise) {
+        executor.execute(() -> {
+            SQLiteDatabase db = db();
+            db.beginTransaction();
+            try {
+                List<String> keys = new ArrayList<>();
+                try (Cursor c = db.query(SearchIndex.TABLE_DOCS, new String[]{"doc_key"}, "downloaded = 1",
+                        null, null, null, null)) {
+                    while (c.moveToNext()) keys.add(c.getString(0));
+                }
+                for (String key : keys) {
+                    SearchIndex.clearDownload(db, key);
+                }
+                for (int i = 0; i < songs.size(); i++) {
+                    putSong(db, songs.getMap(i));
+                }
+                db.setTransactionSuccessful();
+                promise.resolve(songs.size());
+            } catch (Exception e) {
+                Log.w(TAG, "replaceDownloads failed", e);
+                promise.reject("E_INDEX_FAILED", e.getMessage());
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeSong(String songId, Promise promise) {
+        executor.execute(() -> {
+            try {
+                SearchIndex.clearDownload(db(), SearchIndex.songKey(songId));
+                promise.resolve(true);
+            } catch (Exception e) {
+                Log.w(TAG, "removeSong failed", e);
+                promise.reject("E_INDEX_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void indexLyrics(String songId, String title, String artist, String lyrics, Promise promise) {
+        executor.execute(() -> {
+            try {
+                SearchIndex.put(db(), SearchIndex.songKey(songId), SearchIndex.SOURCE_SONG,
+                        title, artist, null, stripTimestamps(lyrics), null, null);
+                promise.resolve(true);
+            } catch (Exception e) {
+                Log.w(TAG, "indexLyrics failed", e);
+                promise.reject("E_INDEX_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void clearLyrics(String songId, Promise promise) {
+        executor.execute(() -> {
+            SQLiteDatabase db = db();
+            db.beginTransaction();
+            try {
+                if (songId != null) {
+                    SearchIndex.clearLyrics(db, SearchIndex.songKey(songId));
+                } else {
+                    List<String> keys = new ArrayList<>();
+                    try (Cursor c = db.query(SearchIndex.TABLE_DOCS, new String[]{"doc_key"}, "lyrics IS NOT NULL",
+                            null, null, null, null)) {
+                        while (c.moveToNext()) keys.add(c.getString(0));
+                    }
+                    for (String key : keys) {
+                        SearchIndex.clearLyrics(db, key);
+                    }
+                }
+                db.setTransactionSuccessful();
+                promise.resolve(true);
+            } catch (Exception e) {
+                Log.w(TAG, "clearLyrics failed", e);
+                promise.reject("E_INDEX_FAILED", e.getMessage());
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    @ReactMethod
+    public void search(String query, ReadableMap options, Promise promise) {
+        executor.execute(() -> {
+            try {
+                int limit = DEFAULT_LIMIT;
+                String source = null;
+                if (options != null) {
+                    if (options.hasKey("limit")) limit = Math.max(1, options.getInt("limit"));
+                    if (options.hasKey("source")) source = options.getString("source");
+                }
+                promise.resolve(runSearch(query, source, limit));
+            } catch (Exception e) {
+                Log.w(TAG, "search failed", e);
+                promise.reject("E_SEARCH_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void invalidate() {
+        executor.shutdownNow();
+        super.invalidate();
+    }
+
+    private SQLiteDatabase db() {
+        return LibraryDatabase.get(reactContext).getWritableDatabase();
+    }
+
+    private static void putSong(SQLiteDatabase db, ReadableMap song) {
+        String id = song.getString("id");
+        SearchIndex.put(db, SearchIndex.songKey(id), SearchIndex.SOURCE_SONG,
+                optString(song, "title"), optString(song, "artist"), optString(song, "album"),
+                null, optString(song, "payload"), true);
+    }
+
+    private static String optString(ReadableMap map, String key) {
+        return map.hasKey(key) && !map.isNull(key) ? map.getString(key) : null;
+    }
+
+    /** LRC lines carry [mm:ss.xx] tags; they would only add noise tokens to the index. */
+    private static String stripTimestamps(String lyrics) {
+        return lyrics == null ? null : lyrics.replaceAll("\\[[0-9:.]+\\]", " ");
+    }
+
+    private static class Hit {
+        final double score;
+        final WritableMap row;
+
+        Hit(double score, WritableMap row) {
+            this.score = score;
+            this.row = row;
+        }
+    }
+
+    private WritableArray runSearch(String query, String source, int limit) {
+        WritableArray results = Arguments.createArray();
+        String normalized = LibraryDatabase.normalize(query == null ? "" : query);
+        String match = SearchIndex.matchQuery(normalized);
+        if (match.isEmpty()) return results;
+
+        String sql = "SELECT d.doc_key, d.source, d.title, d.artist, d.album, d.payload, d.downloaded,"
+                + " d.lyrics IS NOT NULL, matchinfo(" + SearchIndex.TABLE_FTS + ", 'pcnx')"
+                + " FROM " + SearchIndex.TABLE_FTS
+                + " JOIN " + SearchIndex.TABLE_DOCS + " d ON d.id = " + SearchIndex.TABLE_FTS + ".docid"
+                + " WHERE " + SearchIndex.TABLE_FTS + " MATCH ?"
+                + (source != null ? " AND d.source = ?" : "");
+        String[] args = source != null ? new String[]{match, source} : new String[]{match};
+
+        // Every match is scored (no SQL LIMIT, which would cut before ranking); the min-heap
+        // keeps only the best `limit`, and rows are only built for hits that enter it
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(a.score, b.score));
+        try (Cursor c = db().rawQuery(sql, args)) {
+            while (c.moveToNext()) {
+                double score = score(c.getBlob(8));
+                String title = c.getString(2);
+                String titleKey = LibraryDatabase.normalize(title);
+                if (titleKey != null && titleKey.startsWith(normalized)) score *= TITLE_PREFIX_BOOST;
+                boolean downloaded = c.getInt(6) == 1;
+                if (downloaded) score *= DOWNLOADED_BOOST;
+                if (top.size() == limit && score <= top.peek().score) continue;
+
+                WritableMap row = Arguments.createMap();
+                row.putString("key", c.getString(0));
+                row.putString("source", c.getString(1));
+                row.putString("title", title);
+                row.putString("artist", c.getString(3));
+                row.putString("album", c.getString(4));
+                row.putString("payload", c.getString(5));
+                row.putBoolean("downloaded", downloaded);
+                row.putBoolean("hasLyrics", c.getInt(7) == 1);
+                row.putDouble("score", score);
+                top.add(new Hit(score, row));
+                if (top.size() > limit) top.poll();
+            }
+        }
+
+        Hit[] ordered = top.toArray(new Hit[0]);
+        Arrays.sort(ordered, (a, b) -> Double.compare(b.score, a.score));
+        for (Hit hit : ordered) results.pushMap(hit.row);
+        return results;
+    }
+
+    /** TF-IDF style score from FTS4 matchinfo('pcnx'). */
+    private static double score(byte[] blob) {
+        ByteBuffer info = ByteBuffer.wrap(blob).order(ByteOrder.nativeOrder());
+        int phrases = info.getInt(0);
+        int columns = info.getInt(4);
+        int docs = info.getInt(8);
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int col = 0; col < columns && col < COLUMN_WEIGHTS.length; col++) {
+                int base = 12 + 12 * (p * columns + col);
+                int hitsHere = info.getInt(base);
+                if (hitsHere == 0) continue;
+                int docsWithHits = Math.max(1, info.getInt(base + 8));
+                double idf = Math.log(1.0 + (double) docs / docsWithHits);
+                score += COLUMN_WEIGHTS[col] * (1.0 + Math.log(hitsHere)) * idf;
+            }
+        }
+        return score;
+    }
+}
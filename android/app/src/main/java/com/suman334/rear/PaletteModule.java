@@ -0,0 +1,81 @@
+package com.suman334.rear;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+public class PaletteModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "PaletteModule";
+    private final ReactApplicationContext reactContext;
+
+    public PaletteModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "ArtworkPalette";
+    }
+
+    /** Resolves { dominant, vibrant, darkVibrant, ..., hash } as "#RRGGBB" strings (null when absent). */
+    @ReactMethod
+    public void getColors(String source, Promise promise) {
+        JSONObject cached = ArtworkPalette.getCached(reactContext, source);
+        if (cached != null) {
+            promise.resolve(toMap(cached));
+            return;
+        }
+        ArtworkPalette.executor().execute(() -> {
+            try {
+                JSONObject colors = ArtworkPalette.getOrCompute(reactContext, source);
+                promise.resolve(colors != null ? toMap(colors) : null);
+            } catch (Exception e) {
+                Log.w(TAG, "getColors failed for " + source, e);
+                promise.reject("E_PALETTE_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    /** Warms the cache for upcoming queue artwork; nothing is returned. */
+    @ReactMethod
+    public void prefetch(ReadableArray sources) {
+        for (int i = 0; i < sources.size(); i++) {
+            String source = sources.getString(i);
+            if (source != null && !source.isEmpty()) {
+                ArtworkPalette.computeAsync(reactContext, source, null);
+            }
+        }
+    }
+
+    @ReactMethod
+    public void clear(Promise promise) {
+        ArtworkPalette.clear(reactContext);
+        promise.resolve(true);
+    }
+
+    private static WritableMap toMap(JSONObject colors) {
+        WritableMap map = Arguments.createMap();
+        Iterator<String> keys = colors.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = colors.opt(key);
+            if (value == null || value == JSONObject.NULL) map.putNull(key);
+            else map.putString(key, value.toString());
+        }
+        return map;
+    }
+}
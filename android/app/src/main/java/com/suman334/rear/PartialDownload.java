@@ -0,0 +1,174 @@
+package com.suman334.rear;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Resumable download of one URL into a partial file that is promoted to its final name
+ * only once complete.
+ *
+ * The partial's source (URL and ETag) is kept in a small side file. A partial left by a
+ * different URL is dropped instead of resumed, since signed stream URLs change between
+ * resolutions and bytes of two files must never be spliced together. A resume sends
+ * If-Range with the stored ETag, and a 206 is only appended when its Content-Range starts
+ * exactly where the partial ends; otherwise the file is fetched again from byte 0.
+ */
+final class PartialDownload {
+    enum Outcome {
+        /** dest holds the whole file. */
+        COMPLETE,
+        /** Stopped by the caller; the partial is kept for a later resume. */
+        PAUSED,
+        /** The body ended before the announced length; the partial is kept for a resume. */
+        TRUNCATED,
+        /** Larger than maxBytes; nothing is kept. */
+        TOO_LARGE
+    }
+
+    interface Control {
+        /** Checked between chunks; false pauses the download. */
+        boolean keepGoing();
+    }
+
+    private PartialDownload() {
+    }
+
+    /** Throws on HTTP errors and I/O failures; the partial is kept where it is still valid. */
+    static Outcome run(OkHttpClient client, String url, File partial, File source, File dest,
+                       long maxBytes, byte[] buffer, Control control) throws IOException {
+        long have = 0;
+        String etag = null;
+        if (partial.exists()) {
+            String[] stored = readSource(source);
+            if (stored != null && url.equals(stored[0])) {
+                have = partial.length();
+                etag = stored[1];
+            } else {
+                discard(partial, source);
+            }
+        }
+
+        while (true) {
+            Request.Builder request = new Request.Builder().url(url);
+            if (have > 0) {
+                request.header("Range", "bytes=" + have + "-");
+                if (etag != null) request.header("If-Range", etag);
+            }
+            try (Response response = client.newCall(request.build()).execute()) {
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("HTTP " + response.code());
+                }
+                String contentRange = response.header("Content-Range");
+                String responseEtag = response.header("ETag");
+                boolean append = have > 0 && response.code() == 206;
+                if (append && (rangeStart(contentRange) != have
+                        || (etag != null && responseEtag != null && !etag.equals(responseEtag)))) {
+                    // Not the continuation of this partial: start over without a Range
+                    discard(partial, source);
+                    have = 0;
+                    etag = null;
+                    continue;
+                }
+                if (!append) have = 0;
+
+                long total = response.code() == 206 ? rangeTotal(contentRange) : -1;
+                if (total < 0 && body.contentLength() >= 0) total = have + body.contentLength();
+                if (total > maxBytes) {
+                    discard(partial, source);
+                    return Outcome.TOO_LARGE;
+                }
+                writeSource(source, url, responseEtag);
+
+                try (InputStream in = body.byteStream();
+                     FileOutputStream out = new FileOutputStream(partial, append)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        if (!control.keepGoing()) return Outcome.PAUSED;
+                        out.write(buffer, 0, read);
+                        have += read;
+                        if (have > maxBytes) {
+                            out.close();
+                            discard(partial, source);
+                            return Outcome.TOO_LARGE;
+                        }
+                    }
+                }
+                if (total >= 0 && have != total) return Outcome.TRUNCATED;
+
+                if (dest.exists()) dest.delete();
+                if (!partial.renameTo(dest)) throw new IOException("Could not move " + partial + " into place");
+                source.delete();
+                return Outcome.COMPLETE;
+            }
+        }
+    }
+
+    /** First byte position of a "bytes first-last/total" Content-Range, or -1. */
+    static long rangeStart(String contentRange) {
+        String spec = rangeSpec(contentRange);
+        if (spec == null) return -1;
+        int dash = spec.indexOf('-');
+        return dash < 0 ? -1 : parse(spec.substring(0, dash));
+    }
+
+    /** Complete length of a "bytes first-last/total" Content-Range, or -1 when absent or "*". */
+    static long rangeTotal(String contentRange) {
+        String spec = rangeSpec(contentRange);
+        if (spec == null) return -1;
+        int slash = spec.indexOf('/');
+        return slash < 0 ? -1 : parse(spec.substring(slash + 1));
+    }
+
+    private static String rangeSpec(String contentRange) {
+        if (contentRange == null) return null;
+        String value = contentRange.trim();
+        return value.regionMatches(true, 0, "bytes ", 0, 6) ? value.substring(6).trim() : null;
+    }
+
+    private static long parse(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void discard(File partial, File source) {
+        partial.delete();
+        source.delete();
+    }
+
+    /** [url, etag or null], or null when missing or unreadable. */
+    private static String[] readSource(File source) {
+        if (!source.isFile()) return null;
+        try (InputStream in = new FileInputStream(source)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) bytes.write(chunk, 0, read);
+            String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+            if (lines.length < 2 || lines[0].isEmpty()) return null;
+            return new String[]{lines[0], lines[1].isEmpty() ? null : lines[1]};
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeSource(File source, String url, String etag) throws IOException {
+        String value = url + "\n" + (etag != null ? etag : "");
+        try (FileOutputStream out = new FileOutputStream(source)) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
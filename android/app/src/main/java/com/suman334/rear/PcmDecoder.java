@@ -0,0 +1,132 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.media.AudioFormat;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import android.os.Build;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streams the first audio track of a local file:// or content:// source through
+ * MediaCodec and hands decoded interleaved PCM to a Sink. The scratch arrays only grow,
+ * so an instance owned by one worker thread decodes any number of tracks without
+ * per-buffer allocation. Not thread-safe.
+ */
+public class PcmDecoder {
+    private static final long DEQUEUE_TIMEOUT_US = 10_000;
+
+    public interface Sink {
+        /** Called before any PCM, and again if the decoder reports a different layout. */
+        void onFormat(int sampleRate, int channels, long durationUs);
+
+        void onPcm(short[] samples, int count);
+
+        void onPcm(float[] samples, int count);
+    }
+
+    private short[] pcm16 = new short[0];
+    private float[] pcmFloat = new float[0];
+
+    public void decode(Context ctx, String uriString, Sink sink) throws Exception {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            if (uriString.startsWith("content:")) {
+                extractor.setDataSource(ctx, Uri.parse(uriString), null);
+            } else {
+                extractor.setDataSource(uriString.replaceFirst("^file://", "").replaceFirst("^file:", ""));
+            }
+
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat f = extractor.getTrackFormat(i);
+                String mime = f.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = f;
+                    break;
+                }
+            }
+            if (format == null) throw new IllegalStateException("No audio track found");
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            long durationUs = format.containsKey(MediaFormat.KEY_DURATION) ? format.getLong(MediaFormat.KEY_DURATION) : -1;
+            int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            boolean floatPcm = false;
+            sink.onFormat(sampleRate, channels, durationUs);
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                if (!inputDone) {
+                    int in = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+                    if (in >= 0) {
+                        ByteBuffer input = codec.getInputBuffer(in);
+                        int size = input != null ? extractor.readSampleData(input, 0) : -1;
+                        if (size < 0) {
+                            codec.queueInputBuffer(in, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(in, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int out = codec.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+                if (out == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outFormat = codec.getOutputFormat();
+                    floatPcm = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                            && outFormat.containsKey(MediaFormat.KEY_PCM_ENCODING)
+                            && outFormat.getInteger(MediaFormat.KEY_PCM_ENCODING) == AudioFormat.ENCODING_PCM_FLOAT;
+                    int rate = outFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    int count = outFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    if (rate != sampleRate || count != channels) {
+                        sampleRate = rate;
+                        channels = count;
+                        sink.onFormat(sampleRate, channels, durationUs);
+                    }
+                } else if (out >= 0) {
+                    ByteBuffer output = codec.getOutputBuffer(out);
+                    if (output != null && info.size > 0) {
+                        output.position(info.offset);
+                        output.limit(info.offset + info.size);
+                        output.order(ByteOrder.nativeOrder());
+                        if (floatPcm) {
+                            int n = info.size / 4;
+                            if (pcmFloat.length < n) pcmFloat = new float[n];
+                            output.asFloatBuffer().get(pcmFloat, 0, n);
+                            sink.onPcm(pcmFloat, n);
+                        } else {
+                            int n = info.size / 2;
+                            if (pcm16.length < n) pcm16 = new short[n];
+                            output.asShortBuffer().get(pcm16, 0, n);
+                            sink.onPcm(pcm16, n);
+                        }
+                    }
+                    codec.releaseOutputBuffer(out, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) break;
+                }
+            }
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (Exception ignored) {
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+}
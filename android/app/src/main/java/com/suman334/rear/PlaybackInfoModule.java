@@ -44,6 +44,17 @@ public class PlaybackInfoModule extends ReactContextBaseJavaModule {
         
         editor.apply();
         
+        sendWidgetUpdate(context);
+
+        // Extract artwork colors in the background; refresh the widget once they exist
+        if (info.hasKey("albumArtPath")) {
+            ArtworkPalette.computeAsync(context, info.getString("albumArtPath"), colors -> sendWidgetUpdate(context));
+        }
+
+        callback.invoke(true);
+    }
+
+    private void sendWidgetUpdate(Context context) {
         // Send the broadcast to update the widget
         Intent intent = new Intent(context, MusicPlayerWidgetProvider.class);
         intent.setAction(ACTION_UPDATE_WIDGET);
@@ -57,7 +68,5 @@ public class PlaybackInfoModule extends ReactContextBaseJavaModule {
         // --- END OF FIX ---
 
         context.sendBroadcast(intent);
-
-        callback.invoke(true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.os.BatteryManager;
+import android.os.PowerManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Downloads upcoming queue items ahead of time into a byte-budgeted cache dir so the
+ * player can be pointed at a local file before the user skips.
+ *
+ * Every call to prefetch() replaces the wanted set; work for items that dropped out of
+ * the queue is abandoned at the next chunk boundary. Partial files are resumed through
+ * PartialDownload, which only appends to a partial from the same URL and promotes it once
+ * complete. Files the player queue points at are pinned from JS and never evicted.
+ */
+public class PrefetchModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "PrefetchModule";
+    public static final String EVENT_COMPLETE = "PrefetchComplete";
+    public static final String CACHE_DIR = "prefetch";
+
+    private static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_MAX_TRACK_BYTES = 20L * 1024 * 1024;
+    private static final int DEFAULT_MIN_BATTERY = 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReactApplicationContext reactContext;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    // Bumped on every prefetch() call; running jobs stop once stale and no longer wanted
+    private final AtomicInteger generation = new AtomicInteger();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // File-safe ids of the current queue window
+    private volatile Set<String> wanted = new HashSet<>();
+    // File-safe ids the player queue points at; never evicted, see setPinned()
+    private volatile Set<String> pinned = new HashSet<>();
+    private long budgetBytes = DEFAULT_BUDGET_BYTES;
+
+    public PrefetchModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "Prefetch";
+    }
+
+    /**
+     * items: [{ id, url }] in play order. Resolves with { scheduled, skipped } where skipped
+     * names the constraint that blocked prefetching ("metered", "battery", "powerSave").
+     */
+    @ReactMethod
+    public void prefetch(ReadableArray items, ReadableMap options, Promise promise) {
+        try {
+            boolean requireUnmetered = true;
+            int minBattery = DEFAULT_MIN_BATTERY;
+            long maxTrackBytes = DEFAULT_MAX_TRACK_BYTES;
+            if (options != null) {
+                if (options.hasKey("requireUnmetered")) requireUnmetered = options.getBoolean("requireUnmetered");
+                if (options.hasKey("minBatteryPct")) minBattery = options.getInt("minBatteryPct");
+                if (options.hasKey("maxTrackBytes")) maxTrackBytes = (long) options.getDouble("maxTrackBytes");
+                if (options.hasKey("budgetBytes")) budgetBytes = (long) options.getDouble("budgetBytes");
+            }
+
+            final int gen = generation.incrementAndGet();
+            List<String[]> jobs = new ArrayList<>();
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < items.size(); i++) {
+                ReadableMap item = items.getMap(i);
+                if (item == null || !item.hasKey("id") || !item.hasKey("url")) continue;
+                String id = item.getString("id");
+                String url = item.getString("url");
+                if (id == null || url == null || !url.startsWith("http")) continue;
+                ids.add(safeName(id));
+                jobs.add(new String[]{id, url});
+            }
+            wanted = ids;
+
+            WritableMap result = Arguments.createMap();
+            String blocked = blockedReason(requireUnmetered, minBattery);
+            if (blocked != null) {
+                result.putInt("scheduled", 0);
+                result.putString("skipped", blocked);
+                promise.resolve(result);
+                return;
+            }
+
+            final long perTrack = maxTrackBytes;
+            for (String[] job : jobs) {
+                worker.execute(() -> download(gen, job[0], job[1], perTrack));
+            }
+            worker.execute(this::enforceBudget);
+            result.putInt("scheduled", jobs.size());
+            result.putNull("skipped");
+            promise.resolve(result);
+        } catch (Exception e) {
+            Log.w(TAG, "prefetch failed", e);
+            promise.reject("E_PREFETCH_FAILED", e.getMessage());
+        }
+    }
+
+    /**
+     * ids whose prefetched file the player queue currently references (the previous, current
+     * and upcoming entries). Replaces the previous set; unpinned files become evictable.
+     */
+    @ReactMethod
+    public void setPinned(ReadableArray ids, Promise promise) {
+        Set<String> next = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.getString(i);
+            if (id != null) next.add(safeName(id));
+        }
+        pinned = next;
+        worker.execute(this::enforceBudget);
+        promise.resolve(true);
+    }
+
+    @ReactMethod
+    public void getCached(String id, Promise promise) {
+        File complete = fileFor(id, false);
+        File partial = fileFor(id, true);
+        if (complete.exists()) {
+            complete.setLastModified(System.currentTimeMillis());
+            WritableMap map = Arguments.createMap();
+            map.putString("path", "file://" + complete.getAbsolutePath());
+            map.putBoolean("complete", true);
+            map.putDouble("bytes", complete.length());
+            promise.resolve(map);
+        } else if (partial.exists()) {
+            WritableMap map = Arguments.createMap();
+            map.putNull("path");
+            map.putBoolean("complete", false);
+            map.putDouble("bytes", partial.length());
+            promise.resolve(map);
+        } else {
+            promise.resolve(null);
+        }
+    }
+
+    @ReactMethod
+    public void cancelAll(Promise promise) {
+        generation.incrementAndGet();
+        wanted = new HashSet<>();
+        promise.resolve(true);
+    }
+
+    /** Deletes everything except pinned files, which the player may be reading. */
+    @ReactMethod
+    public void clear(Promise promise) {
+        generation.incrementAndGet();
+        wanted = new HashSet<>();
+        worker.execute(() -> {
+            File[] files = cacheDir().listFiles();
+            Set<String> keep = pinned;
+            if (files != null) {
+                for (File f : files) {
+                    if (!keep.contains(idOf(f))) f.delete();
+                }
+            }
+            promise.resolve(true);
+        });
+    }
+
+    @ReactMethod
+    public void addListener(String eventName) {
+        // Required by NativeEventEmitter
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+        // Required by NativeEventEmitter
+    }
+
+    @Override
+    public void invalidate() {
+        generation.incrementAndGet();
+        worker.shutdownNow();
+        super.invalidate();
+    }
+
+    private String blockedReason(boolean requireUnmetered, int minBattery) {
+        Context ctx = reactContext;
+        if (requireUnmetered) {
+            ConnectivityManager cm = (ConnectivityManager) ctx.getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (cm == null || cm.getActiveNetwork() == null || cm.isActiveNetworkMetered()) return "metered";
+        }
+        PowerManager pm = (PowerManager) ctx.getSystemService(Context.POWER_SERVICE);
+        if (pm != null && pm.isPowerSaveMode()) return "powerSave";
+        Intent battery = ctx.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery != null) {
+            int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            int plugged = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0);
+            if (plugged == 0 && level >= 0 && scale > 0 && level * 100 / scale < minBattery) return "battery";
+        }
+        return null;
+    }
+
+    private File cacheDir() {
+        File dir = new File(reactContext.getCacheDir(), CACHE_DIR);
+        if (!dir.exists()) dir.mkdirs();
+        return dir;
+    }
+
+    private static String safeName(String id) {
+        return id.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private static String idOf(File f) {
+        String name = f.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private File fileFor(String id, boolean partial) {
+        return new File(cacheDir(), safeName(id) + (partial ? ".part" : ".audio"));
+    }
+
+    /** Where the partial's URL and ETag are kept; shares the id so pins and eviction cover it. */
+    private File sourceFor(String id) {
+        return new File(cacheDir(), safeName(id) + ".src");
+    }
+
+    /** Runs on the single worker thread, so the shared buffer is safe. */
+    private void download(int gen, String id, String url, long maxBytes) {
+        if (gen != generation.get()) return;
+        File complete = fileFor(id, false);
+        if (complete.exists()) {
+            complete.setLastModified(System.currentTimeMillis());
+            emitComplete(id, complete);
+            return;
+        }
+        try {
+            PartialDownload.Outcome outcome = PartialDownload.run(OkHttpClientProvider.getOkHttpClient(), url,
+                    fileFor(id, true), sourceFor(id), complete, maxBytes, buffer,
+                    // Dropped from the queue: stop, keeping the partial file for a later resume
+                    () -> gen == generation.get() || wanted.contains(safeName(id)));
+            if (outcome == PartialDownload.Outcome.COMPLETE) {
+                emitComplete(id, complete);
+            } else if (outcome == PartialDownload.Outcome.TOO_LARGE) {
+                Log.i(TAG, "Skipping prefetch of " + id + ": exceeds per-track cap of " + maxBytes + " bytes");
+            } else if (outcome == PartialDownload.Outcome.TRUNCATED) {
+                Log.w(TAG, "Prefetch of " + id + " ended early; kept partial for a resume");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Prefetch failed for " + id, e);
+        }
+    }
+
+    /**
+     * Evicts least recently used files until under budget. Pinned files are never touched,
+     * even if that leaves the cache over budget: deleting one would break a queue entry the
+     * player may play or skip back to. Wanted-but-unpinned files only go once everything
+     * else has.
+     */
+    private void enforceBudget() {
+        File[] files = cacheDir().listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= budgetBytes) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        Set<String> keep = wanted;
+        Set<String> inUse = pinned;
+        for (int pass = 0; pass < 2 && total > budgetBytes; pass++) {
+            for (File f : files) {
+                if (total <= budgetBytes) break;
+                if (!f.exists()) continue;
+                String id = idOf(f);
+                if (inUse.contains(id) || (pass == 0 && keep.contains(id))) continue;
+                long len = f.length();
+                if (f.delete()) total -= len;
+            }
+        }
+    }
+
+    private void emitComplete(String id, File file) {
+        if (!reactContext.hasActiveReactInstance()) return;
+        WritableMap event = Arguments.createMap();
+        event.putString("id", id);
+        event.putString("path", "file://" + file.getAbsolutePath());
+        event.putDouble("bytes", file.length());
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(EVENT_COMPLETE, event);
+    }
+}
@@ -0,0 +1,166 @@
+package com.suman334.rear;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Offline full-text index over downloaded songs, cached lyrics and scanned local media.
+ *
+ * search_docs holds the display data; search_fts is an FTS4 table keyed by the same rowid
+ * that only stores normalized text (see LibraryDatabase.normalize), which is what makes
+ * matching case- and diacritic-insensitive without a custom tokenizer.
+ */
+public final class SearchIndex {
+    public static final String TABLE_DOCS = "search_docs";
+    public static final String TABLE_FTS = "search_fts";
+
+    public static final String SOURCE_SONG = "song";
+    public static final String SOURCE_LIBRARY = "library";
+
+    private SearchIndex() {
+    }
+
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_DOCS + " ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "doc_key TEXT NOT NULL UNIQUE,"
+                + "source TEXT NOT NULL,"
+                + "title TEXT,"
+                + "artist TEXT,"
+                + "album TEXT,"
+                + "lyrics TEXT,"
+                + "payload TEXT,"
+                + "downloaded INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_FTS
+                + " USING fts4(title, artist, album, lyrics, prefix=\"2,3\")");
+    }
+
+    /**
+     * FTS MATCH expression for a normalized query, each token as a prefix term, or "" when
+     * there is none. Tokens follow the FTS4 "simple" tokenizer the index is built with: runs
+     * of ASCII letters and digits, where every non-ASCII character counts as a letter. Indic
+     * words therefore stay whole with their vowel signs and viramas, as they were indexed.
+     */
+    static String matchQuery(String normalized) {
+        StringBuilder match = new StringBuilder();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && isTokenChar(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (match.length() > 0) match.append(' ');
+                match.append(normalized, start, i).append('*');
+                start = -1;
+            }
+        }
+        return match.toString();
+    }
+
+    private static boolean isTokenChar(char c) {
+        return c >= 0x80 || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    public static String songKey(String songId) {
+        return SOURCE_SONG + ":" + songId;
+    }
+
+    public static String libraryKey(String kind, long mediaId) {
+        return SOURCE_LIBRARY + ":" + kind + ":" + mediaId;
+    }
+
+    /**
+     * Inserts or merges a document. Null fields keep their stored value, so lyrics and
+     * download metadata for the same song can arrive independently.
+     */
+    public static void put(SQLiteDatabase db, String key, String source, String title, String artist,
+                           String album, String lyrics, String payload, Boolean downloaded) {
+        ContentValues values = new ContentValues();
+        if (title != null) values.put("title", title);
+        if (artist != null) values.put("artist", artist);
+        if (album != null) values.put("album", album);
+        if (lyrics != null) values.put("lyrics", lyrics);
+        if (payload != null) values.put("payload", payload);
+        if (downloaded != null) values.put("downloaded", downloaded ? 1 : 0);
+
+        long id = findId(db, key);
+        if (id < 0) {
+            values.put("doc_key", key);
+            values.put("source", source);
+            id = db.insertOrThrow(TABLE_DOCS, null, values);
+        } else if (values.size() > 0) {
+            db.update(TABLE_DOCS, values, "id = ?", new String[]{String.valueOf(id)});
+        }
+        reindex(db, id);
+    }
+
+    /** Clears lyrics for a song; drops the document if nothing else keeps it. */
+    public static void clearLyrics(SQLiteDatabase db, String key) {
+        long id = findId(db, key);
+        if (id < 0) return;
+        ContentValues values = new ContentValues();
+        values.putNull("lyrics");
+        db.update(TABLE_DOCS, values, "id = ?", new String[]{String.valueOf(id)});
+        dropIfOrphan(db, id);
+    }
+
+    /** Marks a song as no longer downloaded; drops the document if it has no lyrics either. */
+    public static void clearDownload(SQLiteDatabase db, String key) {
+        long id = findId(db, key);
+        if (id < 0) return;
+        ContentValues values = new ContentValues();
+        values.put("downloaded", 0);
+        db.update(TABLE_DOCS, values, "id = ?", new String[]{String.valueOf(id)});
+        dropIfOrphan(db, id);
+    }
+
+    public static void remove(SQLiteDatabase db, String key) {
+        long id = findId(db, key);
+        if (id < 0) return;
+        String[] args = {String.valueOf(id)};
+        db.delete(TABLE_FTS, "docid = ?", args);
+        db.delete(TABLE_DOCS, "id = ?", args);
+    }
+
+    /** Rebuilds every FTS row from search_docs, e.g. after LibraryDatabase.normalize changed. */
+    static void reindexAll(SQLiteDatabase db) {
+        try (Cursor c = db.query(TABLE_DOCS, new String[]{"id"}, null, null, null, null, null)) {
+            while (c.moveToNext()) reindex(db, c.getLong(0));
+        }
+    }
+
+    private static void dropIfOrphan(SQLiteDatabase db, long id) {
+        String[] args = {String.valueOf(id)};
+        int removed = db.delete(TABLE_DOCS, "id = ? AND source = '" + SOURCE_SONG
+                + "' AND downloaded = 0 AND lyrics IS NULL", args);
+        if (removed > 0) {
+            db.delete(TABLE_FTS, "docid = ?", args);
+        } else {
+            reindex(db, id);
+        }
+    }
+
+    private static long findId(SQLiteDatabase db, String key) {
+        try (Cursor c = db.query(TABLE_DOCS, new String[]{"id"}, "doc_key = ?", new String[]{key},
+                null, null, null)) {
+            return c.moveToFirst() ? c.getLong(0) : -1;
+        }
+    }
+
+    private static void reindex(SQLiteDatabase db, long id) {
+        String[] args = {String.valueOf(id)};
+        try (Cursor c = db.query(TABLE_DOCS, new String[]{"title", "artist", "album", "lyrics"}, "id = ?", args,
+                null, null, null)) {
+            if (!c.moveToFirst()) return;
+            ContentValues fts = new ContentValues();
+            fts.put("docid", id);
+            fts.put("title", LibraryDatabase.normalize(c.getString(0)));
+            fts.put("artist", LibraryDatabase.normalize(c.getString(1)));
+            fts.put("album", LibraryDatabase.normalize(c.getString(2)));
+            fts.put("lyrics", LibraryDatabase.normalize(c.getString(3)));
+            db.delete(TABLE_FTS, "docid = ?", args);
+            db.insert(TABLE_FTS, null, fts);
+        }
+    }
+}
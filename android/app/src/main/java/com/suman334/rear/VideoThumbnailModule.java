@@ -0,0 +1,360 @@
+package com.suman334.rear;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poster frames and scrubbing thumbnail strips for local videos.
+ *
+ * Frames are JPEGs in cacheDir/video_thumbs named after a content hash (length plus the
+ * first and last 64 KB), so a video copied to a new temp path keeps its thumbnails. The
+ * directory is trimmed oldest-first to DISK_BUDGET_BYTES; hashes and strip manifests are
+ * memoized in memory LRUs so repeated lookups skip disk reads. A strip uses one
+ * MediaMetadataRetriever for the poster and every frame of the file.
+ */
+public class VideoThumbnailModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "VideoThumbnailModule";
+    private static final String DIR_NAME = "video_thumbs";
+    private static final long DISK_BUDGET_BYTES = 48L * 1024 * 1024;
+    private static final int HASH_SAMPLE_BYTES = 64 * 1024;
+    private static final int MAX_STRIP_FRAMES = 120;
+    private static final int JPEG_QUALITY = 80;
+    private static final int DEFAULT_POSTER_WIDTH = 480;
+    private static final int DEFAULT_STRIP_WIDTH = 160;
+    private static final long DEFAULT_INTERVAL_MS = 10_000;
+
+    private final ReactApplicationContext reactContext;
+    // Two decoders at most; a full queue rejects instead of blocking the bridge thread
+    private final ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(32), r -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }, "video-thumbnails"));
+    private final LruCache<String, String> hashes = new LruCache<>(256);
+    private final LruCache<String, Strip> strips = new LruCache<>(32);
+
+    private final MemoryGovernor.Trimmable trimmable =
+            fraction -> MemoryGovernor.trimLru(strips, fraction) + MemoryGovernor.trimLru(hashes, fraction);
+
+    public VideoThumbnailModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+        MemoryGovernor.register("video_thumbnail_index", trimmable);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "VideoThumbnails";
+    }
+
+    /** Resolves the file:// URI of a poster frame picked a little way into the video. */
+    @ReactMethod
+    public void getPoster(String uriString, int maxWidth, Promise promise) {
+        submit(promise, () -> {
+            int width = maxWidth > 0 ? maxWidth : DEFAULT_POSTER_WIDTH;
+            String hash = contentHash(uriString);
+            File poster = new File(dir(), hash + "_poster_" + width + ".jpg");
+            if (!touch(poster)) {
+                MediaMetadataRetriever retriever = open(uriString);
+                try {
+                    writePoster(retriever, poster, width);
+                } finally {
+                    retriever.release();
+                }
+                trim();
+            }
+            promise.resolve("file://" + poster.getAbsolutePath());
+        });
+    }
+
+    /**
+     * Resolves { intervalMs, durationMs, poster, frames } where frames[i] is the thumbnail
+     * for time i * intervalMs. The interval is widened for long videos to cap the frame count.
+     */
+    @ReactMethod
+    public void getStrip(String uriString, double intervalMs, int maxWidth, Promise promise) {
+        submit(promise, () -> {
+            int width = maxWidth > 0 ? maxWidth : DEFAULT_STRIP_WIDTH;
+            long requested = intervalMs > 0 ? (long) intervalMs : DEFAULT_INTERVAL_MS;
+            String hash = contentHash(uriString);
+            String stripKey = hash + "_" + requested + "_" + width;
+            File poster = new File(dir(), hash + "_poster_" + DEFAULT_POSTER_WIDTH + ".jpg");
+
+            Strip cached = strips.get(stripKey);
+            if (cached != null && allTouched(cached.frames) && touch(poster)) {
+                promise.resolve(toStripMap(cached, poster));
+                return;
+            }
+
+            MediaMetadataRetriever retriever = open(uriString);
+            Strip strip;
+            try {
+                long durationMs = durationMs(retriever);
+                long interval = Math.max(requested, durationMs / MAX_STRIP_FRAMES + 1);
+                int count = (int) Math.max(1, durationMs / interval + 1);
+                strip = new Strip(interval, durationMs, new String[count]);
+                for (int i = 0; i < count; i++) {
+                    if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                    File frame = new File(dir(), hash + "_" + interval + "_" + width + "_" + i + ".jpg");
+                    if (!touch(frame)) {
+                        Bitmap bitmap = frameAt(retriever, i * interval * 1000, width);
+                        if (bitmap == null) {
+                            // Past the last decodable frame; reuse the previous one
+                            strip.frames[i] = i > 0 ? strip.frames[i - 1] : null;
+                            continue;
+                        }
+                        writeJpeg(bitmap, frame);
+                    }
+                    strip.frames[i] = "file://" + frame.getAbsolutePath();
+                }
+                if (!touch(poster)) writePoster(retriever, poster, DEFAULT_POSTER_WIDTH);
+            } finally {
+                retriever.release();
+            }
+            strips.put(stripKey, strip);
+            trim();
+            promise.resolve(toStripMap(strip, poster));
+        });
+    }
+
+    @ReactMethod
+    public void clear(Promise promise) {
+        hashes.evictAll();
+        strips.evictAll();
+        File[] files = dir().listFiles();
+        if (files != null) for (File f : files) f.delete();
+        promise.resolve(true);
+    }
+
+    @Override
+    public void invalidate() {
+        MemoryGovernor.unregister("video_thumbnail_index", trimmable);
+        pool.shutdownNow();
+        super.invalidate();
+    }
+
+    private static final class Strip {
+        final long intervalMs;
+        final long durationMs;
+        final String[] frames;
+
+        Strip(long intervalMs, long durationMs, String[] frames) {
+            this.intervalMs = intervalMs;
+            this.durationMs = durationMs;
+            this.frames = frames;
+        }
+    }
+
+    private interface Job {
+        void run() throws Exception;
+    }
+
+    private void submit(Promise promise, Job job) {
+        try {
+            pool.execute(() -> {
+                try {
+                    job.run();
+                } catch (Exception e) {
+                    Log.w(TAG, "thumbnail job failed", e);
+                    promise.reject("E_THUMBNAIL_FAILED", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            promise.reject("E_THUMBNAIL_BUSY", "Too many thumbnail requests queued");
+        }
+    }
+
+    private File dir() {
+        File dir = new File(reactContext.getCacheDir(), DIR_NAME);
+        if (!dir.exists()) dir.mkdirs();
+        return dir;
+    }
+
+    private MediaMetadataRetriever open(String uriString) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            if (uriString.startsWith("content:")) {
+                retriever.setDataSource(reactContext, Uri.parse(uriString));
+            } else {
+                retriever.setDataSource(localPath(uriString));
+            }
+        } catch (RuntimeException e) {
+            retriever.release();
+            throw e;
+        }
+        return retriever;
+    }
+
+    private static long durationMs(MediaMetadataRetriever retriever) {
+        String value = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void writePoster(MediaMetadataRetriever retriever, File poster, int width) throws Exception {
+        // Skip fades from black: 10% in, but never later than 3 s
+        long timeUs = Math.min(durationMs(retriever) / 10, 3000) * 1000;
+        Bitmap bitmap = frameAt(retriever, timeUs, width);
+        if (bitmap == null) bitmap = frameAt(retriever, 0, width);
+        if (bitmap == null) throw new IllegalStateException("No decodable video frame");
+        writeJpeg(bitmap, poster);
+    }
+
+    private static Bitmap frameAt(MediaMetadataRetriever retriever, long timeUs, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            return retriever.getScaledFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC, width, width);
+        }
+        Bitmap full = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC);
+        if (full == null || full.getWidth() <= width) return full;
+        Bitmap scaled = Bitmap.createScaledBitmap(full, width, Math.max(1, full.getHeight() * width / full.getWidth()), true);
+        full.recycle();
+        return scaled;
+    }
+
+    private static void writeJpeg(Bitmap bitmap, File file) throws Exception {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } finally {
+            bitmap.recycle();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IllegalStateException("Could not move thumbnail into place");
+        }
+    }
+
+    /** Marks a cached file as recently used; false when it does not exist. */
+    private static boolean touch(File file) {
+        if (!file.isFile()) return false;
+        file.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    private static boolean allTouched(String[] frames) {
+        for (String frame : frames) {
+            if (frame != null && !touch(new File(localPath(frame)))) return false;
+        }
+        return true;
+    }
+
+    private synchronized void trim() {
+        File[] files = dir().listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= DISK_BUDGET_BYTES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File f : files) {
+            if (total <= DISK_BUDGET_BYTES * 3 / 4) break;
+            total -= f.length();
+            f.delete();
+        }
+        strips.evictAll();
+    }
+
+    /** SHA-1 over length + first and last HASH_SAMPLE_BYTES; memoized per URI and mtime. */
+    private String contentHash(String uriString) throws Exception {
+        Context ctx = reactContext;
+        String memoKey = uriString;
+        File file = null;
+        if (!uriString.startsWith("content:")) {
+            file = new File(localPath(uriString));
+            memoKey = uriString + "|" + file.length() + "|" + file.lastModified();
+        }
+        String cached = hashes.get(memoKey);
+        if (cached != null) return cached;
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        byte[] buffer = new byte[HASH_SAMPLE_BYTES];
+        if (file != null) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                long length = raf.length();
+                digest.update(String.valueOf(length).getBytes("UTF-8"));
+                int head = (int) Math.min(length, HASH_SAMPLE_BYTES);
+                raf.readFully(buffer, 0, head);
+                digest.update(buffer, 0, head);
+                if (length > HASH_SAMPLE_BYTES * 2L) {
+                    raf.seek(length - HASH_SAMPLE_BYTES);
+                    raf.readFully(buffer, 0, HASH_SAMPLE_BYTES);
+                    digest.update(buffer, 0, HASH_SAMPLE_BYTES);
+                }
+            }
+        } else {
+            // Content URIs are not seekable in general; hash the head plus the reported size
+            long length = -1;
+            try (AssetFileDescriptor afd =
+                         ctx.getContentResolver().openAssetFileDescriptor(Uri.parse(uriString), "r")) {
+                if (afd != null) length = afd.getLength();
+            } catch (Exception ignored) {
+            }
+            digest.update(String.valueOf(length).getBytes("UTF-8"));
+            try (InputStream in = ctx.getContentResolver().openInputStream(Uri.parse(uriString))) {
+                if (in == null) throw new IllegalStateException("Cannot open " + uriString);
+                int total = 0;
+                int read;
+                while (total < HASH_SAMPLE_BYTES && (read = in.read(buffer, 0, HASH_SAMPLE_BYTES - total)) != -1) {
+                    digest.update(buffer, 0, read);
+                    total += read;
+                }
+            }
+        }
+
+        byte[] bytes = digest.digest();
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        String hash = sb.toString();
+        hashes.put(memoKey, hash);
+        return hash;
+    }
+
+    private static String localPath(String uri) {
+        return uri.replaceFirst("^file://", "").replaceFirst("^file:", "");
+    }
+
+    private static WritableMap toStripMap(Strip strip, File poster) {
+        WritableMap map = Arguments.createMap();
+        map.putDouble("intervalMs", strip.intervalMs);
+        map.putDouble("durationMs", strip.durationMs);
+        map.putString("poster", "file://" + poster.getAbsolutePath());
+        WritableArray list = Arguments.createArray();
+        for (String frame : strip.frames) {
+            if (frame != null) list.pushString(frame);
+            else list.pushNull();
+        }
+        map.putArray("frames", list);
+        return map;
+    }
+}
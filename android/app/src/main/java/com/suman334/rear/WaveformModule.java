@@ -0,0 +1,189 @@
+package com.suman334.rear;
+
+import android.os.Process;
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lazily builds waveform peaks for seekbars. The first request for a track decodes it once
+ * (PcmDecoder into WaveformPeaks) and writes a ".peaks" sidecar; later requests at any
+ * resolution are served from the sidecar or the in-memory copy. Sidecars only sit next to
+ * sources inside filesDir; anything else gets one under filesDir/waveforms.
+ */
+public class WaveformModule extends ReactContextBaseJavaModule {
+    private static final String TAG = "WaveformModule";
+    private static final String SIDECAR_SUFFIX = ".peaks";
+    private static final String FALLBACK_DIR = "waveforms";
+    private static final int MEMORY_CACHE_BYTES = 2 * 1024 * 1024;
+    private static final long TOUCH_INTERVAL_MS = 24 * 60 * 60 * 1000L;
+
+    private final ReactApplicationContext reactContext;
+    // One build at a time; a queued duplicate request finds the sidecar the first one wrote
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        r.run();
+    }, "waveform-builder"));
+    private final PcmDecoder decoder = new PcmDecoder();
+    private final LruCache<String, byte[]> memory = new LruCache<String, byte[]>(MEMORY_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, byte[] value) {
+            return value.length;
+        }
+    };
+
+    private final MemoryGovernor.Trimmable trimmable = fraction -> MemoryGovernor.trimLru(memory, fraction);
+
+    public WaveformModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        this.reactContext = reactContext;
+        MemoryGovernor.register("waveform_peaks", trimmable);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return "Waveform";
+    }
+
+    /**
+     * Resolves { resolution, durationMs, peaks } where peaks is base64 of interleaved signed
+     * min/max bytes in [-127, 127]. sidecarPath overrides where the peaks file lives (e.g.
+     * next to an encrypted download whose playable copy is temporary).
+     */
+    @ReactMethod
+    public void getPeaks(String sourceUri, String sidecarPath, int resolution, Promise promise) {
+        File sidecar = sidecarFor(sourceUri, sidecarPath);
+        String key = memoryKey(sidecar, sourceUri, sidecarPath);
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            touch(sidecar);
+            promise.resolve(toMap(cached, resolution));
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                File source = localFile(sourceUri);
+                long length = source != null && sidecarPath == null ? source.length() : 0;
+                long modified = source != null && sidecarPath == null ? source.lastModified() : 0;
+                byte[] data = WaveformPeaks.read(sidecar, length, modified);
+                if (data != null) {
+                    touch(sidecar);
+                } else {
+                    WaveformPeaks peaks = new WaveformPeaks();
+                    decoder.decode(reactContext, sourceUri, peaks);
+                    peaks.write(sidecar, length, modified);
+                    data = WaveformPeaks.read(sidecar, 0, 0);
+                    if (data == null) throw new IllegalStateException("Waveform sidecar unreadable");
+                }
+                memory.put(key, data);
+                promise.resolve(toMap(data, resolution));
+            } catch (Exception e) {
+                Log.w(TAG, "getPeaks failed for " + sourceUri, e);
+                promise.reject("E_WAVEFORM_FAILED", e.getMessage());
+            }
+        });
+    }
+
+    @ReactMethod
+    public void remove(String sourceUri, String sidecarPath, Promise promise) {
+        File sidecar = sidecarFor(sourceUri, sidecarPath);
+        String prefix = sidecar.getPath() + "|";
+        for (String key : memory.snapshot().keySet()) {
+            if (key.startsWith(prefix)) memory.remove(key);
+        }
+        promise.resolve(!sidecar.exists() || sidecar.delete());
+    }
+
+    @Override
+    public void invalidate() {
+        MemoryGovernor.unregister("waveform_peaks", trimmable);
+        executor.shutdownNow();
+        super.invalidate();
+    }
+
+    /**
+     * Marks a served sidecar as recently used so CacheStorage's age limit only removes peaks
+     * nobody asks for. At most once a day per file, to keep hits free of writes.
+     */
+    private static void touch(File sidecar) {
+        long now = System.currentTimeMillis();
+        if (now - sidecar.lastModified() > TOUCH_INTERVAL_MS) sidecar.setLastModified(now);
+    }
+
+    /**
+     * Explicit path if given, else next to a source inside filesDir, else under
+     * filesDir/waveforms keyed by a hash of the URI. Shared storage, the cache dir and
+     * content:// sources never get a file written beside them.
+     */
+    private File sidecarFor(String sourceUri, String sidecarPath) {
+        if (sidecarPath != null && !sidecarPath.isEmpty()) {
+            File explicit = localFile(sidecarPath);
+            if (explicit != null) return new File(explicit.getPath() + SIDECAR_SUFFIX);
+        }
+        File source = localFile(sourceUri);
+        if (source != null && isAppPrivate(source)) {
+            return new File(source.getPath() + SIDECAR_SUFFIX);
+        }
+        return new File(new File(reactContext.getFilesDir(), FALLBACK_DIR), sha1(sourceUri) + SIDECAR_SUFFIX);
+    }
+
+    private boolean isAppPrivate(File file) {
+        try {
+            String root = reactContext.getFilesDir().getCanonicalPath() + File.separator;
+            return file.getCanonicalPath().startsWith(root);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The in-memory copy is keyed on the mtime of the file it was built from (the explicit
+     * sidecar's owner, else the source), so a file replaced in place is not served stale.
+     */
+    private static String memoryKey(File sidecar, String sourceUri, String sidecarPath) {
+        File stamped = sidecarPath != null && !sidecarPath.isEmpty() ? localFile(sidecarPath) : localFile(sourceUri);
+        return sidecar.getPath() + "|" + (stamped != null ? stamped.lastModified() : 0);
+    }
+
+    private static File localFile(String uri) {
+        if (uri == null || uri.startsWith("content:")) return null;
+        return new File(uri.replaceFirst("^file://", "").replaceFirst("^file:", ""));
+    }
+
+    private static WritableMap toMap(byte[] data, int resolution) {
+        byte[] peaks = WaveformPeaks.peaksAt(data, Math.max(1, resolution));
+        WritableMap map = Arguments.createMap();
+        map.putInt("resolution", peaks.length / 2);
+        long durationUs = WaveformPeaks.durationUs(data);
+        map.putDouble("durationMs", durationUs > 0 ? durationUs / 1000.0 : 0);
+        map.putString("peaks", Base64.encodeToString(peaks, Base64.NO_WRAP));
+        return map;
+    }
+
+    private static String sha1(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.suman334.rear;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Multi-resolution min/max waveform of a track and its sidecar file format.
+ *
+ * Building is a PcmDecoder.Sink: frames are folded into fixed-capacity base buckets, and
+ * when the buffer fills, neighbouring buckets are merged and the bucket width doubles, so
+ * the base level stays between BASE_BUCKETS and 2x that whether or not the duration is
+ * known. Coarser levels are halvings of the base down to MIN_BUCKETS.
+ *
+ * Sidecar layout (little endian): "WVPK", version, level count, 2 pad bytes, source length,
+ * source mtime, duration (us), one int bucket count per level, then each level's
+ * interleaved signed-byte min/max pairs, finest first.
+ */
+public class WaveformPeaks implements PcmDecoder.Sink {
+    private static final int MAGIC = 0x4B505657; // "WVPK" read little endian
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8;
+
+    private static final int BASE_BUCKETS = 4096;
+    private static final int MIN_BUCKETS = 64;
+
+    private final byte[] baseMin = new byte[BASE_BUCKETS * 2];
+    private final byte[] baseMax = new byte[BASE_BUCKETS * 2];
+    private int bucketCount = 0;
+    private long framesPerBucket = 1;
+    private long framesInBucket = 0;
+    private float bucketMin = 0, bucketMax = 0;
+    private int channels = 1;
+    private long durationUs = -1;
+
+    @Override
+    public void onFormat(int sampleRate, int channels, long durationUs) {
+        this.channels = Math.max(1, channels);
+        this.durationUs = durationUs;
+        if (bucketCount == 0 && framesInBucket == 0) {
+            long frames = durationUs > 0 ? durationUs * sampleRate / 1_000_000L : 0;
+            framesPerBucket = frames > 0 ? Math.max(1, (frames + BASE_BUCKETS - 1) / BASE_BUCKETS) : 1024;
+        }
+    }
+
+    @Override
+    public void onPcm(short[] samples, int count) {
+        for (int i = 0; i + channels <= count; i += channels) {
+            for (int c = 0; c < channels; c++) {
+                float v = samples[i + c] / 32768f;
+                if (v < bucketMin) bucketMin = v;
+                if (v > bucketMax) bucketMax = v;
+            }
+            frameDone();
+        }
+    }
+
+    @Override
+    public void onPcm(float[] samples, int count) {
+        for (int i = 0; i + channels <= count; i += channels) {
+            for (int c = 0; c < channels; c++) {
+                float v = samples[i + c];
+                if (v < bucketMin) bucketMin = v;
+                if (v > bucketMax) bucketMax = v;
+            }
+            frameDone();
+        }
+    }
+
+    private void frameDone() {
+        if (++framesInBucket < framesPerBucket) return;
+        pushBucket();
+    }
+
+    private void pushBucket() {
+        if (bucketCount == baseMin.length) {
+            for (int i = 0; i < bucketCount / 2; i++) {
+                baseMin[i] = (byte) Math.min(baseMin[2 * i], baseMin[2 * i + 1]);
+                baseMax[i] = (byte) Math.max(baseMax[2 * i], baseMax[2 * i + 1]);
+            }
+            bucketCount /= 2;
+            framesPerBucket *= 2;
+        }
+        baseMin[bucketCount] = quantize(bucketMin);
+        baseMax[bucketCount] = quantize(bucketMax);
+        bucketCount++;
+        framesInBucket = 0;
+        bucketMin = 0;
+        bucketMax = 0;
+    }
+
+    private static byte quantize(float v) {
+        return (byte) Math.max(-127, Math.min(127, Math.round(v * 127f)));
+    }
+
+    /** Flushes the last partial bucket and writes the sidecar via a temp file + rename. */
+    public void write(File sidecar, long sourceLength, long sourceModified) throws IOException {
+        if (framesInBucket > 0) pushBucket();
+
+        int levels = 1;
+        for (int n = bucketCount; n / 2 >= MIN_BUCKETS; n /= 2) levels++;
+        int[] counts = new int[levels];
+        int total = 0;
+        for (int l = 0, n = bucketCount; l < levels; l++, n /= 2) {
+            counts[l] = n;
+            total += n * 2;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + levels * 4 + total).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).put(VERSION).put((byte) levels).putShort((short) 0);
+        out.putLong(sourceLength).putLong(sourceModified).putLong(durationUs);
+        for (int count : counts) out.putInt(count);
+
+        // Level 0 from the base buffer, each next level halves the one before it in place
+        int levelStart = out.position();
+        for (int i = 0; i < bucketCount; i++) out.put(baseMin[i]).put(baseMax[i]);
+        for (int l = 1; l < levels; l++) {
+            int prevStart = levelStart;
+            levelStart = out.position();
+            for (int i = 0; i < counts[l]; i++) {
+                int a = prevStart + 4 * i;
+                out.put((byte) Math.min(out.get(a), out.get(a + 2)));
+                out.put((byte) Math.max(out.get(a + 1), out.get(a + 3)));
+            }
+        }
+
+        File parent = sidecar.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        File tmp = new File(sidecar.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            fos.write(out.array());
+        }
+        if (!tmp.renameTo(sidecar)) {
+            tmp.delete();
+            throw new IOException("Could not move waveform sidecar into place");
+        }
+    }
+
+    /**
+     * Reads a sidecar; returns null when it is missing, corrupt or was built from a source
+     * with a different length/mtime (pass 0 for both to skip that check).
+     */
+    public static byte[] read(File sidecar, long sourceLength, long sourceModified) {
+        if (!sidecar.isFile()) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(sidecar, "r")) {
+            long length = raf.length();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) return null;
+            byte[] data = new byte[(int) length];
+            raf.readFully(data);
+            ByteBuffer in = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.get() != VERSION) return null;
+            if (sourceLength != 0 || sourceModified != 0) {
+                if (in.getLong(8) != sourceLength || in.getLong(16) != sourceModified) return null;
+            }
+            return data;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static long durationUs(byte[] sidecar) {
+        return ByteBuffer.wrap(sidecar).order(ByteOrder.LITTLE_ENDIAN).getLong(24);
+    }
+
+    /**
+     * Interleaved min/max pairs at exactly `resolution` buckets, reduced from the coarsest
+     * stored level that still has at least that many (or the finest level if none does).
+     */
+    public static byte[] peaksAt(byte[] sidecar, int resolution) {
+        ByteBuffer in = ByteBuffer.wrap(sidecar).order(ByteOrder.LITTLE_ENDIAN);
+        int levels = in.get(5) & 0xFF;
+        int[] counts = new int[levels];
+        int[] offsets = new int[levels];
+        int offset = HEADER_BYTES + levels * 4;
+        for (int l = 0; l < levels; l++) {
+            counts[l] = in.getInt(HEADER_BYTES + l * 4);
+            offsets[l] = offset;
+            offset += counts[l] * 2;
+        }
+
+        int level = 0;
+        for (int l = levels - 1; l >= 0; l--) {
+            if (counts[l] >= resolution) {
+                level = l;
+                break;
+            }
+        }
+        int count = counts[level];
+        int start = offsets[level];
+        if (count == 0) return new byte[0];
+        int n = Math.max(1, Math.min(resolution, count));
+        byte[] out = new byte[n * 2];
+        for (int i = 0; i < n; i++) {
+            int from = (int) ((long) i * count / n);
+            int to = Math.max(from + 1, (int) ((long) (i + 1) * count / n));
+            byte min = 0, max = 0;
+            for (int j = from; j < to; j++) {
+                byte lo = sidecar[start + 2 * j];
+                byte hi = sidecar[start + 2 * j + 1];
+                if (lo < min) min = lo;
+                if (hi > max) max = hi;
+            }
+            out[2 * i] = min;
+            out[2 * i + 1] = max;
+        }
+        return out;
+    }
+}
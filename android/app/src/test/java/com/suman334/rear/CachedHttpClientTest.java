@@ -0,0 +1,184 @@
+package com.suman334.rear;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class CachedHttpClientTest {
+    private static final long TIMEOUT_S = 5;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient okHttp;
+    private CachedHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        okHttp = new OkHttpClient();
+        client = new CachedHttpClient(okHttp, tmp.newFolder("http"), 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        okHttp.dispatcher().executorService().shutdown();
+    }
+
+    @Test
+    public void concurrentCallersShareOneUpstreamRequest() throws Exception {
+        // Held back long enough for every caller to join the in-flight request
+        server.enqueue(new MockResponse().setBody("shared").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        String url = server.url("/songs").toString();
+
+        int callers = 8;
+        CountDownLatch done = new CountDownLatch(callers);
+        List<CachedHttpClient.Result> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            client.get(url, new CachedHttpClient.Options(), new CachedHttpClient.Callback() {
+                @Override
+                public void onResult(CachedHttpClient.Result result) {
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, client.getNetworkCalls());
+        assertEquals(callers - 1, client.getCoalesced());
+        assertEquals(callers, results.size());
+        for (CachedHttpClient.Result result : results) {
+            assertEquals(200, result.status);
+            assertEquals("shared", result.body);
+        }
+    }
+
+    @Test
+    public void expiredEntryIsRevalidatedWithEtag() throws Exception {
+        server.enqueue(new MockResponse().setBody("v1").setHeader("ETag", "\"abc\"")
+                .setHeader("Cache-Control", "max-age=0"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"abc\""));
+        String url = server.url("/home").toString();
+
+        CachedHttpClient.Result first = getSync(url, new CachedHttpClient.Options());
+        assertFalse(first.fromCache);
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+
+        CachedHttpClient.Result second = getSync(url, new CachedHttpClient.Options());
+        RecordedRequest revalidation = server.takeRequest();
+        assertEquals("\"abc\"", revalidation.getHeader("If-None-Match"));
+        assertEquals(200, second.status);
+        assertEquals("v1", second.body);
+        assertTrue(second.fromCache);
+        assertFalse(second.stale);
+    }
+
+    @Test
+    public void expiredEntryIsRevalidatedWithLastModified() throws Exception {
+        String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        server.enqueue(new MockResponse().setBody("v1").setHeader("Last-Modified", lastModified));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/album").toString();
+
+        CachedHttpClient.Options options = new CachedHttpClient.Options();
+        options.ttlMs = 0;
+        getSync(url, options);
+        server.takeRequest();
+
+        CachedHttpClient.Result second = getSync(url, options);
+        assertEquals(lastModified, server.takeRequest().getHeader("If-Modified-Since"));
+        assertEquals("v1", second.body);
+        assertTrue(second.fromCache);
+    }
+
+    @Test
+    public void staleEntryIsServedWhileRevalidating() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(hits.getAndIncrement() == 0 ? "old" : "new");
+            }
+        });
+        String url = server.url("/trending").toString();
+
+        CachedHttpClient.Options expired = new CachedHttpClient.Options();
+        expired.ttlMs = 0;
+        assertEquals("old", getSync(url, expired).body);
+
+        CachedHttpClient.Options swr = new CachedHttpClient.Options();
+        swr.ttlMs = 60_000;
+        swr.staleWhileRevalidate = true;
+        CachedHttpClient.Result stale = getSync(url, swr);
+        assertEquals("old", stale.body);
+        assertTrue(stale.fromCache);
+        assertTrue(stale.stale);
+
+        // The background refresh lands in the cache; later reads are fresh hits on it
+        CachedHttpClient.Result fresh = null;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_S);
+        while (System.currentTimeMillis() < deadline) {
+            fresh = getSync(url, swr);
+            if (!fresh.stale) break;
+            Thread.sleep(20);
+        }
+        assertEquals("new", fresh.body);
+        assertTrue(fresh.fromCache);
+        assertFalse(fresh.stale);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private CachedHttpClient.Result getSync(String url, CachedHttpClient.Options options) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<CachedHttpClient.Result> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        client.get(url, options, new CachedHttpClient.Callback() {
+            @Override
+            public void onResult(CachedHttpClient.Result r) {
+                result.set(r);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                error.set(e);
+                done.countDown();
+            }
+        });
+        assertTrue("request timed out", done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+}
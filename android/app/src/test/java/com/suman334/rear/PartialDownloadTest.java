@@ -0,0 +1,195 @@
+package com.suman334.rear;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+public class PartialDownloadTest {
+    private static final String BODY = "hello world";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient okHttp;
+    private File partial;
+    private File source;
+    private File dest;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        okHttp = new OkHttpClient.Builder().readTimeout(5, TimeUnit.SECONDS).build();
+        partial = new File(tmp.getRoot(), "song.part");
+        source = new File(tmp.getRoot(), "song.src");
+        dest = new File(tmp.getRoot(), "song.audio");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void freshDownloadCompletes() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        assertEquals(PartialDownload.Outcome.COMPLETE, run(url("/a"), 1024));
+        assertEquals(BODY, read(dest));
+        assertFalse(partial.exists());
+        assertFalse(source.exists());
+        assertNull(server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    public void resumeAppendsMatchingRange() throws Exception {
+        write(partial, "hello ");
+        write(source, url("/a") + "\n\"v1\"");
+        server.enqueue(new MockResponse().setResponseCode(206)
+                .setHeader("Content-Range", "bytes 6-10/11")
+                .setHeader("ETag", "\"v1\"")
+                .setBody("world"));
+
+        assertEquals(PartialDownload.Outcome.COMPLETE, run(url("/a"), 1024));
+        assertEquals(BODY, read(dest));
+        RecordedRequest request = server.takeRequest();
+        assertEquals("bytes=6-", request.getHeader("Range"));
+        assertEquals("\"v1\"", request.getHeader("If-Range"));
+    }
+
+    @Test
+    public void partialFromAnotherUrlIsDropped() throws Exception {
+        write(partial, "stale ");
+        write(source, url("/old-signature") + "\n");
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        assertEquals(PartialDownload.Outcome.COMPLETE, run(url("/a"), 1024));
+        assertEquals(BODY, read(dest));
+        assertNull(server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    public void mismatchedContentRangeRestartsFromZero() throws Exception {
+        write(partial, "hello ");
+        write(source, url("/a") + "\n");
+        server.enqueue(new MockResponse().setResponseCode(206)
+                .setHeader("Content-Range", "bytes 0-10/11")
+                .setBody(BODY));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        assertEquals(PartialDownload.Outcome.COMPLETE, run(url("/a"), 1024));
+        assertEquals(BODY, read(dest));
+        assertEquals("bytes=6-", server.takeRequest().getHeader("Range"));
+        assertNull(server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    public void fullResponseToRangeReplacesPartial() throws Exception {
+        write(partial, "hello ");
+        write(source, url("/a") + "\n\"v1\"");
+        // If-Range did not match: the server sends the whole new file with a 200
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody(BODY));
+
+        assertEquals(PartialDownload.Outcome.COMPLETE, run(url("/a"), 1024));
+        assertEquals(BODY, read(dest));
+    }
+
+    @Test
+    public void shortBodyIsNotPromoted() throws Exception {
+        write(partial, "hello ");
+        write(source, url("/a") + "\n\"v1\"");
+        // Announces the rest of the file but ends cleanly after three bytes
+        server.enqueue(new MockResponse().setResponseCode(206)
+                .setHeader("Content-Range", "bytes 6-10/11")
+                .setHeader("ETag", "\"v1\"")
+                .setBody("wor"));
+
+        assertEquals(PartialDownload.Outcome.TRUNCATED, run(url("/a"), 1024));
+        assertFalse(dest.exists());
+        assertEquals("hello wor", read(partial));
+        assertEquals(url("/a") + "\n\"v1\"", read(source));
+    }
+
+    @Test
+    public void disconnectMidBodyKeepsPartial() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+
+        try {
+            run(url("/a"), 1024);
+        } catch (IOException expected) {
+            // Either the read fails or the body ends short; neither may produce dest
+        }
+        assertFalse(dest.exists());
+    }
+
+    @Test
+    public void oversizedFileIsSkipped() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        assertEquals(PartialDownload.Outcome.TOO_LARGE, run(url("/a"), 4));
+        assertFalse(dest.exists());
+        assertFalse(partial.exists());
+        assertFalse(source.exists());
+    }
+
+    @Test
+    public void pauseKeepsPartialForResume() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        PartialDownload.Outcome outcome = PartialDownload.run(okHttp, url("/a"), partial, source, dest,
+                1024, new byte[4], () -> false);
+
+        assertEquals(PartialDownload.Outcome.PAUSED, outcome);
+        assertFalse(dest.exists());
+        assertTrue(source.exists());
+    }
+
+    @Test
+    public void parsesContentRange() {
+        assertEquals(6, PartialDownload.rangeStart("bytes 6-10/11"));
+        assertEquals(11, PartialDownload.rangeTotal("bytes 6-10/11"));
+        assertEquals(-1, PartialDownload.rangeTotal("bytes 6-10/*"));
+        assertEquals(-1, PartialDownload.rangeStart(null));
+        assertEquals(-1, PartialDownload.rangeStart("items 6-10/11"));
+    }
+
+    private PartialDownload.Outcome run(String url, long maxBytes) throws IOException {
+        return PartialDownload.run(okHttp, url, partial, source, dest, maxBytes, new byte[4], () -> true);
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+
+    private static void write(File file, String value) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
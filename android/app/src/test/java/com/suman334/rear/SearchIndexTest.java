@@ -0,0 +1,91 @@
+package com.suman334.rear;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchIndexTest {
+    private Connection db;
+
+    @Before
+    public void setUp() throws Exception {
+        // Same FTS4 table and simple tokenizer as SearchIndex.createTables
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement st = db.createStatement()) {
+            st.execute("CREATE VIRTUAL TABLE " + SearchIndex.TABLE_FTS
+                    + " USING fts4(title, artist, album, lyrics, prefix=\"2,3\")");
+        }
+        index(1, "राम सिया राम", "Sachet Tandon");
+        index(2, "আমার সোনার বাংলা", "Rabindranath Tagore");
+        index(3, "Tum Hi Ho", "Arijit Singh");
+        index(4, "Beyoncé - Halo", "Beyoncé");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        db.close();
+    }
+
+    @Test
+    public void devanagariWordIsOneToken() {
+        assertEquals("राम*", SearchIndex.matchQuery(LibraryDatabase.normalize("राम")));
+    }
+
+    @Test
+    public void devanagariTitleMatches() throws Exception {
+        assertEquals(List.of(1L), search("राम"));
+        assertEquals(List.of(1L), search("सिया"));
+        // Prefix of a word, cut after a vowel sign
+        assertEquals(List.of(1L), search("सि"));
+    }
+
+    @Test
+    public void bengaliTitleMatches() throws Exception {
+        assertEquals(List.of(2L), search("সোনার"));
+    }
+
+    @Test
+    public void latinQueriesSplitOnAsciiPunctuation() throws Exception {
+        assertEquals("tum* hi* ho*", SearchIndex.matchQuery(LibraryDatabase.normalize("Tum-Hi Ho")));
+        assertEquals(List.of(3L), search("tum hi"));
+        assertEquals(List.of(4L), search("beyonce halo"));
+    }
+
+    @Test
+    public void queryWithoutTokensIsEmpty() {
+        assertEquals("", SearchIndex.matchQuery(LibraryDatabase.normalize(" - ! ")));
+    }
+
+    private void index(long id, String title, String artist) throws Exception {
+        try (PreparedStatement st = db.prepareStatement(
+                "INSERT INTO " + SearchIndex.TABLE_FTS + " (docid, title, artist) VALUES (?, ?, ?)")) {
+            st.setLong(1, id);
+            st.setString(2, LibraryDatabase.normalize(title));
+            st.setString(3, LibraryDatabase.normalize(artist));
+            st.executeUpdate();
+        }
+    }
+
+    private List<Long> search(String query) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement st = db.prepareStatement(
+                "SELECT docid FROM " + SearchIndex.TABLE_FTS + " WHERE " + SearchIndex.TABLE_FTS
+                        + " MATCH ? ORDER BY docid")) {
+            st.setString(1, SearchIndex.matchQuery(LibraryDatabase.normalize(query)));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -45,6 +45,8 @@ import Animated, {
 } from "react-native-reanimated";
 // --- App Version & Update Check ---
 // --- App Version & Update Check ---
+import { createBackup, isBackupAvailable, pickBackupSource, restoreBackup } from "@/services/backup";
+import { formatBytes } from "@/services/downloadService";
 import { checkForUpdate, downloadAndInstallUpdate, installUpdate, isUpdateDownloaded, UpdateInfo } from "@/services/updateService";
 const APP_VERSION = require('../../package.json').version;
 
@@ -71,6 +73,8 @@ export default function AccountScreen() {
   const [showSupportModal, setShowSupportModal] = useState(false);
   const [showLyricsModal, setShowLyricsModal] = useState(false);
   const [cachedLyricsInfo, setCachedLyricsInfo] = useState({ total: 0, synced: 0 });
+  // Progress line for a running backup or restore; null when idle
+  const [backupStatus, setBackupStatus] = useState<{ phase: "backup" | "restore"; text: string } | null>(null);
   const [editName, setEditName] = useState("");
   const [loading, setLoading] = useState(false);
   const [settings, setSettings] = useState<AppSettings>({
@@ -126,7 +130,8 @@ export default function AccountScreen() {
       await downloadAndInstallUpdate(
         updateInfo.downloadUrl,
         `beatit-v${updateInfo.version}.apk`,
-        (progress) => setDownloadProgress(progress)
+        (progress) => setDownloadProgress(progress),
+        updateInfo
       );
       setIsDownloading(false);
       setIsReadyToInstall(true);
@@ -146,7 +151,7 @@ export default function AccountScreen() {
     checkForUpdate().then(async (update) => {
       if (update) {
         setUpdateInfo(update);
-        const downloaded = await isUpdateDownloaded(update.version);
+        const downloaded = await isUpdateDownloaded(update.version, update.sha256);
         setIsReadyToInstall(downloaded);
       }
     });
@@ -473,6 +478,72 @@ export default function AccountScreen() {
     }
   };
 
+  const backupPercent = (bytes: number, total: number) =>
+    total > 0 ? ` ${Math.min(100, Math.round((bytes / total) * 100))}%` : "";
+
+  const handleCreateBackup = async () => {
+    if (backupStatus) return;
+    try {
+      setBackupStatus({ phase: "backup", text: "Choose where to save the backup" });
+      const result = await createBackup(null, ({ bytes, total }) =>
+        setBackupStatus({ phase: "backup", text: `Backing up…${backupPercent(bytes, total)}` }),
+      );
+      if (result) {
+        Alert.alert("Backup Complete", `${result.files} files saved (${formatBytes(result.bytes)}).`);
+      }
+    } catch (e) {
+      console.warn("[Account] Backup failed:", e);
+      Alert.alert("Backup Failed", "Could not write the backup. Please try again.");
+    } finally {
+      setBackupStatus(null);
+    }
+  };
+
+  const runRestore = async (uri: string) => {
+    try {
+      setBackupStatus({ phase: "restore", text: "Restoring…" });
+      const result = await restoreBackup(uri, ({ bytes, total }) =>
+        setBackupStatus({ phase: "restore", text: `Restoring…${backupPercent(bytes, total)}` }),
+      );
+      Alert.alert(
+        "Restore Complete",
+        `${result.songs} songs added, ${result.files} files restored (${formatBytes(result.bytes)}), ${result.skipped} already present.`,
+      );
+    } catch (e) {
+      console.warn("[Account] Restore failed:", e);
+      Alert.alert("Restore Failed", "The restore stopped early. Run it again to pick up where it left off.");
+    } finally {
+      setBackupStatus(null);
+    }
+  };
+
+  const handleRestoreBackup = async () => {
+    if (backupStatus) return;
+    try {
+      setBackupStatus({ phase: "restore", text: "Choose the folder with your backups" });
+      const backups = await pickBackupSource();
+      setBackupStatus(null);
+      if (!backups) return;
+      if (backups.length === 0) {
+        Alert.alert("No Backup Found", "That folder has no BeatIt backups (.bbk files).");
+        return;
+      }
+      const latest = backups[0];
+      Alert.alert(
+        "Restore Backup",
+        `Restore ${latest.name}? Songs and settings already on this device are kept.`,
+        [
+          { text: "Cancel", style: "cancel" },
+          { text: "Restore", onPress: () => runRestore(latest.uri) },
+        ],
+      );
+    } catch (e) {
+      console.warn("[Account] Restore failed:", e);
+      setBackupStatus(null);
+      Alert.alert("Restore Failed", "Could not open the backup folder.");
+    }
+  };
+
   const handleSettingChange = async (key: keyof AppSettings, value: any) => {
     const newSettings = { ...settings, [key]: value };
     setSettings(newSettings);
@@ -735,6 +806,24 @@ export default function AccountScreen() {
               }}
             />
 
+            {isBackupAvailable() && (
+              <>
+                <MenuItem
+                  icon="hdd-o"
+                  title="Back Up Downloads"
+                  subtitle={backupStatus?.phase === "backup" ? backupStatus.text : "Save songs, EQ and lyrics to a folder you choose"}
+                  onPress={handleCreateBackup}
+                />
+
+                <MenuItem
+                  icon="history"
+                  title="Restore From Backup"
+                  subtitle={backupStatus?.phase === "restore" ? backupStatus.text : "Bring back downloads from a backup file"}
+                  onPress={handleRestoreBackup}
+                />
+              </>
+            )}
+
             <MenuItem
               icon="trash"
               title="Delete App Data"
@@ -1,4 +1,5 @@
 import VideoPlayer from "@/components/VideoPlayer";
+import { VideoPoster } from "@/components/VideoPoster";
 import { useCurrentSong, useIsPlaying, usePlayer } from "@/context/PlayerContext";
 import { ApiSong } from "@/services/apiTypes";
 import { copyContentUriToCache, extractAudioMetadata } from "@/services/contentUriCopy";
@@ -7,7 +8,11 @@ import {
   formatBytes,
   getDownloadedSongs,
   getTotalDownloadSize,
+  syncSearchIndexOnce,
 } from "@/services/downloadService";
+import { refreshLibrary } from "@/services/libraryScanner";
+import { analyzeMissingLoudness } from "@/services/loudness";
+import { AudioExtractionJob, extractAudioTrack, isMediaRemuxAvailable } from "@/services/mediaRemux";
 import { useNetworkStatus } from "@/services/networkService";
 import FontAwesome from "@expo/vector-icons/FontAwesome";
 import AsyncStorage from '@react-native-async-storage/async-storage';
@@ -107,6 +112,10 @@ export default function DownloadsScreen() {
   const [mediaPermission, setMediaPermission] = useState<boolean>(false);
   const [isLoadingMedia, setIsLoadingMedia] = useState(false);
   const [selectedVideo, setSelectedVideo] = useState<{ uri: string; title: string; width?: number; height?: number } | null>(null);
+  const [extractingVideoId, setExtractingVideoId] = useState<string | null>(null);
+  const [extractProgress, setExtractProgress] = useState(0);
+  const extractJobRef = useRef<AudioExtractionJob | null>(null);
+  const extractCancelledRef = useRef(false);
 
   // Selection mode states
   const [selectionMode, setSelectionMode] = useState(false);
@@ -281,6 +290,7 @@ export default function DownloadsScreen() {
       ]);
       setDownloads(downloadedSongs);
       setTotalSize(size);
+      syncSearchIndexOnce();
 
       // Group songs by collection type and name
       const albumGroups: { [key: string]: any[] } = {};
@@ -479,6 +489,109 @@ export default function DownloadsScreen() {
     [downloads, playerActions]
   );
 
+  // Android players cannot always read MediaStore URIs directly, so picked videos are
+  // copied into the cache first. Reports whether the returned URI is such a copy.
+  const prepareVideoUri = async (video: MediaLibrary.Asset): Promise<{ uri: string; isCopy: boolean }> => {
+    if (Platform.OS !== 'android') return { uri: video.uri, isCopy: false };
+    if (video.uri.startsWith('content:')) {
+      return { uri: await copyContentUriToCache(video.uri), isCopy: true };
+    }
+    if (video.uri.startsWith('file:///storage/')) {
+      const ext = video.filename.split('.').pop() || 'mp4';
+      const safeName = `temp_vid_${Date.now()}.${ext}`;
+      const dest = `${FileSystem.cacheDirectory}${safeName}`;
+
+      await FileSystem.copyAsync({ from: video.uri, to: dest });
+
+      const check = await FileSystem.getInfoAsync(dest);
+      if (!check.exists || check.size === 0) {
+        throw new Error("File copy failed or file is empty");
+      }
+
+      // Small delay to let the OS finalize the file stream
+      await new Promise(resolve => setTimeout(resolve, 100));
+      return { uri: dest, isCopy: true };
+    }
+    return { uri: video.uri, isCopy: false };
+  };
+
+  // Long press on a video: play just its audio track. The track is stream-copied into a
+  // small audio file that is kept; any temporary video copy is deleted right after.
+  const handlePlayVideoAudio = useCallback(
+    async (video: MediaLibrary.Asset) => {
+      if (!isMediaRemuxAvailable()) {
+        Alert.alert("Not supported", "Audio-only playback is not available on this device.");
+        return;
+      }
+      setExtractingVideoId(video.id);
+      setExtractProgress(0);
+      extractCancelledRef.current = false;
+      const extract = async (uri: string, sourceKey?: string) => {
+        const job = extractAudioTrack(uri, setExtractProgress, sourceKey);
+        extractJobRef.current = job;
+        try {
+          return await job.result;
+        } finally {
+          extractJobRef.current = null;
+        }
+      };
+      let copyUri: string | null = null;
+      try {
+        let audioUri: string;
+        try {
+          audioUri = await extract(video.uri);
+        } catch (error: any) {
+          if (error?.code === "E_UNSUPPORTED_CODEC" || error?.code === "E_REMUX_CANCELLED") throw error;
+          // The source could not be read in place: extract from a temporary copy instead,
+          // keyed on the original URI so the result is found again next time
+          const prepared = await prepareVideoUri(video);
+          if (prepared.isCopy) copyUri = prepared.uri;
+          if (extractCancelledRef.current) return;
+          audioUri = await extract(prepared.uri, video.uri);
+        }
+
+        const name = video.filename.replace(/\.[^/.]+$/, "");
+        const song: ApiSong = {
+          id: `video-audio-${video.id}`,
+          name,
+          title: name,
+          album: { id: "local", name: "Local Files", url: "" },
+          primaryArtists: "Unknown Artist",
+          image: [],
+          downloadUrl: [{ link: audioUri, quality: "320kbps" }],
+          duration: Math.floor(video.duration).toString(),
+          year: new Date(video.creationTime).getFullYear().toString(),
+          dominantColor: "#ff0066",
+          explicitContent: 0,
+          language: "unknown",
+          url: audioUri,
+        };
+        playerActions.setQueue([song], 0);
+        await playerActions.playSong(song);
+      } catch (error: any) {
+        if (error?.code === "E_REMUX_CANCELLED") return;
+        console.warn("[Downloads] Audio extraction failed:", error);
+        Alert.alert(
+          "Error",
+          error?.code === "E_UNSUPPORTED_CODEC"
+            ? "This video's audio format cannot be played on its own."
+            : "Could not extract the audio from this video.",
+        );
+      } finally {
+        if (copyUri) {
+          await FileSystem.deleteAsync(copyUri, { idempotent: true }).catch(() => { });
+        }
+        setExtractingVideoId(null);
+      }
+    },
+    [playerActions]
+  );
+
+  const handleCancelExtraction = useCallback(() => {
+    extractCancelledRef.current = true;
+    extractJobRef.current?.cancel().catch(() => { });
+  }, []);
+
   const handlePlayLocalAudio = useCallback(
     async (audio: MediaLibrary.Asset, index: number) => {
       try {
@@ -545,6 +658,9 @@ export default function DownloadsScreen() {
         // Set local audio queue and play
         playerActions.setQueue(localAudioQueue, index);
         await playerActions.playSong(localSong);
+
+        // Measure loudness of local files in the background so later plays are normalized
+        analyzeMissingLoudness(audioFiles.map((file) => ({ id: file.id, uri: file.uri })));
       } catch (error) {
         console.error("Error playing local audio:", error);
         const errorMessage = error instanceof Error ? error.message : String(error);
@@ -1116,6 +1232,7 @@ export default function DownloadsScreen() {
                 onPress={() => {
                   if (mediaPermission) {
                     loadMediaFiles();
+                    refreshLibrary();
                   }
                 }}
                 disabled={!mediaPermission || isLoadingMedia}
@@ -1321,33 +1438,12 @@ export default function DownloadsScreen() {
                             console.log("[Downloads] Video selected:", video.filename);
 
                             let finalUri = video.uri;
-                            if (Platform.OS === 'android') {
-                              try {
-                                if (video.uri.startsWith('content:')) {
-                                  finalUri = await copyContentUriToCache(video.uri);
-                                } else if (video.uri.startsWith('file:///storage/')) {
-                                  const ext = video.filename.split('.').pop() || 'mp4';
-                                  const safeName = `temp_vid_${Date.now()}.${ext}`;
-                                  const dest = `${FileSystem.cacheDirectory}${safeName}`;
-
-                                  await FileSystem.copyAsync({ from: video.uri, to: dest });
-
-                                  // --- ADD THIS CHECK ---
-                                  const check = await FileSystem.getInfoAsync(dest);
-                                  if (!check.exists || check.size === 0) {
-                                    throw new Error("File copy failed or file is empty");
-                                  }
-
-                                  // Small delay to let the OS finalize the file stream
-                                  await new Promise(resolve => setTimeout(resolve, 100));
-
-                                  finalUri = dest;
-                                }
-                              } catch (error) {
-                                console.warn("[Downloads] Failed to copy video:", error);
-                                Alert.alert("Error", "Could not prepare video for playback.");
-                                return; // Stop here if copy failed
-                              }
+                            try {
+                              finalUri = (await prepareVideoUri(video)).uri;
+                            } catch (error) {
+                              console.warn("[Downloads] Failed to copy video:", error);
+                              Alert.alert("Error", "Could not prepare video for playback.");
+                              return; // Stop here if copy failed
                             }
 
                             setSelectedVideo({
@@ -1357,6 +1453,8 @@ export default function DownloadsScreen() {
                               height: video.height
                             });
                           }}
+                          onLongPress={() => handlePlayVideoAudio(video)}
+                          disabled={extractingVideoId === video.id}
                           activeOpacity={0.9}
                         >
                           <View style={styles.videoCardContainer}>
@@ -1365,9 +1463,10 @@ export default function DownloadsScreen() {
                               style={styles.videoCardGradient}
                             >
                               <View style={styles.videoThumbnailWrapper}>
-                                <Image
-                                  source={{ uri: video.uri }}
+                                <VideoPoster
+                                  uri={video.uri}
                                   style={styles.videoThumbnail}
+                                  maxWidth={320}
                                 />
                                 <LinearGradient
                                   colors={["transparent", "rgba(0,0,0,0.7)"]}
@@ -1382,6 +1481,20 @@ export default function DownloadsScreen() {
                                     </LinearGradient>
                                   </View>
                                 </LinearGradient>
+                                {extractingVideoId === video.id && (
+                                  <View style={styles.videoExtractingOverlay}>
+                                    <ActivityIndicator size="small" color="#fff" />
+                                    <Text style={styles.videoExtractingText}>
+                                      {Math.round(extractProgress * 100)}%
+                                    </Text>
+                                    <TouchableOpacity
+                                      onPress={handleCancelExtraction}
+                                      style={styles.videoExtractingCancel}
+                                    >
+                                      <Text style={styles.videoExtractingCancelText}>Cancel</Text>
+                                    </TouchableOpacity>
+                                  </View>
+                                )}
                                 <View style={styles.videoDurationBadge}>
                                   <LinearGradient
                                     colors={["rgba(0,0,0,0.8)", "rgba(0,0,0,0.6)"]}
@@ -2342,6 +2455,29 @@ const styles = StyleSheet.create({
     borderColor: "rgba(255,255,255,0.3)",
     borderRadius: 28,
   },
+  videoExtractingOverlay: {
+    ...StyleSheet.absoluteFillObject,
+    justifyContent: "center",
+    alignItems: "center",
+    backgroundColor: "rgba(0,0,0,0.5)",
+  },
+  videoExtractingText: {
+    color: "#fff",
+    fontSize: 12,
+    fontWeight: "600",
+    marginTop: 6,
+  },
+  videoExtractingCancel: {
+    marginTop: 8,
+    paddingHorizontal: 12,
+    paddingVertical: 4,
+    borderRadius: 12,
+    backgroundColor: "rgba(255,255,255,0.2)",
+  },
+  videoExtractingCancelText: {
+    color: "#fff",
+    fontSize: 12,
+  },
   videoDurationBadge: {
     position: "absolute",
     top: 10,
@@ -1,8 +1,16 @@
 // Equalizer.tsx - FIXED VERSION
+import { SpectrumBars } from "@/components/SpectrumBars";
 import { EQ_BANDS, EQ_PROFILES, usePlayer } from "@/context/PlayerContext";
+import {
+  isAudioAnalyzerAvailable,
+  onAnalyzerFrame,
+  requestAnalyzerPermission,
+  startAudioAnalyzer,
+  stopAudioAnalyzer,
+} from "@/services/audioAnalyzer";
 import { useNetworkStatus } from "@/services/networkService";
 import Slider from "@react-native-community/slider";
-import { useRouter } from "expo-router";
+import { useFocusEffect, useRouter } from "expo-router";
 import React, {
   useCallback,
   useEffect,
@@ -34,6 +42,8 @@ const SLIDER_HEIGHT = 180; // Total height of slider container
 const TRACK_HEIGHT = 140; // Visible track height
 const SLIDER_RANGE = 12; // -12 to +12 dB
 const THUMB_SIZE = 24; // Thumb diameter
+const SPECTRUM_BANDS = 24;
+const SPECTRUM_HEIGHT = 48;
 
 const useAnimatedBandStyle = (sharedValue: Animated.SharedValue<number>) => {
   return useAnimatedStyle(() => {
@@ -119,6 +129,34 @@ const Equalizer: React.FC = () => {
     animatedStyle8,
   ];
 
+  const [spectrum, setSpectrum] = useState<{ bands: number[]; beat: boolean }>({
+    bands: [],
+    beat: false,
+  });
+
+  // Live spectrum only while the EQ tab is focused
+  useFocusEffect(
+    useCallback(() => {
+      if (!isAudioAnalyzerAvailable()) return;
+      let active = true;
+      let unsubscribe = () => {};
+      (async () => {
+        if (!(await requestAnalyzerPermission()) || !active) return;
+        unsubscribe = onAnalyzerFrame((frame) => {
+          setSpectrum({ bands: frame.bands, beat: frame.beat });
+        });
+        await startAudioAnalyzer(0, { bands: SPECTRUM_BANDS, maxFps: 30 });
+        if (!active) stopAudioAnalyzer();
+      })();
+      return () => {
+        active = false;
+        unsubscribe();
+        stopAudioAnalyzer();
+        setSpectrum({ bands: [], beat: false });
+      };
+    }, [])
+  );
+
   const bgAnimation = useSharedValue(0);
   const slidingRef = useRef(false);
   const [tempGains, setTempGains] = useState<number[]>(eqGains);
@@ -291,6 +329,16 @@ const Equalizer: React.FC = () => {
           <View style={styles.titleUnderline} />
         </View>
 
+        {spectrum.bands.length > 0 && (
+          <View style={styles.spectrumSection}>
+            <SpectrumBars
+              bands={spectrum.bands}
+              beat={spectrum.beat}
+              height={SPECTRUM_HEIGHT}
+            />
+          </View>
+        )}
+
         <View style={styles.profileSection}>
           <Text style={styles.sectionTitle}>PRESETS</Text>
           <View style={styles.profileButtons}>
@@ -480,6 +528,10 @@ const styles = StyleSheet.create({
     shadowOpacity: 1,
     shadowRadius: 10,
   },
+  spectrumSection: {
+    marginBottom: 20,
+    paddingHorizontal: 10,
+  },
   profileSection: {
     marginBottom: 30,
   },
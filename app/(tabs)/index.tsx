@@ -6,6 +6,7 @@ import {
 import { ApiArtist, ApiImage, ApiSong, BioObject } from "@/services/apiTypes";
 import * as downloadService from "@/services/downloadService";
 import { useNetworkStatus } from "@/services/networkService";
+import { searchOfflineSongs } from "@/services/offlineSearch";
 import { on as eventOn } from '@/utils/eventBus';
 import FontAwesome from "@expo/vector-icons/FontAwesome";
 import AsyncStorage from "@react-native-async-storage/async-storage";
@@ -365,6 +366,7 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
 }) => {
   const [query, setQuery] = useState("");
   const [results, setResults] = useState({
+    local: [] as ApiSong[],
     songs: [] as ApiSong[],
     albums: [] as Album[],
     artists: [] as ApiArtistDetail[],
@@ -373,6 +375,8 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
   const [isLoading, setIsLoading] = useState(false);
   const [isWebSearch, setIsWebSearch] = useState(false);
   const searchInputRef = useRef<TextInput>(null);
+  // Id of the newest search; responses for older ones are dropped
+  const searchIdRef = useRef(0);
   const animValue = useSharedValue(0);
 
   const animatedStyle = useAnimatedStyle(() => ({
@@ -400,12 +404,18 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
 
   const memoizedFetchSearchResults = useCallback(
     async (searchText: string) => {
+      const searchId = ++searchIdRef.current;
       if (!searchText.trim()) {
-        setResults({ songs: [], albums: [], artists: [] });
+        setResults({ local: [], songs: [], albums: [], artists: [] });
         setIsLoading(false);
         return;
       }
       setIsLoading(true);
+      // Downloads and device files answer in milliseconds, so show them right away
+      // instead of waiting on (or timing out with) the network requests below
+      searchOfflineSongs(searchText, 10).then((local) => {
+        if (searchId === searchIdRef.current) setResults((prev) => ({ ...prev, local }));
+      });
       try {
         const query = encodeURIComponent(searchText);
 
@@ -444,12 +454,16 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
             ? artistData.data.results
             : [];
 
-        setResults({ songs, albums, artists });
+        if (searchId === searchIdRef.current) {
+          setResults((prev) => ({ ...prev, songs, albums, artists }));
+        }
       } catch (error) {
         console.error("Multi-search error:", error);
-        setResults({ songs: [], albums: [], artists: [] });
+        if (searchId === searchIdRef.current) {
+          setResults((prev) => ({ ...prev, songs: [], albums: [], artists: [] }));
+        }
       } finally {
-        setIsLoading(false);
+        if (searchId === searchIdRef.current) setIsLoading(false);
       }
     },
     [processRawSong] // Add other dependencies if needed
@@ -475,6 +489,9 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
   // Add this code right before the return statement of SearchOverlayFn
   const sections = useMemo(() => {
     const s = [];
+    if (results.local.length > 0) {
+      s.push({ title: "On this device", data: results.local, type: "local" });
+    }
     if (results.songs.length > 0) {
       s.push({ title: "Songs", data: results.songs, type: "song" });
     }
@@ -491,10 +508,10 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
   {
     /* First, create the new item renderers inside SearchOverlayFn */
   }
-  const renderSongResultItem = (item: ApiSong) => (
+  const renderSongResultItem = (item: ApiSong, queue: ApiSong[]) => (
     <TouchableOpacity
       style={styles.searchResultItem}
-      onPress={() => onPlaySong(item, results.songs)}
+      onPress={() => onPlaySong(item, queue)}
     >
       <Image
         source={{ uri: getImageUrl(item.image, "150x150") }}
@@ -604,7 +621,7 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
               <TouchableOpacity
                 onPress={() => {
                   setQuery("");
-                  setResults({ songs: [], albums: [], artists: [] });
+                  setResults({ local: [], songs: [], albums: [], artists: [] });
                   searchInputRef.current?.focus();
                 }}
                 style={styles.searchActionIcon}
@@ -622,8 +639,10 @@ const SearchOverlayFn: React.FC<SearchOverlayProps> = ({
           sections={sections}
           keyExtractor={(item, index) => item.id + index}
           renderItem={({ item, section }) => {
+            if (section.type === "local")
+              return renderSongResultItem(item as ApiSong, results.local);
             if (section.type === "song")
-              return renderSongResultItem(item as ApiSong);
+              return renderSongResultItem(item as ApiSong, results.songs);
             if (section.type === "album")
               return renderAlbumResultItem(item as Album);
             if (section.type === "artist")
@@ -1,11 +1,14 @@
 import { NfcShareButton } from "@/components/NfcShareButton";
 import { NfcShareWaitingModal } from "@/components/NfcShareWaitingModal";
+import { WaveformBars } from "@/components/WaveformBars";
 import { useNfc } from "@/context/NfcContext";
 import { usePlayer, useProgress } from "@/context/PlayerContext";
 import { useBeautifulAlert } from "@/hooks/useBeautifulAlert";
 import { ApiImage } from "@/services/apiTypes";
+import { ArtworkColors, getArtworkColors } from "@/services/artworkPalette";
 import { useNetworkStatus } from "@/services/networkService";
 import { getSongLyrics } from "@/services/saavnService";
+import { getActiveTrackWaveform } from "@/services/waveform";
 import { on as eventOn } from '@/utils/eventBus';
 import FontAwesome from "@expo/vector-icons/FontAwesome";
 import Slider from "@react-native-community/slider";
@@ -52,6 +55,7 @@ import { SafeAreaView } from "react-native-safe-area-context";
 
 
 const { width } = Dimensions.get("window");
+const WAVEFORM_BARS = 96;
 
 // --- MARQUEE COMPONENT (Auto-Scrolling Text) ---
 const MarqueeText = ({ text, style }: { text: string; style: any }) => {
@@ -464,10 +468,41 @@ export const FullPlayerScreen: React.FC = () => {
 
   const [isSeeking, setIsSeeking] = useState(false);
   const [sliderValue, setSliderValue] = useState(0);
+  const [waveformPeaks, setWaveformPeaks] = useState<Int8Array | null>(null);
+  const [artworkColors, setArtworkColors] = useState<ArtworkColors | null>(null);
   const [isExiting, setIsExiting] = useState(false);
   const [showNfcModal, setShowNfcModal] = useState(false);
   const isChangingSongRef = useRef(false);
 
+  // Waveform behind the seekbar for tracks that play from a local file
+  const hasDuration = playbackDuration > 0;
+  useEffect(() => {
+    setWaveformPeaks(null);
+    if (!currentSong?.id || !hasDuration) return;
+    let cancelled = false;
+    getActiveTrackWaveform(currentSong.id, WAVEFORM_BARS).then((waveform) => {
+      if (!cancelled && waveform) setWaveformPeaks(waveform.peaks);
+    });
+    return () => {
+      cancelled = true;
+    };
+  }, [currentSong?.id, hasDuration]);
+
+  // Accent and backdrop colors from the artwork; cached natively, so repeats are instant
+  const paletteSource = currentSong ? getImageUrl(currentSong.image, "500x500") : "";
+  useEffect(() => {
+    setArtworkColors(null);
+    if (!paletteSource) return;
+    let cancelled = false;
+    getArtworkColors(paletteSource).then((colors) => {
+      if (!cancelled) setArtworkColors(colors);
+    });
+    return () => {
+      cancelled = true;
+    };
+  }, [paletteSource]);
+  const accentColor = artworkColors?.vibrant || artworkColors?.lightVibrant || "#1DB954";
+
   // --- LYRICS STATE ---
   const [showLyrics, setShowLyrics] = useState(false);
   const [lyricsData, setLyricsData] = useState<any[]>([]);
@@ -943,14 +978,17 @@ export const FullPlayerScreen: React.FC = () => {
   };
 
   const getPlaybackIconColor = () => {
-    return playbackMode !== "normal" && currentSong ? "#1DB954" : "#eee";
+    return playbackMode !== "normal" && currentSong ? accentColor : "#eee";
   };
 
   return (
     <GestureHandlerRootView style={{ flex: 1 }}>
       <ImageBackground
         source={{ uri: artworkUrl }}
-        style={styles.backgroundImage}
+        style={[
+          styles.backgroundImage,
+          artworkColors?.darkMuted ? { backgroundColor: artworkColors.darkMuted } : null,
+        ]}
         blurRadius={30}
         resizeMode="cover"
       >
@@ -1029,14 +1067,23 @@ export const FullPlayerScreen: React.FC = () => {
             <Animated.View
               style={[styles.seekBarContainer, animatedControlsStyle]}
             >
+              {waveformPeaks && (
+                <View style={styles.waveform}>
+                  <WaveformBars
+                    peaks={waveformPeaks}
+                    progress={sliderValue / (playbackDuration || 1)}
+                    height={32}
+                  />
+                </View>
+              )}
               <Slider
                 style={styles.slider}
                 minimumValue={0}
                 maximumValue={playbackDuration || 1}
                 value={sliderValue}
-                minimumTrackTintColor="#1DB954"
+                minimumTrackTintColor={accentColor}
                 maximumTrackTintColor="rgba(255, 255, 255, 0.3)"
-                thumbTintColor="#1DB954"
+                thumbTintColor={accentColor}
                 onSlidingStart={() => setIsSeeking(true)}
                 onSlidingComplete={handleSeek}
                 onValueChange={(value) => setSliderValue(value)}
@@ -1247,6 +1294,12 @@ const styles = StyleSheet.create({
     width: "100%",
     height: 40,
   },
+  waveform: {
+    position: "absolute",
+    top: 24,
+    left: 12,
+    right: 12,
+  },
   timeContainer: {
     flexDirection: "row",
     justifyContent: "space-between",
@@ -10,6 +10,7 @@ import "react-native-reanimated";
 import AnimatedSplash from "@/components/AnimatedSplash";
 import { BatteryOptimizationChecker } from "@/components/BatteryOptimizationChecker";
 import { PlayerProvider } from "@/context/PlayerContext";
+import { refreshLibrary } from "@/services/libraryScanner";
 import { isOnline } from "@/services/networkService";
 import { checkForUpdate, downloadAndInstallUpdate } from "@/services/updateService";
 import * as MediaLibrary from "expo-media-library";
@@ -164,7 +165,8 @@ function AppLayout() {
                 await downloadAndInstallUpdate(
                   criticalUpdate.downloadUrl,
                   `beatit-v${criticalUpdate.version}.apk`,
-                  (progress) => setDownloadProgress(progress)
+                  (progress) => setDownloadProgress(progress),
+                  criticalUpdate
                 );
               } catch (e) {
                 Alert.alert("Update Failed", "Could not download update. Please try again.");
@@ -207,7 +209,8 @@ function AppLayout() {
                 await downloadAndInstallUpdate(
                   criticalUpdate.downloadUrl,
                   `beatit-v${criticalUpdate.version}.apk`,
-                  (progress) => setDownloadProgress(progress)
+                  (progress) => setDownloadProgress(progress),
+                  criticalUpdate
                 );
               } catch (e) {
                 Alert.alert("Update Failed", "Could not download update. Please try again.");
@@ -265,6 +268,8 @@ export default function RootLayout() {
         // Request file permissions for updates
         await requestFilePermissions();
         console.log("App permissions configured.");
+        // Incremental, so cheap after the first run; not awaited to keep startup fast
+        refreshLibrary();
       } catch (e) {
         console.error("Initialization error:", e);
       }
@@ -0,0 +1,56 @@
+import React, { memo } from "react";
+import { StyleSheet, View } from "react-native";
+
+type SpectrumBarsProps = {
+  /** 0..1 band levels as sent by services/audioAnalyzer. */
+  bands: number[];
+  /** Highlights the bars on a detected beat. */
+  beat?: boolean;
+  height: number;
+  color?: string;
+  beatColor?: string;
+};
+
+function SpectrumBarsImpl({
+  bands,
+  beat = false,
+  height,
+  color = "#00ff88",
+  beatColor = "#ff0088",
+}: SpectrumBarsProps) {
+  if (bands.length === 0) return null;
+
+  return (
+    <View pointerEvents="none" style={[styles.container, { height }]}>
+      {bands.map((level, i) => (
+        <View
+          key={i}
+          style={[
+            styles.bar,
+            {
+              height: Math.max(2, Math.min(1, level) * height),
+              backgroundColor: beat ? beatColor : color,
+            },
+          ]}
+        />
+      ))}
+    </View>
+  );
+}
+
+export const SpectrumBars = memo(SpectrumBarsImpl);
+
+const styles = StyleSheet.create({
+  container: {
+    flexDirection: "row",
+    alignItems: "flex-end",
+    justifyContent: "space-between",
+  },
+  bar: {
+    flex: 1,
+    marginHorizontal: 1,
+    borderTopLeftRadius: 2,
+    borderTopRightRadius: 2,
+    opacity: 0.8,
+  },
+});
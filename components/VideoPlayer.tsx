@@ -1,3 +1,8 @@
+import {
+  frameForTime,
+  getVideoThumbnailStrip,
+  ThumbnailStrip,
+} from "@/services/videoThumbnails";
 import FontAwesome from "@expo/vector-icons/FontAwesome";
 import Slider from "@react-native-community/slider";
 import { LinearGradient } from "expo-linear-gradient";
@@ -12,6 +17,7 @@ import { useVideoPlayer, VideoView } from "expo-video";
 import React, { useCallback, useEffect, useRef, useState } from "react";
 import {
   Dimensions,
+  Image,
   Modal,
   Platform,
   ScrollView,
@@ -78,6 +84,8 @@ export default function VideoPlayer({
   const [currentTime, setCurrentTime] = useState(0);
   const [duration, setDuration] = useState(0);
   const [isSeeking, setIsSeeking] = useState(false);
+  const [isScrubbing, setIsScrubbing] = useState(false);
+  const [thumbnailStrip, setThumbnailStrip] = useState<ThumbnailStrip | null>(null);
   const [isLandscape, setIsLandscape] = useState(false);
   const [autoRotate, setAutoRotate] = useState(true);
   const controlsTimeout = useRef<any>(null);
@@ -518,12 +526,26 @@ export default function VideoPlayer({
     hideControlsAfterDelay();
   }, [player, hideControlsAfterDelay, liveSubtitlesEnabled, isRecognizing, startLiveSubtitles, stopLiveSubtitles]);
 
+  // Scrubbing previews come from a cached native thumbnail strip
+  useEffect(() => {
+    setThumbnailStrip(null);
+    if (!visible || !videoUri) return;
+    let cancelled = false;
+    getVideoThumbnailStrip(videoUri).then((strip) => {
+      if (!cancelled) setThumbnailStrip(strip);
+    });
+    return () => {
+      cancelled = true;
+    };
+  }, [visible, videoUri]);
+
   const handleSeek = useCallback((value: number) => {
     setCurrentTime(value);
   }, []);
 
   const handleSeekComplete = useCallback(
     (value: number) => {
+      setIsScrubbing(false);
       try {
         setIsSeeking(true);
         player.currentTime = value;
@@ -1125,6 +1147,15 @@ export default function VideoPlayer({
               colors={["transparent", "rgba(0,0,0,0.8)"]}
               style={styles.bottomBar}
             >
+              {isScrubbing && thumbnailStrip && frameForTime(thumbnailStrip, currentTime) && (
+                <View style={styles.scrubPreview} pointerEvents="none">
+                  <Image
+                    source={{ uri: frameForTime(thumbnailStrip, currentTime)! }}
+                    style={styles.scrubPreviewImage}
+                  />
+                  <Text style={styles.scrubPreviewTime}>{formatTime(currentTime)}</Text>
+                </View>
+              )}
               <View style={styles.progressContainer}>
                 <Text style={styles.timeText}>{formatTime(currentTime)}</Text>
                 <Slider
@@ -1132,6 +1163,7 @@ export default function VideoPlayer({
                   minimumValue={0}
                   maximumValue={Math.max(duration, 1)}
                   value={Math.min(currentTime, duration)}
+                  onSlidingStart={() => setIsScrubbing(true)}
                   onValueChange={handleSeek}
                   onSlidingComplete={handleSeekComplete}
                   minimumTrackTintColor="#ff0066"
@@ -1324,6 +1356,24 @@ const styles = StyleSheet.create({
     marginHorizontal: 0,
     height: 40,
   },
+  scrubPreview: {
+    alignSelf: "center",
+    alignItems: "center",
+    marginBottom: 10,
+  },
+  scrubPreviewImage: {
+    width: 160,
+    height: 90,
+    borderRadius: 6,
+    borderWidth: 1,
+    borderColor: "rgba(255,255,255,0.6)",
+    backgroundColor: "#000",
+  },
+  scrubPreviewTime: {
+    color: "#fff",
+    fontSize: 12,
+    marginTop: 4,
+  },
   timeText: {
     color: "#fff",
     fontSize: 13,
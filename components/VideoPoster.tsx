@@ -0,0 +1,31 @@
+import { getVideoPoster } from "@/services/videoThumbnails";
+import React, { useEffect, useState } from "react";
+import { Image, type ImageStyle, type StyleProp } from "react-native";
+
+type VideoPosterProps = {
+  uri: string;
+  style?: StyleProp<ImageStyle>;
+  maxWidth?: number;
+};
+
+/**
+ * Shows the cached native poster frame for a local video, falling back to the video URI
+ * itself while the frame is generated or when thumbnails are unavailable. Requests the
+ * native queue turns away while busy are retried until the poster unmounts.
+ */
+export function VideoPoster({ uri, style, maxWidth = 480 }: VideoPosterProps) {
+  const [poster, setPoster] = useState<string | null>(null);
+
+  useEffect(() => {
+    let cancelled = false;
+    setPoster(null);
+    getVideoPoster(uri, maxWidth, () => cancelled).then((path) => {
+      if (!cancelled && path) setPoster(path);
+    });
+    return () => {
+      cancelled = true;
+    };
+  }, [uri, maxWidth]);
+
+  return <Image source={{ uri: poster ?? uri }} style={style} />;
+}
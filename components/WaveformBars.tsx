@@ -0,0 +1,59 @@
+import React, { memo } from "react";
+import { StyleSheet, View } from "react-native";
+
+type WaveformBarsProps = {
+  /** Packed min/max pairs as returned by services/waveform. */
+  peaks: ArrayLike<number>;
+  /** 0..1 share of the track already played. */
+  progress: number;
+  height: number;
+  playedColor?: string;
+  remainingColor?: string;
+};
+
+function WaveformBarsImpl({
+  peaks,
+  progress,
+  height,
+  playedColor = "rgba(29, 185, 84, 0.55)",
+  remainingColor = "rgba(255, 255, 255, 0.18)",
+}: WaveformBarsProps) {
+  const bars = Math.floor(peaks.length / 2);
+  if (bars === 0) return null;
+  const playedBars = Math.round(Math.min(1, Math.max(0, progress)) * bars);
+
+  return (
+    <View pointerEvents="none" style={[styles.container, { height }]}>
+      {Array.from({ length: bars }, (_, i) => {
+        const amplitude = (peaks[2 * i + 1] - peaks[2 * i]) / 254;
+        return (
+          <View
+            key={i}
+            style={[
+              styles.bar,
+              {
+                height: Math.max(2, amplitude * height),
+                backgroundColor: i < playedBars ? playedColor : remainingColor,
+              },
+            ]}
+          />
+        );
+      })}
+    </View>
+  );
+}
+
+export const WaveformBars = memo(WaveformBarsImpl);
+
+const styles = StyleSheet.create({
+  container: {
+    flexDirection: "row",
+    alignItems: "center",
+    justifyContent: "space-between",
+  },
+  bar: {
+    flex: 1,
+    marginHorizontal: 0.5,
+    borderRadius: 1,
+  },
+});
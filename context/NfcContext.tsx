@@ -12,6 +12,7 @@ import { BeautifulAlert } from '../components/BeautifulAlert';
 import { ApiSong } from '../services/apiTypes';
 import * as downloadService from '../services/downloadService';
 import {
+  parsePayloadFromUri,
   startNfcListener,
   stopNfcListener,
   validateNfcPayload,
@@ -220,31 +221,14 @@ export const NfcProvider: React.FC<{ children: React.ReactNode }> = ({ children
    */
   const handleNfcUrl = useCallback(async (url: string) => {
     try {
-      // Parse URL to extract payload
-      const urlObj = new URL(url);
-      const params = urlObj.searchParams;
+      // Parse URL to extract payload (sealed `p` form or individual parameters)
+      const payload = await parsePayloadFromUri(url);
 
-      const session = params.get('session');
-      const songId = params.get('songId');
-      const expiry = params.get('expiry');
-
-      if (!session || !songId || !expiry) {
+      if (!payload) {
         Alert.alert('Error', 'Invalid NFC link');
         return;
       }
 
-      const payload: NfcPayload = {
-        session,
-        songId,
-        expiry: parseInt(expiry, 10),
-      };
-
-      const sig = params.get('sig');
-      const secretPublic = params.get('secretPublic');
-
-      if (sig) payload.sig = sig;
-      if (secretPublic) payload.secretPublic = secretPublic;
-
       // Validate payload
       const validation = await validateNfcPayload(payload);
 
@@ -3,11 +3,15 @@ import VideoPlayer from "@/components/VideoPlayer";
 import { useGlobalAlert } from "@/context/GlobalAlertContext";
 import { ApiSong } from "@/services/apiTypes";
 import {
+    applyTrackGain,
     initEqualizer,
     releaseEqualizer,
     setEqualizerGains,
 } from "@/services/audioEq";
+import { prefetchArtworkColors } from "@/services/artworkPalette";
+import { pinCacheFiles, registerCacheFile } from "@/services/cacheStorage";
 import * as downloadService from "@/services/downloadService";
+import { isPrefetchedUri, onPrefetchComplete, pinPrefetched, prefetchTracks } from "@/services/prefetch";
 import AsyncStorage from "@react-native-async-storage/async-storage";
 import * as ExpoFileSystem from "expo-file-system";
 import * as Haptics from "expo-haptics";
@@ -28,11 +32,22 @@ import TrackPlayer, {
     Capability,
     Event,
     State,
+    Track,
     useTrackPlayerEvents,
     useProgress as useTrackPlayerProgress
 } from 'react-native-track-player';
 
 // --- UTILITIES & CONSTANTS ---
+// A queue entry pointing at a local file that has since been evicted or deleted
+async function isMissingLocalFile(url?: string): Promise<boolean> {
+    if (!url || !url.startsWith("file://")) return false;
+    try {
+        return !(await ExpoFileSystem.getInfoAsync(url)).exists;
+    } catch {
+        return false;
+    }
+}
+
 function shuffleArray<T>(array: T[]): T[] {
     if (!array || array.length === 0) return [];
     const shuffled = [...array];
@@ -117,6 +132,9 @@ interface PlayerContextType {
 
 interface FullPlayerContextType extends PlayerContextType, ProgressContextType { }
 
+// How many upcoming queue items to resolve and pre-download
+const PREFETCH_AHEAD = 3;
+
 const PlayerContext = createContext<PlayerContextType | undefined>(undefined);
 const ProgressContext = createContext<ProgressContextType | undefined>(undefined);
 
@@ -168,6 +186,7 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
     const playSongLockRef = useRef(false);
     const playSongTimeoutRef = useRef<ReturnType<typeof setTimeout> | null>(null);
     const isSetup = useRef(false);
+    const queueMutationRef = useRef<Promise<unknown>>(Promise.resolve());
 
     // Video modal handlers
     const openVideoPlayer = useCallback((uri: string, title?: string, width?: number, height?: number) => {
@@ -362,6 +381,79 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
         return undefined;
     }, [songQuality]);
 
+    // Pin the local files the queue points at so cache trimming never pulls one out from
+    // under the player. Cache files (playback copies, imports) are pinned for the whole
+    // queue; prefetched files, which have a tight budget of their own, from the previous
+    // entry onwards. Older prefetched entries are repaired when they play again.
+    const syncQueuePins = useCallback(async () => {
+        try {
+            const tracks = await TrackPlayer.getQueue();
+            const activeIndex = (await TrackPlayer.getActiveTrackIndex()) ?? 0;
+            pinCacheFiles(tracks
+                .map((t) => String(t.url ?? ""))
+                .filter((url) => url.startsWith("file://") && !isPrefetchedUri(url)));
+            const ids = tracks
+                .slice(Math.max(0, activeIndex - 1))
+                .filter((t) => isPrefetchedUri(t.url))
+                .map((t) => String(t.id));
+            await pinPrefetched(ids);
+        } catch (error) {
+            console.warn("[Player] Failed to update queue pins:", error);
+        }
+    }, []);
+
+    // Every remove/add swap on the TrackPlayer queue goes through here, one at a time, so the
+    // prefetch swap and the pre-decrypt swap cannot interleave and misplace entries.
+    // makeTrack sees the entry as it is at that moment and returns null to leave it alone.
+    const swapQueueTrack = useCallback((
+        id: string,
+        makeTrack: (current: Track) => Track | null | Promise<Track | null>,
+        options: { index?: number; allowActive?: boolean } = {},
+    ): Promise<boolean> => {
+        const run = queueMutationRef.current.then(async () => {
+            const tracks = await TrackPlayer.getQueue();
+            const index = options.index !== undefined && tracks[options.index]?.id === id
+                ? options.index
+                : tracks.findIndex((t) => t.id === id);
+            if (index < 0) return false;
+            const isActive = index === (await TrackPlayer.getActiveTrackIndex());
+            if (isActive && !options.allowActive) return false;
+            const next = await makeTrack(tracks[index]);
+            if (!next || next.url === tracks[index].url) return false;
+            await TrackPlayer.remove(index);
+            await TrackPlayer.add(next, index);
+            if (isActive) {
+                await TrackPlayer.skip(index);
+                await TrackPlayer.play();
+            }
+            return true;
+        });
+        queueMutationRef.current = run.then(syncQueuePins).catch(() => { });
+        return run;
+    }, [syncQueuePins]);
+
+    // Resolve and pre-download the next few remote tracks so skips play from a local file
+    const prefetchUpcoming = useCallback(async (fromIndex: number) => {
+        const upcoming = queueRef.current.slice(fromIndex + 1, fromIndex + 1 + PREFETCH_AHEAD);
+        if (upcoming.length === 0) return;
+        prefetchArtworkColors(upcoming.map((upcomingSong) => {
+            if (Array.isArray(upcomingSong.image)) return upcomingSong.image.find((img) => img.quality === "500x500")?.link || upcomingSong.image[0]?.link || "";
+            return typeof upcomingSong.image === "string" ? upcomingSong.image : "";
+        }));
+        try {
+            const downloadedIds = new Set((await downloadService.getDownloadedSongs()).map((s) => s.id));
+            const items: { id: string; url: string }[] = [];
+            for (const upcomingSong of upcoming) {
+                if (downloadedIds.has(upcomingSong.id)) continue; // already local
+                const url = await getSongUrl(upcomingSong);
+                if (url) items.push({ id: upcomingSong.id, url });
+            }
+            await prefetchTracks(items);
+        } catch (error) {
+            console.warn("[Prefetch] Failed to schedule upcoming tracks:", error);
+        }
+    }, [getSongUrl]);
+
     const playSong = useCallback(async (song: ApiSong, force: boolean = false, newQueue?: ApiSong[]) => {
         console.log("[PlaySong] Called with song:", song?.name || song?.title);
         if (!song) return;
@@ -417,6 +509,7 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
 
                     // Copy content to cache
                     await ExpoFileSystem.copyAsync({ from: finalUrl, to: dest });
+                    registerCacheFile(dest, "imported");
                     finalUrl = dest; // Use the new file:// URI
                     console.log("Copied content URI to cache:", finalUrl);
                 } catch (err) {
@@ -560,9 +653,11 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
             try {
                 await initEqualizer(0);
                 setEqualizerGains(eqGains);
+                await applyTrackGain(song.id);
             } catch { }
 
             setTimeout(() => savePlaybackState({ ...songData, name: cleanSongName }, 0, queueToUse, startIndex), 1000);
+            prefetchUpcoming(startIndex);
 
         } catch (error) {
             console.error("Error in playSong:", error);
@@ -576,7 +671,7 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
             setIsLoading(false);
             playSongLockRef.current = false;
         }
-    }, [videoPlayer, songQuality, stop, savePlaybackState, queue, currentIndex, eqGains, openVideoPlayer, getSongUrl, updateMusicWidget, setQueueState]);
+    }, [videoPlayer, songQuality, stop, savePlaybackState, queue, currentIndex, eqGains, openVideoPlayer, getSongUrl, prefetchUpcoming, updateMusicWidget, setQueueState]);
 
     const nextSong = useCallback(async () => {
         try {
@@ -673,16 +768,21 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
         // SAVE PLAYBACK STATE HERE
         savePlaybackState(song, 0, currentQueue, trackIndex);
 
+        // Loudness normalization for the new track
+        applyTrackGain(song.id);
+
         // Decrypt current track if needed
         try {
             const tracks = await TrackPlayer.getQueue();
             const currentTrack = tracks[trackIndex];
 
-            // Check if current track needs decryption (placeholder URL)
+            // Check if current track needs decryption (placeholder URL), or points at a
+            // prefetched file that was evicted since it was swapped in
             const needsDecryption = currentTrack && (
                 !currentTrack.url ||
                 currentTrack.url.includes('saavn.me') ||
-                currentTrack.url.includes('preview')
+                currentTrack.url.includes('preview') ||
+                await isMissingLocalFile(currentTrack.url)
             );
 
             if (needsDecryption) {
@@ -705,18 +805,14 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
                         trackArtwork = song.image;
                     }
 
-                    await TrackPlayer.remove(trackIndex);
-                    await TrackPlayer.add({
+                    // Resumes playback at the current track once swapped
+                    await swapQueueTrack(song.id, () => ({
                         id: song.id,
                         url: decryptedUrl,
                         title: (song.name || song.title || "Unknown").split("(")[0].trim(),
                         artist: trackArtist,
                         artwork: trackArtwork,
-                    }, trackIndex);
-
-                    // Resume playback at current track
-                    await TrackPlayer.skip(trackIndex);
-                    await TrackPlayer.play();
+                    }), { index: trackIndex, allowActive: true });
                 }
             }
         } catch (error) {
@@ -729,9 +825,13 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
             getSongUrl(currentQueue[nextIndex]).then(async (nextUrl) => {
                 if (nextUrl) {
                     try {
-                        const tracks = await TrackPlayer.getQueue();
-                        if (tracks[nextIndex] && tracks[nextIndex].url !== nextUrl) {
-                            const nextSong = currentQueue[nextIndex];
+                        const nextSong = currentQueue[nextIndex];
+                        const swapped = await swapQueueTrack(nextSong.id, async (current) => {
+                            // Leave entries pointing at a live local (prefetched/decrypted) file
+                            // alone; a dead one falls back to the resolved URL
+                            if (String(current.url).startsWith("file://") && !(await isMissingLocalFile(current.url))) {
+                                return null;
+                            }
                             const trackArtist = typeof nextSong.primaryArtists === "string"
                                 ? nextSong.primaryArtists
                                 : Array.isArray(nextSong.primaryArtists)
@@ -745,24 +845,25 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
                                 trackArtwork = nextSong.image;
                             }
 
-                            await TrackPlayer.remove(nextIndex);
-                            await TrackPlayer.add({
+                            return {
                                 id: nextSong.id,
                                 url: nextUrl,
                                 title: (nextSong.name || nextSong.title || "Unknown").split("(")[0].trim(),
                                 artist: trackArtist,
                                 artwork: trackArtwork,
-                            }, nextIndex);
-
-                            console.log("[HandleTrackChange] Pre-decrypted next track");
-                        }
+                            };
+                        }, { index: nextIndex });
+                        if (swapped) console.log("[HandleTrackChange] Pre-decrypted next track");
                     } catch (error) {
                         console.warn("[HandleTrackChange] Failed to pre-decrypt next track:", error);
                     }
                 }
             }).catch(err => console.warn("[HandleTrackChange] Background decryption failed:", err));
         }
-    }, [getSongUrl, setCurrentSong, setPendingSongId, setCurrentIndex, savePlaybackState]);
+
+        syncQueuePins();
+        prefetchUpcoming(trackIndex);
+    }, [getSongUrl, prefetchUpcoming, swapQueueTrack, syncQueuePins, setCurrentSong, setPendingSongId, setCurrentIndex, savePlaybackState]);
 
     // Toggle play/pause
     const togglePlayPause = useCallback(async () => {
@@ -983,6 +1084,17 @@ export const PlayerProvider: React.FC<{ children: React.ReactNode }> = ({ childr
     // Sync EQ gains to native
     useEffect(() => { try { setEqualizerGains(eqGains); } catch { } }, [eqGains]);
 
+    // Point upcoming queue entries at prefetched local files once they finish downloading
+    useEffect(() => {
+        return onPrefetchComplete(async ({ id, path }) => {
+            try {
+                await swapQueueTrack(id, (current) => ({ ...current, url: path }));
+            } catch (error) {
+                console.warn("[Prefetch] Failed to swap in prefetched track:", error);
+            }
+        });
+    }, [swapQueueTrack]);
+
     // Release equalizer on unmount
     useEffect(() => { return () => { try { releaseEqualizer(); } catch { } }; }, []);
 
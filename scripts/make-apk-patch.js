@@ -0,0 +1,267 @@
+#!/usr/bin/env node
+
+/**
+ * Builds a binary delta between two APKs for the in-app updater (ApkPatcher.java).
+ *
+ *   node ./scripts/make-apk-patch.js <old.apk> <new.apk> <out.patch> <fromVersionCode> [patchUrl]
+ *
+ * Uses bsdiff's algorithm (Larsson-Sadakane suffix sort, then approximate matches
+ * extended forwards and backwards) and writes the BTPATCH1 container: magic, old size,
+ * new size, and one deflated stream of (diff length, extra length, seek) records each
+ * followed by its diff and extra bytes. Prints the update.json fields for the new APK,
+ * with this patch as a `patches` entry for installs at fromVersionCode (the versionCode
+ * of old.apk).
+ */
+
+const crypto = require("crypto");
+const fs = require("fs");
+const zlib = require("zlib");
+
+function split(I, V, start, len, h) {
+  let i, j, k, x, tmp;
+  if (len < 16) {
+    for (k = start; k < start + len; k += j) {
+      j = 1;
+      x = V[I[k] + h];
+      for (i = 1; k + i < start + len; i++) {
+        if (V[I[k + i] + h] < x) {
+          x = V[I[k + i] + h];
+          j = 0;
+        }
+        if (V[I[k + i] + h] === x) {
+          tmp = I[k + j];
+          I[k + j] = I[k + i];
+          I[k + i] = tmp;
+          j++;
+        }
+      }
+      for (i = 0; i < j; i++) V[I[k + i]] = k + j - 1;
+      if (j === 1) I[k] = -1;
+    }
+    return;
+  }
+
+  x = V[I[start + (len >> 1)] + h];
+  let jj = 0;
+  let kk = 0;
+  for (i = start; i < start + len; i++) {
+    if (V[I[i] + h] < x) jj++;
+    if (V[I[i] + h] === x) kk++;
+  }
+  jj += start;
+  kk += jj;
+
+  i = start;
+  j = 0;
+  k = 0;
+  while (i < jj) {
+    if (V[I[i] + h] < x) {
+      i++;
+    } else if (V[I[i] + h] === x) {
+      tmp = I[i];
+      I[i] = I[jj + j];
+      I[jj + j] = tmp;
+      j++;
+    } else {
+      tmp = I[i];
+      I[i] = I[kk + k];
+      I[kk + k] = tmp;
+      k++;
+    }
+  }
+  while (jj + j < kk) {
+    if (V[I[jj + j] + h] === x) {
+      j++;
+    } else {
+      tmp = I[jj + j];
+      I[jj + j] = I[kk + k];
+      I[kk + k] = tmp;
+      k++;
+    }
+  }
+
+  if (jj > start) split(I, V, start, jj - start, h);
+  for (i = 0; i < kk - jj; i++) V[I[jj + i]] = kk - 1;
+  if (jj === kk - 1) I[jj] = -1;
+  if (start + len > kk) split(I, V, kk, start + len - kk, h);
+}
+
+function suffixSort(old) {
+  const n = old.length;
+  const I = new Int32Array(n + 1);
+  const V = new Int32Array(n + 1);
+  const buckets = new Int32Array(256);
+
+  for (let i = 0; i < n; i++) buckets[old[i]]++;
+  for (let i = 1; i < 256; i++) buckets[i] += buckets[i - 1];
+  for (let i = 255; i > 0; i--) buckets[i] = buckets[i - 1];
+  buckets[0] = 0;
+
+  for (let i = 0; i < n; i++) I[++buckets[old[i]]] = i;
+  I[0] = n;
+  for (let i = 0; i < n; i++) V[i] = buckets[old[i]];
+  V[n] = 0;
+  for (let i = 1; i < 256; i++) if (buckets[i] === buckets[i - 1] + 1) I[buckets[i]] = -1;
+  I[0] = -1;
+
+  for (let h = 1; I[0] !== -(n + 1); h += h) {
+    let len = 0;
+    let i = 0;
+    while (i < n + 1) {
+      if (I[i] < 0) {
+        len -= I[i];
+        i -= I[i];
+      } else {
+        if (len) I[i - len] = -len;
+        len = V[I[i]] + 1 - i;
+        split(I, V, i, len, h);
+        i += len;
+        len = 0;
+      }
+    }
+    if (len) I[i - len] = -len;
+  }
+
+  for (let i = 0; i < n + 1; i++) I[V[i]] = i;
+  return I;
+}
+
+function matchLength(old, oldStart, next, nextStart) {
+  let i = 0;
+  while (oldStart + i < old.length && nextStart + i < next.length && old[oldStart + i] === next[nextStart + i]) i++;
+  return i;
+}
+
+function search(I, old, next, nextStart, st, en) {
+  while (en - st >= 2) {
+    const x = st + ((en - st) >> 1);
+    const n = Math.min(old.length - I[x], next.length - nextStart);
+    const cmp = Buffer.compare(old.subarray(I[x], I[x] + n), next.subarray(nextStart, nextStart + n));
+    if (cmp < 0) st = x;
+    else en = x;
+  }
+  const a = matchLength(old, I[st], next, nextStart);
+  const b = matchLength(old, I[en], next, nextStart);
+  return a > b ? { pos: I[st], len: a } : { pos: I[en], len: b };
+}
+
+function diff(old, next) {
+  const I = suffixSort(old);
+  const records = [];
+  const oldSize = old.length;
+  const newSize = next.length;
+
+  let scan = 0;
+  let len = 0;
+  let pos = 0;
+  let lastScan = 0;
+  let lastPos = 0;
+  let lastOffset = 0;
+
+  while (scan < newSize) {
+    let oldScore = 0;
+    scan += len;
+    for (let scsc = scan; scan < newSize; scan++) {
+      ({ pos, len } = search(I, old, next, scan, 0, oldSize));
+      for (; scsc < scan + len; scsc++) {
+        if (scsc + lastOffset < oldSize && old[scsc + lastOffset] === next[scsc]) oldScore++;
+      }
+      if ((len === oldScore && len !== 0) || len > oldScore + 8) break;
+      if (scan + lastOffset < oldSize && old[scan + lastOffset] === next[scan]) oldScore--;
+    }
+
+    if (len !== oldScore || scan === newSize) {
+      let s = 0;
+      let sf = 0;
+      let lenf = 0;
+      for (let i = 0; lastScan + i < scan && lastPos + i < oldSize; ) {
+        if (old[lastPos + i] === next[lastScan + i]) s++;
+        i++;
+        if (s * 2 - i > sf * 2 - lenf) {
+          sf = s;
+          lenf = i;
+        }
+      }
+
+      let lenb = 0;
+      if (scan < newSize) {
+        let sb = 0;
+        s = 0;
+        for (let i = 1; scan >= lastScan + i && pos >= i; i++) {
+          if (old[pos - i] === next[scan - i]) s++;
+          if (s * 2 - i > sb * 2 - lenb) {
+            sb = s;
+            lenb = i;
+          }
+        }
+      }
+
+      if (lastScan + lenf > scan - lenb) {
+        const overlap = lastScan + lenf - (scan - lenb);
+        let ss = 0;
+        let lens = 0;
+        s = 0;
+        for (let i = 0; i < overlap; i++) {
+          if (next[lastScan + lenf - overlap + i] === old[lastPos + lenf - overlap + i]) s++;
+          if (next[scan - lenb + i] === old[pos - lenb + i]) s--;
+          if (s > ss) {
+            ss = s;
+            lens = i + 1;
+          }
+        }
+        lenf += lens - overlap;
+        lenb -= lens;
+      }
+
+      const extraLen = scan - lenb - (lastScan + lenf);
+      const record = Buffer.alloc(24 + lenf + extraLen);
+      record.writeBigInt64BE(BigInt(lenf), 0);
+      record.writeBigInt64BE(BigInt(extraLen), 8);
+      record.writeBigInt64BE(BigInt(pos - lenb - (lastPos + lenf)), 16);
+      for (let i = 0; i < lenf; i++) record[24 + i] = (next[lastScan + i] - old[lastPos + i]) & 0xff;
+      next.copy(record, 24 + lenf, lastScan + lenf, scan - lenb);
+      records.push(record);
+
+      lastScan = scan - lenb;
+      lastPos = pos - lenb;
+      lastOffset = pos - scan;
+    }
+  }
+  return Buffer.concat(records);
+}
+
+function sha256(buffer) {
+  return crypto.createHash("sha256").update(buffer).digest("hex");
+}
+
+function main() {
+  const [oldPath, newPath, outPath, fromArg, url = "<patch url>"] = process.argv.slice(2);
+  const fromVersionCode = Number(fromArg);
+  if (!oldPath || !newPath || !outPath || !Number.isInteger(fromVersionCode) || fromVersionCode <= 0) {
+    console.error("Usage: make-apk-patch.js <old.apk> <new.apk> <out.patch> <fromVersionCode> [patchUrl]");
+    process.exit(1);
+  }
+  const old = fs.readFileSync(oldPath);
+  const next = fs.readFileSync(newPath);
+
+  const header = Buffer.alloc(24);
+  header.write("BTPATCH1", 0, "latin1");
+  header.writeBigInt64BE(BigInt(old.length), 8);
+  header.writeBigInt64BE(BigInt(next.length), 16);
+  const patch = Buffer.concat([header, zlib.deflateSync(diff(old, next), { level: 9 })]);
+  fs.writeFileSync(outPath, patch);
+
+  console.log(
+    JSON.stringify(
+      {
+        size: next.length,
+        sha256: sha256(next),
+        patches: [{ fromVersionCode, url, size: patch.length, sha256: sha256(patch) }],
+      },
+      null,
+      2,
+    ),
+  );
+}
+
+main();
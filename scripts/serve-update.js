@@ -0,0 +1,70 @@
+#!/usr/bin/env node
+
+/**
+ * Local stand-in for the update host, for testing the in-app updater on a debug build.
+ *
+ *   node ./scripts/serve-update.js <dir> [port]
+ *   EXPO_PUBLIC_UPDATE_JSON_URL=http://10.0.2.2:8089/update.json npx expo start
+ *
+ * Serves the files in <dir> (update.json, APKs, patches) with Range support so resumed
+ * downloads can be exercised. Pass --drop-after=<bytes> to cut every response off after
+ * that many bytes, simulating a flaky connection.
+ */
+
+const fs = require("fs");
+const http = require("http");
+const path = require("path");
+
+const args = process.argv.slice(2).filter((a) => !a.startsWith("--"));
+const dropArg = process.argv.find((a) => a.startsWith("--drop-after="));
+const dropAfter = dropArg ? parseInt(dropArg.split("=")[1], 10) : 0;
+const root = path.resolve(args[0] || ".");
+const port = parseInt(args[1] || "8089", 10);
+
+http
+  .createServer((req, res) => {
+    const name = decodeURIComponent(new URL(req.url, "http://localhost").pathname).replace(/^\/+/, "");
+    const file = path.join(root, name);
+    if (!file.startsWith(root) || !fs.existsSync(file) || !fs.statSync(file).isFile()) {
+      res.writeHead(404).end();
+      console.log(`404 ${req.url}`);
+      return;
+    }
+
+    const size = fs.statSync(file).size;
+    let start = 0;
+    let end = size - 1;
+    const range = /^bytes=(\d+)-(\d*)$/.exec(req.headers.range || "");
+    if (range) {
+      start = parseInt(range[1], 10);
+      if (range[2]) end = Math.min(end, parseInt(range[2], 10));
+      if (start > end) {
+        res.writeHead(416, { "Content-Range": `bytes */${size}` }).end();
+        return;
+      }
+    }
+
+    const headers = {
+      "Content-Length": end - start + 1,
+      "Accept-Ranges": "bytes",
+      "Content-Type": name.endsWith(".json") ? "application/json" : "application/octet-stream",
+    };
+    if (range) headers["Content-Range"] = `bytes ${start}-${end}/${size}`;
+    res.writeHead(range ? 206 : 200, headers);
+    console.log(`${range ? 206 : 200} ${req.url} bytes ${start}-${end}/${size}`);
+
+    const stream = fs.createReadStream(file, { start, end });
+    if (dropAfter > 0 && !name.endsWith(".json")) {
+      let sent = 0;
+      stream.on("data", (chunk) => {
+        sent += chunk.length;
+        if (sent >= dropAfter) {
+          console.log(`  dropping connection after ${sent} bytes`);
+          stream.destroy();
+          res.destroy();
+        }
+      });
+    }
+    stream.pipe(res);
+  })
+  .listen(port, () => console.log(`Serving ${root} on http://0.0.0.0:${port}`));
@@ -0,0 +1,52 @@
+// services/artworkPalette.ts
+// Theme colors from album art, computed natively and cached by artwork hash
+
+import { NativeModules, Platform } from "react-native";
+
+const { ArtworkPalette } = NativeModules as any;
+
+export interface ArtworkColors {
+  dominant: string | null;
+  vibrant: string | null;
+  darkVibrant: string | null;
+  lightVibrant: string | null;
+  muted: string | null;
+  darkMuted: string | null;
+  lightMuted: string | null;
+  onDominant?: string | null;
+  hash: string;
+}
+
+export const isArtworkPaletteAvailable = () => {
+  return Platform.OS === "android" && !!ArtworkPalette;
+};
+
+/**
+ * Colors for an artwork URL / file path. Cache hits resolve without touching the image.
+ */
+export const getArtworkColors = async (
+  source: string,
+): Promise<ArtworkColors | null> => {
+  if (!isArtworkPaletteAvailable() || !source) return null;
+  try {
+    return await ArtworkPalette.getColors(source);
+  } catch (e) {
+    console.warn("[ArtworkPalette] getColors failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Warm the cache in the background, e.g. for upcoming queue items
+ */
+export const prefetchArtworkColors = (sources: string[]) => {
+  if (!isArtworkPaletteAvailable()) return;
+  const list = sources.filter((s) => !!s);
+  if (list.length > 0) ArtworkPalette.prefetch(list);
+};
+
+export default {
+  isArtworkPaletteAvailable,
+  getArtworkColors,
+  prefetchArtworkColors,
+};
@@ -0,0 +1,83 @@
+import { NativeEventEmitter, NativeModules, PermissionsAndroid, Platform } from "react-native";
+
+const { AudioAnalyzerModule } = NativeModules as any;
+
+export interface AnalyzerFrame {
+  bands: number[];
+  level: number;
+  beat: boolean;
+  bpm: number;
+  t: number;
+}
+
+export interface AnalyzerOptions {
+  bands?: number;
+  maxFps?: number;
+  attack?: number;
+  release?: number;
+  sensitivity?: number;
+}
+
+const emitter = AudioAnalyzerModule
+  ? new NativeEventEmitter(AudioAnalyzerModule)
+  : null;
+
+export const isAudioAnalyzerAvailable = () => {
+  return Platform.OS === "android" && !!AudioAnalyzerModule;
+};
+
+/**
+ * The Visualizer needs RECORD_AUDIO at runtime (API 23+) even though it only reads the
+ * app's own output. Resolves whether it was granted.
+ */
+export const requestAnalyzerPermission = async () => {
+  if (!isAudioAnalyzerAvailable()) return false;
+  try {
+    const result = await PermissionsAndroid.request(
+      PermissionsAndroid.PERMISSIONS.RECORD_AUDIO,
+    );
+    return result === PermissionsAndroid.RESULTS.GRANTED;
+  } catch (e) {
+    console.warn("requestAnalyzerPermission failed:", e);
+  }
+  return false;
+};
+
+export const startAudioAnalyzer = async (
+  sessionId?: number,
+  options: AnalyzerOptions = {},
+) => {
+  if (!isAudioAnalyzerAvailable()) return false;
+  try {
+    await AudioAnalyzerModule.start(sessionId ?? 0, options);
+    return true;
+  } catch (e) {
+    console.warn("startAudioAnalyzer failed:", e);
+  }
+  return false;
+};
+
+export const stopAudioAnalyzer = async () => {
+  if (!isAudioAnalyzerAvailable()) return false;
+  try {
+    await AudioAnalyzerModule.stop();
+    return true;
+  } catch (e) {
+    console.warn("stopAudioAnalyzer failed:", e);
+  }
+  return false;
+};
+
+export const onAnalyzerFrame = (listener: (frame: AnalyzerFrame) => void) => {
+  if (!emitter) return () => {};
+  const sub = emitter.addListener("AudioAnalyzerFrame", listener);
+  return () => sub.remove();
+};
+
+export default {
+  isAudioAnalyzerAvailable,
+  requestAnalyzerPermission,
+  startAudioAnalyzer,
+  stopAudioAnalyzer,
+  onAnalyzerFrame,
+};
@@ -46,6 +46,23 @@ export const enableEqualizer = (enabled: boolean) => {
   return false;
 };
 
+/**
+ * Apply the stored loudness-normalization gain for a track (0 dB when not analysed).
+ * Call after initEqualizer when a track starts.
+ */
+export const applyTrackGain = async (trackId: string) => {
+  if (!isNativeEqualizerAvailable()) return false;
+  try {
+    if (typeof EqualizerModule.applyTrackGain === "function") {
+      await EqualizerModule.applyTrackGain(trackId);
+      return true;
+    }
+  } catch (e) {
+    console.warn("applyTrackGain failed:", e);
+  }
+  return false;
+};
+
 export const releaseEqualizer = () => {
   if (!isNativeEqualizerAvailable()) return false;
   try {
@@ -64,5 +81,6 @@ export default {
   initEqualizer,
   setEqualizerGains,
   enableEqualizer,
+  applyTrackGain,
   releaseEqualizer,
 };
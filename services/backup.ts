@@ -0,0 +1,241 @@
+// services/backup.ts
+// Single-file backup and restore of offline downloads, EQ presets and cached lyrics
+
+import AsyncStorage from "@react-native-async-storage/async-storage";
+import * as FileSystem from "expo-file-system";
+import { NativeEventEmitter, NativeModules, Platform } from "react-native";
+import { indexDownloadedSongs, indexLyrics } from "./offlineSearch";
+
+const { Backup } = NativeModules as any;
+
+const emitter = Backup ? new NativeEventEmitter(Backup) : null;
+
+const DOWNLOADS_INDEX_KEY = "downloaded_songs_index";
+const EQ_SETTINGS_KEY = "eq_settings";
+const EQ_SONG_PREFIX = "eq_song_";
+const LYRICS_INDEX_KEY = "lyrics_cache_index";
+const LYRICS_CACHE_PREFIX = "lyrics_cache_";
+
+// BackupModule reads documentDirectory from this part to move loudness track ids
+const INFO_PART = "backup_info.json";
+const CATALOG_PART = "catalog.json";
+const EQ_PART = "eq.json";
+const LYRICS_PART = "lyrics.json";
+
+const BACKUP_EXTENSION = ".bbk";
+const BACKUP_MIME = "application/octet-stream";
+
+export interface BackupProgress {
+  phase: "backup" | "restore";
+  /** Archive entry being processed, null on the final event. */
+  entry: string | null;
+  bytes: number;
+  total: number;
+}
+
+export interface BackupResult {
+  uri: string;
+  bytes: number;
+  files: number;
+  parts: number;
+}
+
+export interface RestoreResult {
+  /** Files written; files already present and identical are counted in skipped. */
+  files: number;
+  skipped: number;
+  bytes: number;
+  /** Loudness rows imported for tracks that had none. */
+  loudness: number;
+  /** AsyncStorage keys added; keys that already exist locally are left alone. */
+  keys: number;
+  /** Downloaded songs added to the downloads index. */
+  songs: number;
+  createdAt: number;
+}
+
+export const isBackupAvailable = () => {
+  return Platform.OS === "android" && !!Backup;
+};
+
+const readKeys = async (keys: readonly string[]): Promise<Record<string, string>> => {
+  const out: Record<string, string> = {};
+  if (keys.length === 0) return out;
+  for (const [key, value] of await AsyncStorage.multiGet(keys)) {
+    if (value != null) out[key] = value;
+  }
+  return out;
+};
+
+const parseJson = <T>(json: string | null | undefined, fallback: T): T => {
+  if (!json) return fallback;
+  try {
+    return JSON.parse(json);
+  } catch {
+    return fallback;
+  }
+};
+
+const { StorageAccessFramework: SAF } = FileSystem;
+
+/**
+ * Ask the user for a folder (SAF) and create a dated .bbk document in it. Null when the
+ * user cancels. The backup lives wherever they chose, so it survives an uninstall.
+ */
+export const pickBackupDestination = async (): Promise<string | null> => {
+  const permission = await SAF.requestDirectoryPermissionsAsync();
+  if (!permission.granted) return null;
+  const stamp = new Date().toISOString().slice(0, 19).replace(/[-:]/g, "").replace("T", "-");
+  return await SAF.createFileAsync(
+    permission.directoryUri,
+    `beatit-backup-${stamp}${BACKUP_EXTENSION}`,
+    BACKUP_MIME,
+  );
+};
+
+/**
+ * Ask the user for the folder holding their backups (SAF) and list the .bbk documents in
+ * it, newest first. Null when the user cancels.
+ */
+export const pickBackupSource = async (): Promise<{ uri: string; name: string }[] | null> => {
+  const permission = await SAF.requestDirectoryPermissionsAsync();
+  if (!permission.granted) return null;
+  return (await SAF.readDirectoryAsync(permission.directoryUri))
+    .map((uri) => ({ uri, name: decodeURIComponent(uri).split("/").pop() ?? "" }))
+    .filter((doc) => doc.name.endsWith(BACKUP_EXTENSION))
+    // Dated names sort chronologically
+    .sort((a, b) => b.name.localeCompare(a.name));
+};
+
+/**
+ * Write a backup of all downloaded songs and their metadata to destUri, a SAF document
+ * (see pickBackupDestination). Without one the user is asked to choose; resolves null
+ * if they cancel.
+ */
+export const createBackup = async (
+  destUri?: string | null,
+  onProgress?: (progress: BackupProgress) => void,
+): Promise<BackupResult | null> => {
+  if (!isBackupAvailable()) {
+    throw new Error("Backup native module is not available");
+  }
+  const dest = destUri || (await pickBackupDestination());
+  if (!dest) return null;
+
+  const allKeys = await AsyncStorage.getAllKeys();
+  const eqKeys = allKeys.filter((k) => k === EQ_SETTINGS_KEY || k.startsWith(EQ_SONG_PREFIX));
+  const lyricsKeys = allKeys.filter((k) => k.startsWith(LYRICS_CACHE_PREFIX));
+
+  const parts: Record<string, string> = {
+    [INFO_PART]: JSON.stringify({
+      documentDirectory: FileSystem.documentDirectory,
+      createdAt: Date.now(),
+    }),
+    [CATALOG_PART]: JSON.stringify(await readKeys([DOWNLOADS_INDEX_KEY])),
+    [EQ_PART]: JSON.stringify(await readKeys(eqKeys)),
+    [LYRICS_PART]: JSON.stringify(await readKeys(lyricsKeys)),
+  };
+
+  const sub = onProgress && emitter ? emitter.addListener("BackupProgress", onProgress) : null;
+  try {
+    return await Backup.createBackup(dest, parts);
+  } catch (e) {
+    // Do not leave an empty document behind in the folder we created it in
+    if (!destUri) await SAF.deleteAsync(dest, { idempotent: true }).catch(() => {});
+    throw e;
+  } finally {
+    sub?.remove();
+  }
+};
+
+/**
+ * Restore a backup. Only files that are missing or differ are written, an interrupted
+ * restore picks up where it stopped, and local metadata wins over the backup's.
+ */
+export const restoreBackup = async (
+  srcUri: string,
+  onProgress?: (progress: BackupProgress) => void,
+): Promise<RestoreResult> => {
+  if (!isBackupAvailable()) {
+    throw new Error("Backup native module is not available");
+  }
+
+  const sub = onProgress && emitter ? emitter.addListener("BackupProgress", onProgress) : null;
+  let native: Omit<RestoreResult, "keys" | "songs"> & { parts: Record<string, string> };
+  try {
+    native = await Backup.restoreBackup(srcUri, FileSystem.documentDirectory);
+  } finally {
+    sub?.remove();
+  }
+
+  const info = parseJson<{ documentDirectory?: string }>(native.parts[INFO_PART], {});
+  const catalog = parseJson<Record<string, string>>(native.parts[CATALOG_PART], {});
+  const eq = parseJson<Record<string, string>>(native.parts[EQ_PART], {});
+  const lyrics = parseJson<Record<string, string>>(native.parts[LYRICS_PART], {});
+
+  // Downloads index: paths point into the old install's documentDirectory
+  let added: any[] = [];
+  const backupIndex = catalog[DOWNLOADS_INDEX_KEY];
+  if (backupIndex) {
+    const from = info.documentDirectory;
+    const to = FileSystem.documentDirectory;
+    const rewritten = from && to && from !== to ? backupIndex.split(from).join(to) : backupIndex;
+    const local = parseJson<any[]>(await AsyncStorage.getItem(DOWNLOADS_INDEX_KEY), []);
+    const known = new Set(local.map((s) => s.id));
+    added = parseJson<any[]>(rewritten, []).filter((s) => !known.has(s.id));
+    if (added.length > 0) {
+      await AsyncStorage.setItem(DOWNLOADS_INDEX_KEY, JSON.stringify([...local, ...added]));
+    }
+  }
+
+  // EQ and lyrics: only keys this install does not have yet
+  const { [LYRICS_INDEX_KEY]: backupLyricsIndex, ...lyricsEntries } = lyrics;
+  const candidates = { ...eq, ...lyricsEntries };
+  const existing = new Set(await AsyncStorage.getAllKeys());
+  const missing = Object.entries(candidates).filter(([key]) => !existing.has(key));
+  if (missing.length > 0) {
+    await AsyncStorage.multiSet(missing);
+  }
+
+  if (backupLyricsIndex) {
+    const local = parseJson<Record<string, unknown>>(await AsyncStorage.getItem(LYRICS_INDEX_KEY), {});
+    const merged = { ...parseJson<Record<string, unknown>>(backupLyricsIndex, {}), ...local };
+    await AsyncStorage.setItem(LYRICS_INDEX_KEY, JSON.stringify(merged));
+  }
+
+  // Rebuild the offline search index for what was added
+  await indexDownloadedSongs(added);
+  for (const [key, value] of missing) {
+    if (!key.startsWith(LYRICS_CACHE_PREFIX)) continue;
+    const entry = parseJson<{ lyrics?: string; songName?: string; artistName?: string } | null>(value, null);
+    if (entry?.lyrics) {
+      await indexLyrics(
+        key.slice(LYRICS_CACHE_PREFIX.length),
+        entry.songName ?? "",
+        entry.artistName ?? "",
+        entry.lyrics,
+      );
+    }
+  }
+
+  const { parts: _parts, ...counts } = native;
+  return { ...counts, keys: missing.length, songs: added.length };
+};
+
+export const cancelBackup = async (): Promise<void> => {
+  if (!isBackupAvailable()) return;
+  try {
+    await Backup.cancel();
+  } catch (e) {
+    console.warn("[Backup] cancel failed:", e);
+  }
+};
+
+export default {
+  isBackupAvailable,
+  pickBackupDestination,
+  pickBackupSource,
+  createBackup,
+  restoreBackup,
+  cancelBackup,
+};
@@ -0,0 +1,94 @@
+// services/cacheStorage.ts
+// Per-category cache accounting, quotas and trimming from the native CacheStorage module
+
+import { NativeModules, Platform } from "react-native";
+
+const { CacheStorage } = NativeModules as any;
+
+export interface CacheCategoryUsage {
+  name: string;
+  bytes: number;
+  files: number;
+  /** -1 for categories that are reported but never evicted. */
+  quotaBytes: number;
+  /** 0 when the category has no TTL. */
+  ttlMs: number;
+  evictedBytes: number;
+  evictedFiles: number;
+}
+
+export interface CacheUsage {
+  totalBytes: number;
+  categories: CacheCategoryUsage[];
+}
+
+export const isCacheStorageAvailable = () => {
+  return Platform.OS === "android" && !!CacheStorage;
+};
+
+export const getCacheUsage = async (): Promise<CacheUsage | null> => {
+  if (!isCacheStorageAvailable()) return null;
+  try {
+    return await CacheStorage.getUsage();
+  } catch (e) {
+    console.warn("[CacheStorage] getUsage failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Apply quotas and TTLs now; resolves the bytes freed
+ */
+export const trimCache = async (): Promise<number> => {
+  if (!isCacheStorageAvailable()) return 0;
+  try {
+    return await CacheStorage.trim();
+  } catch (e) {
+    console.warn("[CacheStorage] trim failed:", e);
+    return 0;
+  }
+};
+
+export const clearCacheCategory = async (name: string): Promise<number> => {
+  if (!isCacheStorageAvailable()) return 0;
+  try {
+    return await CacheStorage.clearCategory(name);
+  } catch (e) {
+    console.warn("[CacheStorage] clearCategory failed:", e);
+    return 0;
+  }
+};
+
+/**
+ * Record a cache file whose name does not say what it is (e.g. copied media)
+ */
+export const registerCacheFile = (path: string, category: "imported") => {
+  if (!isCacheStorageAvailable()) return;
+  CacheStorage.register(path, category);
+};
+
+/**
+ * Replace the set of files trimming must not delete: the local files the player queue uses
+ */
+export const pinCacheFiles = (uris: string[]) => {
+  if (!isCacheStorageAvailable()) return;
+  CacheStorage.setPinned(uris);
+};
+
+/**
+ * Mark a cache file as recently used so LRU trimming keeps it
+ */
+export const touchCacheFile = (path: string) => {
+  if (!isCacheStorageAvailable()) return;
+  CacheStorage.touch(path);
+};
+
+export default {
+  isCacheStorageAvailable,
+  getCacheUsage,
+  trimCache,
+  clearCacheCategory,
+  registerCacheFile,
+  pinCacheFiles,
+  touchCacheFile,
+};
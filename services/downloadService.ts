@@ -2,9 +2,19 @@ import AsyncStorage from "@react-native-async-storage/async-storage";
 import * as Crypto from "expo-crypto";
 import * as FileSystem from "expo-file-system";
 import { ApiSong } from "./apiTypes";
+import { analyzeTrackLoudness, removeTrackLoudness } from "./loudness";
+import {
+  indexDownloadedSongs,
+  isOfflineSearchAvailable,
+  removeDownloadedSong,
+  syncDownloadedSongs,
+} from "./offlineSearch";
 
 const DOWNLOADS_DIR = `${FileSystem.documentDirectory}secure_downloads/`;
 const DOWNLOADS_INDEX_KEY = "downloaded_songs_index";
+// Bump to force one full resync of the native search index with the downloads index
+const SEARCH_SYNC_VERSION = "1";
+const SEARCH_SYNC_KEY = "offline_search_synced";
 
 interface DownloadedSong extends ApiSong {
   localPath: string;
@@ -54,6 +64,19 @@ export async function getDownloadedSongs(): Promise<DownloadedSong[]> {
   }
 }
 
+// Downloads and deletes keep the search index current; this only catches up downloads
+// made before the index existed
+export async function syncSearchIndexOnce(): Promise<void> {
+  if (!isOfflineSearchAvailable()) return;
+  try {
+    if ((await AsyncStorage.getItem(SEARCH_SYNC_KEY)) === SEARCH_SYNC_VERSION) return;
+    await syncDownloadedSongs(await getDownloadedSongs());
+    await AsyncStorage.setItem(SEARCH_SYNC_KEY, SEARCH_SYNC_VERSION);
+  } catch (error) {
+    console.warn("Error syncing offline search index:", error);
+  }
+}
+
 // Check if a song is downloaded
 export async function isSongDownloaded(songId: string): Promise<boolean> {
   const downloaded = await getDownloadedSongs();
@@ -108,6 +131,8 @@ export async function downloadSong(
 ): Promise<DownloadedSong> {
   await ensureDownloadsDir();
 
+  // Plain (unencrypted) copy of the track; deleted here unless handed to the loudness pass
+  let tempPath: string | null = null;
   try {
     // Get download URL
     const downloadUrl = await getSongDownloadUrl(song, quality);
@@ -121,7 +146,7 @@ export async function downloadSong(
       song.id + Date.now().toString()
     );
     const fileName = `${hash.substring(0, 16)}.enc`;
-    const tempPath = `${FileSystem.cacheDirectory}${fileName}.tmp`;
+    tempPath = `${FileSystem.cacheDirectory}${fileName}.tmp`;
     const finalPath = `${DOWNLOADS_DIR}${fileName}`;
 
     // Download to temp location
@@ -167,8 +192,13 @@ export async function downloadSong(
 
     console.log("Written encrypted file to:", finalPath);
 
-    // Delete temp file
-    await FileSystem.deleteAsync(tempPath, { idempotent: true });
+    // Measure loudness from the plain temp file in the background, then delete it. If the
+    // app dies first, the download_temp cache category reclaims it.
+    const analysisPath = tempPath;
+    tempPath = null;
+    analyzeTrackLoudness(analysisPath, song.id).finally(() => {
+      FileSystem.deleteAsync(analysisPath, { idempotent: true }).catch(() => {});
+    });
 
     // Get original file size (from temp file info before deletion)
     const originalFileSize =
@@ -225,11 +255,16 @@ export async function downloadSong(
       DOWNLOADS_INDEX_KEY,
       JSON.stringify(updatedDownloads)
     );
+    await indexDownloadedSongs([downloadedSong]);
 
     return downloadedSong;
   } catch (error) {
     console.error("Error downloading song:", error);
     throw error;
+  } finally {
+    if (tempPath) {
+      await FileSystem.deleteAsync(tempPath, { idempotent: true }).catch(() => {});
+    }
   }
 }
 
@@ -242,6 +277,8 @@ export async function deleteDownloadedSong(songId: string): Promise<void> {
     if (song && song.localPath) {
       // Delete audio file
       await FileSystem.deleteAsync(song.localPath, { idempotent: true });
+      // Waveform peaks sidecar (see services/waveform)
+      await FileSystem.deleteAsync(`${song.localPath}.peaks`, { idempotent: true });
 
       // Delete image file if it's a local path
       if (
@@ -257,6 +294,8 @@ export async function deleteDownloadedSong(songId: string): Promise<void> {
         DOWNLOADS_INDEX_KEY,
         JSON.stringify(updatedDownloads)
       );
+      await removeDownloadedSong(songId);
+      await removeTrackLoudness(songId);
     }
   } catch (error) {
     console.error("Error deleting downloaded song:", error);
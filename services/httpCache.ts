@@ -0,0 +1,66 @@
+// services/httpCache.ts
+// Cached, de-duplicated GET requests backed by the native HttpCache module
+
+import { NativeModules, Platform } from "react-native";
+
+const { HttpCache } = NativeModules as any;
+
+export interface CachedFetchOptions {
+  /** How long a stored response counts as fresh. Omit to follow the server's max-age. */
+  ttlMs?: number;
+  /** Serve a stale copy immediately and refresh it in the background. */
+  staleWhileRevalidate?: boolean;
+  /** Skip the fresh-cache check (still revalidates with ETag when possible). */
+  force?: boolean;
+}
+
+export const isHttpCacheAvailable = () => {
+  return Platform.OS === "android" && !!HttpCache;
+};
+
+/**
+ * Drop-in for `fetch(url)` on GET endpoints. Returns a standard Response so callers
+ * keep using `response.ok` / `response.text()`; falls back to plain fetch off Android.
+ */
+export const cachedFetch = async (
+  url: string,
+  options: CachedFetchOptions = {},
+): Promise<Response> => {
+  if (!isHttpCacheAvailable()) {
+    return fetch(url);
+  }
+  const result = await HttpCache.fetch(url, options);
+  return new Response(result.body, {
+    status: result.status,
+    headers: {
+      "X-Cache": result.fromCache ? (result.stale ? "STALE" : "HIT") : "MISS",
+    },
+  });
+};
+
+export const removeCachedResponse = async (url: string): Promise<void> => {
+  if (!isHttpCacheAvailable()) return;
+  await HttpCache.remove(url);
+};
+
+export const clearHttpCache = async (): Promise<void> => {
+  if (!isHttpCacheAvailable()) return;
+  await HttpCache.clear();
+};
+
+export const getHttpCacheStats = async (): Promise<{
+  sizeBytes: number;
+  networkCalls: number;
+  coalesced: number;
+  cacheHits: number;
+} | null> => {
+  if (!isHttpCacheAvailable()) return null;
+  return await HttpCache.getStats();
+};
+
+export default {
+  cachedFetch,
+  removeCachedResponse,
+  clearHttpCache,
+  getHttpCacheStats,
+};
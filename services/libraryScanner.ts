@@ -0,0 +1,106 @@
+import { NativeEventEmitter, NativeModules, PermissionsAndroid, Platform } from 'react-native';
+
+const { LibraryScanner } = NativeModules as any;
+
+export interface LibraryItem {
+  kind: 'audio' | 'video';
+  id: number;
+  uri: string;
+  title: string | null;
+  artist: string | null;
+  album: string | null;
+  duration: number;
+  artPath: string | null;
+}
+
+export interface ScanResult {
+  added: number;
+  updated: number;
+  removed: number;
+  incremental: boolean;
+  total: number;
+  durationMs: number;
+}
+
+export interface ScanProgress {
+  kind: 'audio' | 'video';
+  processed: number;
+  total: number;
+}
+
+const emitter = LibraryScanner ? new NativeEventEmitter(LibraryScanner) : null;
+
+export function isLibraryScannerAvailable(): boolean {
+  return Platform.OS === 'android' && !!LibraryScanner;
+}
+
+export async function scanLibrary(options: { full?: boolean; artwork?: boolean } = {}): Promise<ScanResult> {
+  if (!isLibraryScannerAvailable()) {
+    throw new Error('LibraryScanner native module is not available');
+  }
+
+  return await LibraryScanner.scan(options);
+}
+
+/**
+ * Ask for read access to shared audio/video: READ_MEDIA_AUDIO and READ_MEDIA_VIDEO on
+ * Android 13+, READ_EXTERNAL_STORAGE before that. Resolves whether the scan can run.
+ */
+export async function requestLibraryPermission(): Promise<boolean> {
+  if (Platform.OS !== 'android') return false;
+  try {
+    const permissions =
+      (Platform.Version as number) >= 33
+        ? [PermissionsAndroid.PERMISSIONS.READ_MEDIA_AUDIO, PermissionsAndroid.PERMISSIONS.READ_MEDIA_VIDEO]
+        : [PermissionsAndroid.PERMISSIONS.READ_EXTERNAL_STORAGE];
+    const results = await PermissionsAndroid.requestMultiple(permissions);
+    return permissions.every((p) => results[p] === PermissionsAndroid.RESULTS.GRANTED);
+  } catch (e) {
+    console.warn('[LibraryScanner] permission request failed:', e);
+    return false;
+  }
+}
+
+let pendingRefresh: Promise<ScanResult | null> | null = null;
+
+/**
+ * Request permission if needed and run an incremental scan. Concurrent callers share the
+ * same scan; resolves null when the module or the permission is missing.
+ */
+export function refreshLibrary(): Promise<ScanResult | null> {
+  if (!isLibraryScannerAvailable()) return Promise.resolve(null);
+  if (pendingRefresh) return pendingRefresh;
+  pendingRefresh = (async () => {
+    try {
+      if (!(await requestLibraryPermission())) return null;
+      return await scanLibrary();
+    } catch (e) {
+      console.warn('[LibraryScanner] scan failed:', e);
+      return null;
+    } finally {
+      pendingRefresh = null;
+    }
+  })();
+  return pendingRefresh;
+}
+
+export async function searchLibrary(
+  query: string,
+  options: { limit?: number; kind?: 'audio' | 'video' } = {},
+): Promise<LibraryItem[]> {
+  if (!isLibraryScannerAvailable()) return [];
+
+  return await LibraryScanner.search(query, options);
+}
+
+export async function getLibraryStats(): Promise<{ audio: number; video: number; lastScan: number } | null> {
+  if (!isLibraryScannerAvailable()) return null;
+
+  return await LibraryScanner.getStats();
+}
+
+export function onScanProgress(listener: (progress: ScanProgress) => void): () => void {
+  if (!emitter) return () => {};
+  const sub = emitter.addListener('LibraryScanProgress', listener);
+  return () => sub.remove();
+}
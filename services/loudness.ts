@@ -0,0 +1,72 @@
+// services/loudness.ts
+// Background loudness analysis (EBU R128) for downloaded and imported tracks
+
+import { NativeModules, Platform } from "react-native";
+
+const { Loudness } = NativeModules as any;
+
+export interface LoudnessResult {
+  integratedLufs: number | null;
+  peak: number;
+  gainDb: number;
+}
+
+export const isLoudnessAvailable = () => {
+  return Platform.OS === "android" && !!Loudness;
+};
+
+/**
+ * Decode a local (unencrypted) file and store its normalization gain under trackId.
+ * Never throws; resolves null when analysis is unavailable or fails.
+ */
+export const analyzeTrackLoudness = async (
+  uri: string,
+  trackId: string,
+): Promise<LoudnessResult | null> => {
+  if (!isLoudnessAvailable()) return null;
+  try {
+    return await Loudness.analyze(uri, trackId);
+  } catch (e) {
+    console.warn("[Loudness] analyze failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Analyse the tracks that have no stored gain yet, one after another.
+ */
+export const analyzeMissingLoudness = async (
+  items: { id: string; uri: string }[],
+): Promise<void> => {
+  if (!isLoudnessAvailable()) return;
+  for (const item of items) {
+    if ((await getTrackGain(item.id)) !== null) continue;
+    await analyzeTrackLoudness(item.uri, item.id);
+  }
+};
+
+export const getTrackGain = async (trackId: string): Promise<number | null> => {
+  if (!isLoudnessAvailable()) return null;
+  try {
+    return await Loudness.getGain(trackId);
+  } catch {
+    return null;
+  }
+};
+
+export const removeTrackLoudness = async (trackId: string): Promise<void> => {
+  if (!isLoudnessAvailable()) return;
+  try {
+    await Loudness.remove(trackId);
+  } catch (e) {
+    console.warn("[Loudness] remove failed:", e);
+  }
+};
+
+export default {
+  isLoudnessAvailable,
+  analyzeTrackLoudness,
+  analyzeMissingLoudness,
+  getTrackGain,
+  removeTrackLoudness,
+};
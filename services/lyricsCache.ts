@@ -2,6 +2,7 @@
 // Cache synced lyrics locally for offline use
 
 import AsyncStorage from "@react-native-async-storage/async-storage";
+import { indexLyrics, removeLyrics } from "./offlineSearch";
 
 const LYRICS_CACHE_PREFIX = "lyrics_cache_";
 const LYRICS_INDEX_KEY = "lyrics_cache_index";
@@ -67,6 +68,7 @@ export const cacheLyrics = async (
 
     // Update index
     await updateLyricsIndex(songId, songName, artistName, isSynced);
+    await indexLyrics(songId, songName, artistName, lyrics);
 
     console.log(
       `[LyricsCache] Cached lyrics for "${songName}" (synced: ${isSynced})`,
@@ -139,6 +141,7 @@ export const clearAllCachedLyrics = async (): Promise<void> => {
       await AsyncStorage.multiRemove(keys);
     }
     await AsyncStorage.removeItem(LYRICS_INDEX_KEY);
+    await removeLyrics();
 
     console.log(`[LyricsCache] Cleared ${keys.length} cached lyrics`);
   } catch (error) {
@@ -161,6 +164,7 @@ export const removeCachedLyrics = async (songId: string): Promise<void> => {
       delete index[songId];
       await AsyncStorage.setItem(LYRICS_INDEX_KEY, JSON.stringify(index));
     }
+    await removeLyrics(songId);
   } catch (error) {
     console.warn("[LyricsCache] Error removing cached lyrics:", error);
   }
@@ -0,0 +1,51 @@
+import { NativeEventEmitter, NativeModules, Platform } from 'react-native';
+
+const { MediaRemux } = NativeModules as any;
+
+const emitter = MediaRemux ? new NativeEventEmitter(MediaRemux) : null;
+
+let jobCounter = 0;
+
+export interface AudioExtractionJob {
+  jobId: string;
+  /** Resolves with a file:// URI to the audio-only copy (.m4a, or .webm for Opus/Vorbis). */
+  result: Promise<string>;
+  cancel: () => Promise<void>;
+}
+
+export function isMediaRemuxAvailable(): boolean {
+  return Platform.OS === 'android' && !!MediaRemux;
+}
+
+/**
+ * Copy the audio track of a video into its own file without re-encoding.
+ * Rejects with E_UNSUPPORTED_CODEC when the track cannot be stream-copied.
+ * When uri is a temporary copy, pass the original URI as sourceKey so the output
+ * keeps a stable name and a later extraction of the same video is reused.
+ */
+export function extractAudioTrack(
+  uri: string,
+  onProgress?: (progress: number) => void,
+  sourceKey?: string,
+): AudioExtractionJob {
+  if (!isMediaRemuxAvailable()) {
+    throw new Error('MediaRemux native module is not available');
+  }
+
+  const jobId = `remux_${Date.now()}_${jobCounter++}`;
+  const sub = onProgress && emitter
+    ? emitter.addListener('MediaRemuxProgress', (event: { jobId: string; progress: number }) => {
+        if (event.jobId === jobId) onProgress(event.progress);
+      })
+    : null;
+
+  const result = (MediaRemux.extractAudio(uri, sourceKey ?? null, jobId) as Promise<string>).finally(() => sub?.remove());
+
+  return {
+    jobId,
+    result,
+    cancel: async () => {
+      await MediaRemux.cancel(jobId);
+    },
+  };
+}
@@ -0,0 +1,66 @@
+// services/memoryGovernor.ts
+// Native cache trimming on memory pressure: counters and a manual trim for testing
+
+import { NativeModules, Platform } from "react-native";
+
+const { MemoryGovernor } = NativeModules as any;
+
+/** Android ComponentCallbacks2 TRIM_MEMORY_* levels. */
+export const TrimLevel = {
+  RUNNING_MODERATE: 5,
+  RUNNING_LOW: 10,
+  RUNNING_CRITICAL: 15,
+  UI_HIDDEN: 20,
+  BACKGROUND: 40,
+  MODERATE: 60,
+  COMPLETE: 80,
+} as const;
+
+export interface TrimmableStats {
+  name: string;
+  trims: number;
+  /** Entries or objects released across all trims. */
+  evicted: number;
+}
+
+export interface MemoryGovernorStats {
+  /** -1 until the first trim. */
+  lastLevel: number;
+  lastTrimAt: number;
+  events: number;
+  caches: TrimmableStats[];
+}
+
+export const isMemoryGovernorAvailable = () => {
+  return Platform.OS === "android" && !!MemoryGovernor;
+};
+
+export const getMemoryGovernorStats = async (): Promise<MemoryGovernorStats | null> => {
+  if (!isMemoryGovernorAvailable()) return null;
+  try {
+    return await MemoryGovernor.getStats();
+  } catch (e) {
+    console.warn("[MemoryGovernor] getStats failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Simulate onTrimMemory(level); resolves the fraction caches were asked to keep
+ */
+export const simulateTrim = async (level: number): Promise<number> => {
+  if (!isMemoryGovernorAvailable()) return 1;
+  try {
+    return await MemoryGovernor.trim(level);
+  } catch (e) {
+    console.warn("[MemoryGovernor] trim failed:", e);
+    return 1;
+  }
+};
+
+export default {
+  TrimLevel,
+  isMemoryGovernorAvailable,
+  getMemoryGovernorStats,
+  simulateTrim,
+};
@@ -7,6 +7,7 @@
 
 import AsyncStorage from '@react-native-async-storage/async-storage';
 import NfcManager, { Ndef, NfcEvents, NfcTech } from 'react-native-nfc-manager';
+import { BINARY_PAYLOAD_VERSION, bytesToBase64Url, decodeNfcPayload } from './nfcCodec';
 import { verifyPayload } from './nfcCrypto';
 import { NfcPayload, NfcValidationResult } from './nfcTypes';
 
@@ -62,12 +63,18 @@ async function isSessionUsed(session: string): Promise<boolean> {
 
 /**
  * Parse NFC payload from URI format
+ * Accepts the sealed binary form (`p`) and the legacy individual parameters
  */
-function parsePayloadFromUri(uri: string): NfcPayload | null {
+export async function parsePayloadFromUri(uri: string): Promise<NfcPayload | null> {
   try {
     const url = new URL(uri);
     const params = url.searchParams;
     
+    const encoded = params.get('p');
+    if (encoded) {
+      return await decodeNfcPayload(encoded);
+    }
+    
     const session = params.get('session');
     const songId = params.get('songId');
     const expiry = params.get('expiry');
@@ -118,7 +125,7 @@ function parsePayloadFromJson(json: string): NfcPayload | null {
 /**
  * Parse NDEF message and extract NFC payload
  */
-export function parseNdefMessage(ndefMessage: any[]): NfcPayload | null {
+export async function parseNdefMessage(ndefMessage: any[]): Promise<NfcPayload | null> {
   try {
     if (!ndefMessage || ndefMessage.length === 0) {
       console.error('Empty NDEF message');
@@ -133,7 +140,7 @@ export function parseNdefMessage(ndefMessage: any[]): NfcPayload | null {
           // URI record
           const uri = Ndef.uri.decodePayload(new Uint8Array(record.payload));
           if (uri && (uri.startsWith('beatit://') || uri.startsWith('http'))) {
-            const payload = parsePayloadFromUri(uri);
+            const payload = await parsePayloadFromUri(uri);
             if (payload) return payload;
           }
         }
@@ -143,8 +150,10 @@ export function parseNdefMessage(ndefMessage: any[]): NfcPayload | null {
       if (record.tnf === Ndef.TNF_MIME_MEDIA) {
         const mimeType = Ndef.text.decodePayload(new Uint8Array(record.type));
         if (mimeType === 'application/beatit.nfc') {
-          const jsonStr = Ndef.text.decodePayload(new Uint8Array(record.payload));
-          const payload = parsePayloadFromJson(jsonStr);
+          // Binary payloads start with their version byte, JSON ones with '{'
+          const payload = record.payload?.[0] === BINARY_PAYLOAD_VERSION
+            ? await decodeNfcPayload(bytesToBase64Url(record.payload))
+            : parsePayloadFromJson(Ndef.text.decodePayload(new Uint8Array(record.payload)));
           if (payload) return payload;
         }
       }
@@ -240,7 +249,7 @@ export async function startNfcListener(
         console.log('NFC tag discovered:', tag);
         
         if (tag.ndefMessage && tag.ndefMessage.length > 0) {
-          const payload = parseNdefMessage(tag.ndefMessage);
+          const payload = await parseNdefMessage(tag.ndefMessage);
           
           if (payload) {
             const validation = await validateNfcPayload(payload);
@@ -310,7 +319,7 @@ export async function readNfcTag(): Promise<NfcPayload | null> {
     const tag = await NfcManager.getTag();
     
     if (tag && tag.ndefMessage && tag.ndefMessage.length > 0) {
-      const payload = parseNdefMessage(tag.ndefMessage);
+      const payload = await parseNdefMessage(tag.ndefMessage);
       
       if (payload) {
         const validation = await validateNfcPayload(payload);
@@ -6,7 +6,8 @@
  */
 
 import NfcManager, { Ndef, NfcTech } from 'react-native-nfc-manager';
-import { generateEphemeralSecret, generateUuid, signPayload } from './nfcCrypto';
+import { base64UrlToBytes, encodeNfcPayload } from './nfcCodec';
+import { createEphemeralSecret, generateUuid, signPayload } from './nfcCrypto';
 import { NfcConfig, NfcPayload } from './nfcTypes';
 
 // Default NFC configuration
@@ -77,13 +78,18 @@ export async function createNfcPayload(songId: string): Promise<NfcPayload> {
   };
   
   if (currentConfig.enableSignature) {
-    const secret = generateEphemeralSecret();
-    const { sig, secretPublic } = await signPayload(basePayload, secret);
-    return {
-      ...basePayload,
-      sig,
-      secretPublic,
-    };
+    try {
+      const secret = await createEphemeralSecret();
+      const { sig, secretPublic } = await signPayload(basePayload, secret);
+      return {
+        ...basePayload,
+        sig,
+        secretPublic,
+      };
+    } catch (error) {
+      // No secure hash on this runtime; an unsigned payload beats a fake signature
+      console.warn('NFC payload signing unavailable, sending unsigned:', error);
+    }
   }
   
   return basePayload;
@@ -91,9 +97,15 @@ export async function createNfcPayload(songId: string): Promise<NfcPayload> {
 
 /**
  * Convert NFC payload to URI format
+ * Uses the sealed binary payload as a single `p` parameter when the native codec is
+ * available, which is about half the size of the individual parameters.
  */
-function payloadToUri(payload: NfcPayload): string {
+async function payloadToUri(payload: NfcPayload): Promise<string> {
   const { appScheme, appHost, appPath } = currentConfig;
+  const encoded = await encodeNfcPayload(payload);
+  if (encoded) {
+    return `${appScheme}://${appHost}${appPath}?p=${encoded}`;
+  }
   const params = new URLSearchParams({
     session: payload.session,
     songId: payload.songId,
@@ -121,7 +133,7 @@ export async function writeNfcPayloadUri(songId: string): Promise<void> {
   try {
     console.log('Creating NFC payload for song:', songId);
     const payload = await createNfcPayload(songId);
-    const uri = payloadToUri(payload);
+    const uri = await payloadToUri(payload);
     console.log('Generated NFC URI:', uri);
     
     // Request NFC technology
@@ -161,19 +173,21 @@ export async function writeNfcPayloadUri(songId: string): Promise<void> {
 export async function writeNfcPayloadMime(songId: string): Promise<void> {
   try {
     const payload = await createNfcPayload(songId);
-    const jsonData = payloadToJson(payload);
+    // Binary payload when the native codec is available, JSON otherwise
+    const encoded = await encodeNfcPayload(payload);
+    const payloadBytes = encoded
+      ? base64UrlToBytes(encoded)
+      : Array.from(new TextEncoder().encode(payloadToJson(payload)));
     
     // Request NFC technology
     await NfcManager.requestTechnology(NfcTech.Ndef);
     
     // Create NDEF MIME record using the record() method
-    const textEncoder = new TextEncoder();
-    const payloadBytes = textEncoder.encode(jsonData);
     const mimeRecord = Ndef.record(
       Ndef.TNF_MIME_MEDIA,
       currentConfig.mimeType,
       [],
-      Array.from(payloadBytes)
+      payloadBytes
     );
     
     // Create Android Application Record (AAR)
@@ -183,7 +197,7 @@ export async function writeNfcPayloadMime(songId: string): Promise<void> {
     const bytes = Ndef.encodeMessage([mimeRecord, aarRecord]);
     await NfcManager.ndefHandler.writeNdefMessage(bytes);
     
-    console.log('Successfully wrote NFC payload (MIME format):', jsonData);
+    console.log('Successfully wrote NFC payload (MIME format):', encoded ?? payloadToJson(payload));
   } catch (error) {
     console.error('Failed to write NFC payload (MIME):', error);
     throw error;
@@ -208,7 +222,7 @@ export async function writeNfcPayload(songId: string): Promise<void> {
 export async function setupNfcPush(songId: string): Promise<void> {
   try {
     const payload = await createNfcPayload(songId);
-    const uri = payloadToUri(payload);
+    const uri = await payloadToUri(payload);
     
     console.log('NFC push setup (Android Beam deprecated):', uri);
     console.warn('Android Beam is not supported on Android 10+. Use writeNfcPayload instead.');
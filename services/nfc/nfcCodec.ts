@@ -0,0 +1,100 @@
+// services/nfc/nfcCodec.ts
+
+/**
+ * Native NFC payload codec (NfcCodec module)
+ * SecureRandom secrets, HMAC-SHA256 signing and a compact sealed binary payload that
+ * replaces base64 JSON on tags. Encoded payloads are unpadded base64url strings, usable
+ * directly as the `p` deep-link parameter.
+ */
+
+import { NativeModules, Platform } from 'react-native';
+import { NfcPayload } from './nfcTypes';
+
+const { NfcCodec } = NativeModules as any;
+
+/** First byte of a binary payload; JSON payloads start with '{'. */
+export const BINARY_PAYLOAD_VERSION = 2;
+
+export function isNfcCodecAvailable(): boolean {
+  return Platform.OS === 'android' && !!NfcCodec;
+}
+
+export async function generateSecretNative(): Promise<string | null> {
+  if (!isNfcCodecAvailable()) return null;
+  try {
+    return await NfcCodec.generateSecret();
+  } catch (e) {
+    console.warn('[NfcCodec] generateSecret failed:', e);
+    return null;
+  }
+}
+
+export async function signNative(
+  payload: Omit<NfcPayload, 'sig' | 'secretPublic'>,
+  secret: string
+): Promise<{ sig: string; secretPublic: string } | null> {
+  if (!isNfcCodecAvailable()) return null;
+  try {
+    return await NfcCodec.sign(payload.session, payload.songId, payload.expiry, secret);
+  } catch (e) {
+    console.warn('[NfcCodec] sign failed:', e);
+    return null;
+  }
+}
+
+export async function verifyNative(payload: NfcPayload, secret: string): Promise<boolean | null> {
+  if (!isNfcCodecAvailable()) return null;
+  try {
+    return await NfcCodec.verify(payload, secret);
+  } catch (e) {
+    console.warn('[NfcCodec] verify failed:', e);
+    return null;
+  }
+}
+
+/**
+ * Seal a payload into the binary format; null when the codec is unavailable
+ */
+export async function encodeNfcPayload(payload: NfcPayload): Promise<string | null> {
+  if (!isNfcCodecAvailable()) return null;
+  try {
+    return await NfcCodec.encode(payload);
+  } catch (e) {
+    console.warn('[NfcCodec] encode failed:', e);
+    return null;
+  }
+}
+
+/**
+ * Open a binary payload; null when it was altered, is not ours or the codec is unavailable
+ */
+export async function decodeNfcPayload(encoded: string): Promise<NfcPayload | null> {
+  if (!isNfcCodecAvailable()) return null;
+  try {
+    return await NfcCodec.decode(encoded);
+  } catch (e) {
+    console.warn('[NfcCodec] decode failed:', e);
+    return null;
+  }
+}
+
+/**
+ * base64url string <-> raw record bytes, for MIME records
+ */
+export function base64UrlToBytes(encoded: string): number[] {
+  const base64 = encoded.replace(/-/g, '+').replace(/_/g, '/');
+  const binary = atob(base64 + '='.repeat((4 - (base64.length % 4)) % 4));
+  const bytes: number[] = new Array(binary.length);
+  for (let i = 0; i < binary.length; i++) {
+    bytes[i] = binary.charCodeAt(i);
+  }
+  return bytes;
+}
+
+export function bytesToBase64Url(bytes: ArrayLike<number>): string {
+  let binary = '';
+  for (let i = 0; i < bytes.length; i++) {
+    binary += String.fromCharCode(bytes[i]);
+  }
+  return btoa(binary).replace(/\+/g, '-').replace(/\//g, '_').replace(/=+$/, '');
+}
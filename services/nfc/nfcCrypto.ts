@@ -7,6 +7,7 @@
  * For production use, consider additional security measures.
  */
 
+import { generateSecretNative, signNative, verifyNative } from './nfcCodec';
 import { NfcPayload } from './nfcTypes';
 
 /**
@@ -26,6 +27,13 @@ export function generateEphemeralSecret(): string {
   return arrayBufferToBase64(array);
 }
 
+/**
+ * Generate an ephemeral secret from the native SecureRandom when available
+ */
+export async function createEphemeralSecret(): Promise<string> {
+  return (await generateSecretNative()) ?? generateEphemeralSecret();
+}
+
 /**
  * Compute SHA-256 hash of input string
  */
@@ -33,28 +41,8 @@ async function sha256(message: string): Promise<ArrayBuffer> {
   if (typeof crypto !== 'undefined' && crypto.subtle) {
     const msgBuffer = new TextEncoder().encode(message);
     return await crypto.subtle.digest('SHA-256', msgBuffer);
-  } else {
-    // Fallback: Simple hash (NOT SECURE - for demo only)
-    console.warn('crypto.subtle not available, using insecure fallback hash');
-    return simpleHash(message);
   }
-}
-
-/**
- * Simple fallback hash (NOT CRYPTOGRAPHICALLY SECURE)
- */
-function simpleHash(str: string): ArrayBuffer {
-  let hash = 0;
-  for (let i = 0; i < str.length; i++) {
-    const char = str.charCodeAt(i);
-    hash = ((hash << 5) - hash) + char;
-    hash = hash & hash; // Convert to 32bit integer
-  }
-  // Convert to ArrayBuffer (simulated)
-  const buffer = new ArrayBuffer(32);
-  const view = new DataView(buffer);
-  view.setInt32(0, hash);
-  return buffer;
+  throw new Error('No secure SHA-256 implementation available');
 }
 
 /**
@@ -75,11 +63,8 @@ async function hmacSha256(key: string, message: string): Promise<ArrayBuffer> {
     );
     
     return await crypto.subtle.sign('HMAC', cryptoKey, msgBuffer);
-  } else {
-    // Fallback: Use simple hash (NOT SECURE)
-    console.warn('crypto.subtle not available, using insecure fallback HMAC');
-    return sha256(key + message);
   }
+  throw new Error('No secure HMAC-SHA256 implementation available');
 }
 
 /**
@@ -125,6 +110,10 @@ export async function signPayload(
   payload: Omit<NfcPayload, 'sig' | 'secretPublic'>,
   secret: string
 ): Promise<{ sig: string; secretPublic: string }> {
+  // Native MessageDigest/Mac first; Hermes usually has no crypto.subtle
+  const native = await signNative(payload, secret);
+  if (native) return native;
+
   const payloadString = createPayloadString(payload);
   
   // Compute HMAC signature
@@ -165,6 +154,9 @@ export async function verifyPayload(
   
   // If we have the secret (unlikely in offline guest scenario), verify fully
   if (providedSecret) {
+    const native = await verifyNative(payload, providedSecret);
+    if (native !== null) return native;
+
     const payloadString = createPayloadString({
       session: payload.session,
       songId: payload.songId,
@@ -0,0 +1,165 @@
+// services/offlineSearch.ts
+// Native offline search over downloaded songs, cached lyrics and the scanned device library
+
+import { NativeModules, Platform } from "react-native";
+import { ApiSong } from "./apiTypes";
+
+const { OfflineSearch } = NativeModules as any;
+
+export interface OfflineSearchResult {
+  key: string;
+  source: "song" | "library";
+  title: string | null;
+  artist: string | null;
+  album: string | null;
+  payload: any;
+  downloaded: boolean;
+  hasLyrics: boolean;
+  score: number;
+}
+
+export const isOfflineSearchAvailable = () => {
+  return Platform.OS === "android" && !!OfflineSearch;
+};
+
+const artistName = (song: ApiSong): string | null => {
+  if (typeof song.primaryArtists === "string") return song.primaryArtists;
+  if (Array.isArray(song.primaryArtists)) {
+    return song.primaryArtists.map((a) => a.name).join(", ");
+  }
+  return song.artist || song.singers || song.subtitle || null;
+};
+
+const toDoc = (song: ApiSong) => ({
+  id: song.id,
+  title: song.name || song.title || null,
+  artist: artistName(song),
+  album: song.album?.name || null,
+  payload: JSON.stringify(song),
+});
+
+/**
+ * Index (or re-index) downloaded songs
+ */
+export const indexDownloadedSongs = async (songs: ApiSong[]): Promise<void> => {
+  if (!isOfflineSearchAvailable() || songs.length === 0) return;
+  try {
+    await OfflineSearch.indexSongs(songs.map(toDoc));
+  } catch (e) {
+    console.warn("[OfflineSearch] indexSongs failed:", e);
+  }
+};
+
+/**
+ * Replace the whole downloaded set, e.g. to resync with the downloads index
+ */
+export const syncDownloadedSongs = async (songs: ApiSong[]): Promise<void> => {
+  if (!isOfflineSearchAvailable()) return;
+  try {
+    await OfflineSearch.replaceDownloads(songs.map(toDoc));
+  } catch (e) {
+    console.warn("[OfflineSearch] replaceDownloads failed:", e);
+  }
+};
+
+export const removeDownloadedSong = async (songId: string): Promise<void> => {
+  if (!isOfflineSearchAvailable()) return;
+  try {
+    await OfflineSearch.removeSong(songId);
+  } catch (e) {
+    console.warn("[OfflineSearch] removeSong failed:", e);
+  }
+};
+
+export const indexLyrics = async (
+  songId: string,
+  songName: string,
+  artistName: string,
+  lyrics: string,
+): Promise<void> => {
+  if (!isOfflineSearchAvailable()) return;
+  try {
+    await OfflineSearch.indexLyrics(songId, songName, artistName, lyrics);
+  } catch (e) {
+    console.warn("[OfflineSearch] indexLyrics failed:", e);
+  }
+};
+
+/**
+ * Drop lyrics from the index; omit songId to clear all of them
+ */
+export const removeLyrics = async (songId?: string): Promise<void> => {
+  if (!isOfflineSearchAvailable()) return;
+  try {
+    await OfflineSearch.clearLyrics(songId ?? null);
+  } catch (e) {
+    console.warn("[OfflineSearch] clearLyrics failed:", e);
+  }
+};
+
+/**
+ * Ranked, prefix and diacritic-insensitive search. Returns at most `limit` results.
+ */
+export const searchOffline = async (
+  query: string,
+  options: { limit?: number; source?: "song" | "library" } = {},
+): Promise<OfflineSearchResult[]> => {
+  if (!isOfflineSearchAvailable() || !query.trim()) return [];
+  try {
+    const rows = await OfflineSearch.search(query, options);
+    return rows.map((row: any) => {
+      let payload = null;
+      try {
+        payload = row.payload ? JSON.parse(row.payload) : null;
+      } catch {
+        payload = null;
+      }
+      return { ...row, payload };
+    });
+  } catch (e) {
+    console.warn("[OfflineSearch] search failed:", e);
+    return [];
+  }
+};
+
+/**
+ * Playable offline hits as ApiSong: downloaded songs as they were stored, scanned device
+ * audio as a song pointing at its content:// URI. Lyrics-only matches are left out since
+ * there is nothing to play.
+ */
+export const searchOfflineSongs = async (
+  query: string,
+  limit = 10,
+): Promise<ApiSong[]> => {
+  const rows = await searchOffline(query, { limit: limit * 2 });
+  const songs: ApiSong[] = [];
+  for (const row of rows) {
+    if (songs.length >= limit) break;
+    if (row.source === "song" && row.downloaded && row.payload) {
+      songs.push(row.payload);
+    } else if (row.source === "library" && row.payload?.kind === "audio") {
+      const name = row.title || row.payload.uri;
+      songs.push({
+        id: row.key,
+        name,
+        title: name,
+        primaryArtists: row.artist || "",
+        album: { id: "", name: row.album || "", url: "" },
+        duration: String(Math.round((row.payload.duration || 0) / 1000)),
+        downloadUrl: [{ quality: "320kbps", link: row.payload.uri }],
+      } as ApiSong);
+    }
+  }
+  return songs;
+};
+
+export default {
+  isOfflineSearchAvailable,
+  indexDownloadedSongs,
+  syncDownloadedSongs,
+  removeDownloadedSong,
+  indexLyrics,
+  removeLyrics,
+  searchOffline,
+  searchOfflineSongs,
+};
@@ -0,0 +1,98 @@
+// services/prefetch.ts
+// Pre-downloads upcoming queue items through the native Prefetch module
+
+import { NativeEventEmitter, NativeModules, Platform } from "react-native";
+
+const { Prefetch } = NativeModules as any;
+
+export interface PrefetchItem {
+  id: string;
+  url: string;
+}
+
+export interface PrefetchOptions {
+  /** Only prefetch on Wi-Fi / unmetered networks (default true). */
+  requireUnmetered?: boolean;
+  /** Skip when on battery below this percentage (default 20). */
+  minBatteryPct?: number;
+  /** Tracks larger than this are not prefetched (default 20 MB). */
+  maxTrackBytes?: number;
+  /** Total size of the prefetch cache (default 64 MB). */
+  budgetBytes?: number;
+}
+
+const emitter = Prefetch ? new NativeEventEmitter(Prefetch) : null;
+
+export const isPrefetchAvailable = () => {
+  return Platform.OS === "android" && !!Prefetch;
+};
+
+/**
+ * Replace the set of tracks to prefetch. Items no longer listed are abandoned.
+ */
+export const prefetchTracks = async (
+  items: PrefetchItem[],
+  options: PrefetchOptions = {},
+): Promise<{ scheduled: number; skipped: string | null } | null> => {
+  if (!isPrefetchAvailable()) return null;
+  try {
+    return await Prefetch.prefetch(items, options);
+  } catch (e) {
+    console.warn("[Prefetch] prefetch failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Local file:// URI for a fully prefetched track, or null
+ */
+export const getPrefetchedUri = async (id: string): Promise<string | null> => {
+  if (!isPrefetchAvailable()) return null;
+  try {
+    const cached = await Prefetch.getCached(id);
+    return cached?.complete ? cached.path : null;
+  } catch {
+    return null;
+  }
+};
+
+/** Whether a queue URL points into the prefetch cache. */
+export const isPrefetchedUri = (url: string | undefined | null) => {
+  return !!url && url.startsWith("file://") && url.includes("/prefetch/");
+};
+
+/**
+ * Ids whose prefetched file the player queue still references. These are never evicted;
+ * everything else in the cache may be. Replaces the previous set.
+ */
+export const pinPrefetched = async (ids: string[]): Promise<void> => {
+  if (!isPrefetchAvailable()) return;
+  try {
+    await Prefetch.setPinned(ids);
+  } catch (e) {
+    console.warn("[Prefetch] setPinned failed:", e);
+  }
+};
+
+export const clearPrefetchCache = async (): Promise<void> => {
+  if (!isPrefetchAvailable()) return;
+  await Prefetch.clear();
+};
+
+export const onPrefetchComplete = (
+  listener: (event: { id: string; path: string; bytes: number }) => void,
+) => {
+  if (!emitter) return () => {};
+  const sub = emitter.addListener("PrefetchComplete", listener);
+  return () => sub.remove();
+};
+
+export default {
+  isPrefetchAvailable,
+  prefetchTracks,
+  getPrefetchedUri,
+  isPrefetchedUri,
+  pinPrefetched,
+  clearPrefetchCache,
+  onPrefetchComplete,
+};
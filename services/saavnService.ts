@@ -6,10 +6,17 @@ import {
   ApiSong,
   HomePageData,
 } from "./apiTypes";
+import { cachedFetch } from "./httpCache";
 
 // Base URL for your Saavn API proxy
 const API_BASE_URL = "https://suman-api.vercel.app";
 
+// Response cache lifetimes (native HttpCache; identical in-flight requests are coalesced)
+const HOME_TTL_MS = 10 * 60 * 1000;
+const SONG_DETAILS_TTL_MS = 60 * 60 * 1000;
+const SEARCH_TTL_MS = 5 * 60 * 1000;
+const LYRICS_TTL_MS = 7 * 24 * 60 * 60 * 1000;
+
 /**
  * Fetch homepage data from possible endpoints.
  * Tries multiple endpoints until one succeeds.
@@ -29,7 +36,10 @@ export const getHomePageData = async (): Promise<HomePageData | null> => {
     for (const endpoint of possibleEndpoints) {
       try {
         console.log(`Trying endpoint: ${endpoint}`);
-        const response = await fetch(endpoint);
+        const response = await cachedFetch(endpoint, {
+          ttlMs: HOME_TTL_MS,
+          staleWhileRevalidate: true,
+        });
 
         if (response.ok) {
           const text = await response.text();
@@ -121,7 +131,9 @@ export const getSongDetails = async (
   }
 
   try {
-    const response = await fetch(`${API_BASE_URL}/songs/${songId}`);
+    const response = await cachedFetch(`${API_BASE_URL}/songs/${songId}`, {
+      ttlMs: SONG_DETAILS_TTL_MS,
+    });
 
     if (!response.ok) {
       console.error(
@@ -171,7 +183,7 @@ export const searchSongs = async (
     if (page > 1) url += `&page=${page}`;
     if (limit !== 20) url += `&limit=${limit}`;
 
-    const response = await fetch(url);
+    const response = await cachedFetch(url, { ttlMs: SEARCH_TTL_MS });
 
     if (!response.ok) {
       console.error(
@@ -240,8 +252,9 @@ export const searchAllTypes = async (
   }
 
   try {
-    const response = await fetch(
+    const response = await cachedFetch(
       `${API_BASE_URL}/search?query=${encodeURIComponent(query)}`,
+      { ttlMs: SEARCH_TTL_MS },
     );
 
     if (!response.ok) {
@@ -297,7 +310,7 @@ export const searchAlbums = async (
     if (page > 1) url += `&page=${page}`;
     if (limit !== 20) url += `&limit=${limit}`;
 
-    const response = await fetch(url);
+    const response = await cachedFetch(url, { ttlMs: SEARCH_TTL_MS });
 
     if (!response.ok) {
       console.error(
@@ -353,7 +366,7 @@ export const searchArtists = async (
     if (page > 1) url += `&page=${page}`;
     if (limit !== 20) url += `&limit=${limit}`;
 
-    const response = await fetch(url);
+    const response = await cachedFetch(url, { ttlMs: SEARCH_TTL_MS });
 
     if (!response.ok) {
       console.error(
@@ -409,7 +422,7 @@ export const searchPlaylists = async (
     if (page > 1) url += `&page=${page}`;
     if (limit !== 20) url += `&limit=${limit}`;
 
-    const response = await fetch(url);
+    const response = await cachedFetch(url, { ttlMs: SEARCH_TTL_MS });
 
     if (!response.ok) {
       console.error(
@@ -498,7 +511,12 @@ export const getSongLyrics = async (
       delete (cleanOptions.headers as Record<string, string>)["User-Agent"];
     }
 
-    return Promise.race([fetch(url, cleanOptions), timeoutPromise]);
+    // Plain GETs go through the native cache; lyrics rarely change
+    const request =
+      Object.keys(cleanOptions).length > 0
+        ? fetch(url, cleanOptions)
+        : cachedFetch(url, { ttlMs: LYRICS_TTL_MS });
+    return Promise.race([request, timeoutPromise]);
   };
 
   // Attempt to fetch lyrics
@@ -2,11 +2,24 @@ import { CURRENT_VERSION_CODE } from "@/constants/AppVersion";
 import * as FileSystem from "expo-file-system";
 import * as IntentLauncher from "expo-intent-launcher";
 import * as Sharing from "expo-sharing";
-import { Alert, Platform } from "react-native";
+import { Alert, NativeEventEmitter, NativeModules, Platform } from "react-native";
 
+// Overridable at bundle time to test against a local stand-in (scripts/serve-update.js)
 const UPDATE_JSON_URL =
+  process.env.EXPO_PUBLIC_UPDATE_JSON_URL ||
   "https://raw.githubusercontent.com/SumanBlswas/beatit-new/refs/heads/main/update.json";
 
+const { ApkUpdate } = NativeModules as any;
+const DOWNLOAD_ATTEMPTS = 3;
+
+/** Delta from one installed version, built with scripts/make-apk-patch.js. */
+export interface UpdatePatch {
+  fromVersionCode: number;
+  url: string;
+  sha256: string;
+  size: number;
+}
+
 export interface UpdateInfo {
   version: string;
   versionCode: number;
@@ -14,8 +27,17 @@ export interface UpdateInfo {
   downloadUrl: string;
   updateRequired: boolean;
   isCritical?: boolean;
+  /** SHA-256 (hex) and size of the full APK, when the manifest lists them. */
+  sha256?: string;
+  size?: number;
+  /** Patch that applies to the installed version, if the release ships one. */
+  patch?: UpdatePatch;
 }
 
+const isNativeUpdaterAvailable = () => {
+  return Platform.OS === "android" && !!ApkUpdate;
+};
+
 export const checkForUpdate = async (): Promise<UpdateInfo | null> => {
   try {
     const response = await fetch(UPDATE_JSON_URL, { cache: "no-cache" });
@@ -36,6 +58,11 @@ export const checkForUpdate = async (): Promise<UpdateInfo | null> => {
         downloadUrl: data.downloadUrl,
         updateRequired: data.updateRequired || false,
         isCritical,
+        sha256: data.sha256,
+        size: data.size,
+        patch: (data.patches || []).find(
+          (p: UpdatePatch) => p.fromVersionCode === CURRENT_VERSION_CODE,
+        ),
       };
     }
 
@@ -46,10 +73,17 @@ export const checkForUpdate = async (): Promise<UpdateInfo | null> => {
   }
 };
 
-export const isUpdateDownloaded = async (version: string): Promise<boolean> => {
+export const isUpdateDownloaded = async (
+  version: string,
+  sha256?: string,
+): Promise<boolean> => {
   try {
     const fileName = `beatit-v${version}.apk`;
     const fileUri = `${FileSystem.cacheDirectory}${fileName}`;
+    // A hash in the manifest means a stale or truncated file must not count as downloaded
+    if (sha256 && isNativeUpdaterAvailable()) {
+      return await ApkUpdate.verify(fileUri, sha256);
+    }
     const info = await FileSystem.getInfoAsync(fileUri);
     return info.exists;
   } catch (e) {
@@ -89,10 +123,72 @@ export const installUpdate = async (version: string): Promise<void> => {
   }
 };
 
+/**
+ * Native path: try the delta patch first, then the full APK. Downloads resume across
+ * attempts and are verified against the manifest hash while streaming.
+ */
+const downloadVerified = async (
+  downloadUrl: string,
+  fileUri: string,
+  update: UpdateInfo | undefined,
+  onProgress?: (progress: number) => void,
+): Promise<string> => {
+  // Patching reports two phases; give each half of the bar
+  let base = 0;
+  let weight = 1;
+  const subscription = new NativeEventEmitter(ApkUpdate).addListener(
+    "ApkUpdateProgress",
+    (event: { phase: string; bytes: number; total: number }) => {
+      if (!onProgress || event.total <= 0) return;
+      const offset = event.phase === "patch" ? base + weight : base;
+      onProgress(Math.min(1, offset + (event.bytes / event.total) * weight));
+    },
+  );
+
+  const download = async (url: string, dest: string, sha256?: string, size?: number) => {
+    let lastError: unknown;
+    for (let attempt = 0; attempt < DOWNLOAD_ATTEMPTS; attempt++) {
+      try {
+        return await ApkUpdate.download(url, dest, sha256 ?? null, size ?? -1);
+      } catch (e) {
+        lastError = e;
+        console.warn(`[UpdateService] Download attempt ${attempt + 1} failed:`, e);
+      }
+    }
+    throw lastError;
+  };
+
+  try {
+    if (update?.patch && update.sha256) {
+      const patchUri = fileUri.replace(/\.apk$/, "") + ".patch";
+      try {
+        weight = 0.5;
+        await download(update.patch.url, patchUri, update.patch.sha256, update.patch.size);
+        try {
+          const patched = await ApkUpdate.applyPatch(patchUri, fileUri, update.sha256);
+          return patched.path;
+        } finally {
+          // Only once applied: an interrupted patch download stays on disk to resume
+          FileSystem.deleteAsync(patchUri, { idempotent: true }).catch(() => {});
+        }
+      } catch (e) {
+        console.warn("[UpdateService] Delta update failed, downloading full APK:", e);
+      }
+      base = 0;
+      weight = 1;
+    }
+    const result = await download(downloadUrl, fileUri, update?.sha256, update?.size);
+    return result.path;
+  } finally {
+    subscription.remove();
+  }
+};
+
 export const downloadAndInstallUpdate = async (
   downloadUrl: string,
   fileName: string = "beatit-update.apk",
   onProgress?: (progress: number) => void,
+  update?: UpdateInfo,
 ): Promise<void> => {
   try {
     if (Platform.OS !== "android") {
@@ -105,19 +201,23 @@ export const downloadAndInstallUpdate = async (
 
     const fileUri = `${FileSystem.cacheDirectory}${fileName}`;
 
-    const downloadResumable = FileSystem.createDownloadResumable(
-      downloadUrl,
-      fileUri,
-      {},
-      (downloadProgress) => {
-        const progress =
-          downloadProgress.totalBytesWritten /
-          downloadProgress.totalBytesExpectedToWrite;
-        if (onProgress) onProgress(progress);
-      },
-    );
-
-    const result = await downloadResumable.downloadAsync();
+    let result: { uri: string } | undefined;
+    if (isNativeUpdaterAvailable()) {
+      result = { uri: await downloadVerified(downloadUrl, fileUri, update, onProgress) };
+    } else {
+      const downloadResumable = FileSystem.createDownloadResumable(
+        downloadUrl,
+        fileUri,
+        {},
+        (downloadProgress) => {
+          const progress =
+            downloadProgress.totalBytesWritten /
+            downloadProgress.totalBytesExpectedToWrite;
+          if (onProgress) onProgress(progress);
+        },
+      );
+      result = await downloadResumable.downloadAsync();
+    }
 
     if (result?.uri) {
       // Try IntentLauncher first for direct install
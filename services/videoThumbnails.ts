@@ -0,0 +1,90 @@
+// services/videoThumbnails.ts
+// Poster frames and scrubbing thumbnail strips from the native VideoThumbnails module
+
+import { NativeModules, Platform } from "react-native";
+
+const { VideoThumbnails } = NativeModules as any;
+
+export interface ThumbnailStrip {
+  intervalMs: number;
+  durationMs: number;
+  poster: string;
+  /** frames[i] shows time i * intervalMs; null where no frame could be decoded. */
+  frames: (string | null)[];
+}
+
+export const isVideoThumbnailsAvailable = () => {
+  return Platform.OS === "android" && !!VideoThumbnails;
+};
+
+const isLocalUri = (uri: string) =>
+  uri.startsWith("file:") || uri.startsWith("content:") || uri.startsWith("/");
+
+const BUSY_RETRIES = 5;
+const BUSY_BASE_DELAY_MS = 250;
+
+/**
+ * file:// URI of a cached poster frame, or null. The native queue is bounded, so a
+ * request refused with E_THUMBNAIL_BUSY (e.g. a fast scroll through a long grid) is
+ * retried with exponential backoff until isCancelled() says the poster left the screen.
+ */
+export const getVideoPoster = async (
+  uri: string,
+  maxWidth = 480,
+  isCancelled?: () => boolean,
+): Promise<string | null> => {
+  if (!isVideoThumbnailsAvailable() || !isLocalUri(uri)) return null;
+  for (let attempt = 0; ; attempt++) {
+    try {
+      return await VideoThumbnails.getPoster(uri, maxWidth);
+    } catch (e: any) {
+      if (e?.code !== "E_THUMBNAIL_BUSY" || attempt >= BUSY_RETRIES) {
+        console.warn("[VideoThumbnails] getPoster failed:", e);
+        return null;
+      }
+    }
+    // Jitter keeps a screenful of refused posters from all coming back at once
+    const delay = BUSY_BASE_DELAY_MS * 2 ** attempt * (0.5 + Math.random() / 2);
+    await new Promise((resolve) => setTimeout(resolve, delay));
+    if (isCancelled?.()) return null;
+  }
+};
+
+export const getVideoThumbnailStrip = async (
+  uri: string,
+  intervalMs = 10000,
+  maxWidth = 160,
+): Promise<ThumbnailStrip | null> => {
+  if (!isVideoThumbnailsAvailable() || !isLocalUri(uri)) return null;
+  try {
+    return await VideoThumbnails.getStrip(uri, intervalMs, maxWidth);
+  } catch (e) {
+    console.warn("[VideoThumbnails] getStrip failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Thumbnail for a playback position in seconds
+ */
+export const frameForTime = (strip: ThumbnailStrip, seconds: number): string | null => {
+  if (strip.frames.length === 0) return null;
+  const index = Math.min(
+    strip.frames.length - 1,
+    Math.max(0, Math.floor((seconds * 1000) / strip.intervalMs)),
+  );
+  return strip.frames[index];
+};
+
+export const clearVideoThumbnails = async (): Promise<void> => {
+  if (!isVideoThumbnailsAvailable()) return;
+  await VideoThumbnails.clear();
+};
+
+export default {
+  isVideoThumbnailsAvailable,
+  getVideoPoster,
+  getVideoThumbnailStrip,
+  frameForTime,
+  clearVideoThumbnails,
+};
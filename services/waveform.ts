@@ -0,0 +1,88 @@
+// services/waveform.ts
+// Seekbar waveform peaks built natively from local media and cached in ".peaks" sidecars
+
+import { NativeModules, Platform } from "react-native";
+import TrackPlayer from "react-native-track-player";
+import { getDownloadedSongs } from "./downloadService";
+
+const { Waveform } = NativeModules as any;
+
+export interface WaveformData {
+  /** Number of min/max pairs in peaks. */
+  resolution: number;
+  durationMs: number;
+  /** Packed [min0, max0, min1, max1, ...] in [-127, 127]. */
+  peaks: Int8Array;
+}
+
+export const isWaveformAvailable = () => {
+  return Platform.OS === "android" && !!Waveform;
+};
+
+// The native side sends the signed peak bytes as base64 rather than one bridge value each
+const decodePeaks = (base64: string): Int8Array => {
+  const binary = atob(base64);
+  const peaks = new Int8Array(binary.length);
+  for (let i = 0; i < binary.length; i++) {
+    peaks[i] = binary.charCodeAt(i);
+  }
+  return peaks;
+};
+
+const isLocalUri = (uri: string) =>
+  uri.startsWith("file:") || uri.startsWith("content:") || uri.startsWith("/");
+
+/**
+ * Peaks for a local file at the requested resolution. The first call per track decodes
+ * it once; later calls read the sidecar. sidecarPath pins where that file is kept.
+ */
+export const getWaveform = async (
+  uri: string,
+  resolution: number,
+  sidecarPath?: string,
+): Promise<WaveformData | null> => {
+  if (!isWaveformAvailable() || !isLocalUri(uri)) return null;
+  try {
+    const data = await Waveform.getPeaks(uri, sidecarPath ?? null, Math.round(resolution));
+    return { ...data, peaks: decodePeaks(data.peaks) };
+  } catch (e) {
+    console.warn("[Waveform] getPeaks failed:", e);
+    return null;
+  }
+};
+
+/**
+ * Waveform for the track that is currently loaded in the player, if it plays from a
+ * local file. Downloads keep their sidecar next to the encrypted file, since the
+ * decrypted playback copy is temporary.
+ */
+export const getActiveTrackWaveform = async (
+  songId: string,
+  resolution: number,
+): Promise<WaveformData | null> => {
+  if (!isWaveformAvailable()) return null;
+  try {
+    const track = await TrackPlayer.getActiveTrack();
+    if (!track?.url || typeof track.url !== "string" || track.id !== songId) return null;
+    const downloaded = (await getDownloadedSongs()).find((s) => s.id === songId);
+    return await getWaveform(track.url, resolution, downloaded?.localPath);
+  } catch {
+    return null;
+  }
+};
+
+export const removeWaveform = async (uri: string, sidecarPath?: string): Promise<void> => {
+  if (!isWaveformAvailable()) return;
+  try {
+    await Waveform.remove(uri, sidecarPath ?? null);
+  } catch (e) {
+    console.warn("[Waveform] remove failed:", e);
+  }
+};
+
+export default {
+  isWaveformAvailable,
+  getWaveform,
+  getActiveTrackWaveform,
+  removeWaveform,
+};
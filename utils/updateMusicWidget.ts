@@ -1,3 +1,4 @@
+import { touchCacheFile } from "@/services/cacheStorage";
 import * as FileSystem from "expo-file-system";
 import { NativeModules } from "react-native";
 
@@ -33,10 +34,12 @@ export const updateMusicWidget = async (info: PlaybackInfo) => {
   ) {
     const remoteUrl = infoToUpdate.albumArtPath;
 
-    // Check if we already downloaded this image
-    if (imageCache[remoteUrl]) {
+    // Check if we already downloaded this image (cache trimming may have removed it since)
+    const cachedPath = imageCache[remoteUrl];
+    if (cachedPath && (await FileSystem.getInfoAsync(cachedPath)).exists) {
       // Use the cached local path
-      infoToUpdate.albumArtPath = imageCache[remoteUrl];
+      infoToUpdate.albumArtPath = cachedPath;
+      touchCacheFile(cachedPath);
     } else {
       try {
         // Create a unique local filename